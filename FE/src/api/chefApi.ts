@@ -90,6 +90,36 @@ export const fetchPendingOrders = async (): Promise<KitchenOrderItem[]> => {
   return enrichedData;
 };
 
+export interface KitchenFeedHandlers {
+  onSnapshot: (orders: KitchenOrderItem[]) => void;
+  onAdd: (order: KitchenOrderItem) => void;
+  onUpdate: (order: KitchenOrderItem) => void;
+  onRemove: (orderDetailId: number) => void;
+  onError?: () => void;
+}
+
+// Màn hình bếp nhận snapshot một lần, sau đó chỉ nhận các thay đổi.
+// EventSource tự kết nối lại và server gửi lại snapshot mỗi lần kết nối.
+export const subscribeKitchenOrders = (handlers: KitchenFeedHandlers): (() => void) => {
+  const source = new EventSource(`${BASE_URL}/chef/orders/stream`);
+
+  source.addEventListener('snapshot', (e) => {
+    handlers.onSnapshot(enrichOrders(JSON.parse((e as MessageEvent).data)));
+  });
+  source.addEventListener('add', (e) => {
+    handlers.onAdd(enrichOrders([JSON.parse((e as MessageEvent).data)])[0]);
+  });
+  source.addEventListener('update', (e) => {
+    handlers.onUpdate(enrichOrders([JSON.parse((e as MessageEvent).data)])[0]);
+  });
+  source.addEventListener('remove', (e) => {
+    handlers.onRemove(JSON.parse((e as MessageEvent).data).orderDetailId);
+  });
+  source.onerror = () => handlers.onError?.();
+
+  return () => source.close();
+};
+
 export const updateOrderStatus = async (orderDetailId: number, status: string): Promise<void> => {
   const res = await fetch(`${BASE_URL}/chef/orders/${orderDetailId}/status?status=${status}`, {
     method: 'PUT',
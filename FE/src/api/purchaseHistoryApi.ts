@@ -12,14 +12,40 @@ export interface PurchaseHistoryDto {
 }
 
 export interface PurchaseHistoryResponse {
-    totalVisits: number;
+    customerPhone: string;
+    customerName: string | null;
+    totalOrders: number;
     totalSpent: number;
-    averageSpent: number;
+    purchaseHistory: PurchaseHistoryDto[];
+    nextCursor: string | null;
+}
+
+export interface PurchaseHistoryPage {
+    items: PurchaseHistoryDto[];
+    nextCursor: string | null;
+    hasMore: boolean;
 }
 
-// Lấy tất cả lịch sử giao dịch
-export const getAllPurchaseHistory = async (): Promise<PurchaseHistoryDto[]> => {
-    const response = await fetch('/api/purchase-history/all', {
+export interface PurchaseHistoryQuery {
+    phone?: string;
+    noPhone?: boolean;
+    from?: string;       // yyyy-MM-dd
+    to?: string;
+    orderType?: 'DINEIN' | 'TAKEAWAY';
+    refunded?: boolean;
+    cursor?: string | null;
+    size?: number;
+}
+
+// Lấy một trang lịch sử giao dịch (mới nhất trước); truyền nextCursor để lấy trang tiếp theo
+export const getPurchaseHistoryPage = async (query: PurchaseHistoryQuery = {}): Promise<PurchaseHistoryPage> => {
+    const params = new URLSearchParams();
+    Object.entries(query).forEach(([key, value]) => {
+        if (value !== undefined && value !== null && value !== '') {
+            params.append(key, String(value));
+        }
+    });
+    const response = await fetch(`/api/purchase-history?${params.toString()}`, {
         credentials: 'include',
     });
     if (!response.ok) {
@@ -28,55 +54,6 @@ export const getAllPurchaseHistory = async (): Promise<PurchaseHistoryDto[]> =>
     return response.json();
 };
 
-// Lấy tất cả lịch sử giao dịch không có số điện thoại
-export const getHistoryWithoutPhone = async (): Promise<PurchaseHistoryDto[]> => {
-    try {
-        const response = await fetch('/api/purchase-history/no-phone', {
-            credentials: 'include',
-            headers: {
-                'Accept': 'application/json',
-                'Content-Type': 'application/json',
-            },
-        });
-        
-        if (!response.ok) {
-            throw new Error('Failed to fetch orders without phone number');
-        }
-        
-        return await response.json();
-    } catch (error) {
-        console.error('API Error:', error);
-        throw error;
-    }
-};
-
-// Lấy lịch sử giao dịch theo số điện thoại
-export const getPurchaseHistoryByPhone = async (phone: string): Promise<PurchaseHistoryDto[]> => {
-    try {
-        const response = await fetch(`/api/purchase-history/customer/${phone}`, {
-            credentials: 'include',
-            headers: {
-                'Accept': 'application/json',
-                'Content-Type': 'application/json',
-            },
-        });
-        
-        const data = await response.json();
-        
-        if (!response.ok) {
-            if (response.status === 404) {
-                throw new Error('Customer not found');
-            }
-            throw new Error(data.message || 'Failed to fetch customer purchase history');
-        }
-        
-        return data;
-    } catch (error) {
-        console.error('API Error:', error);
-        throw error;
-    }
-};
-
 // Lấy thống kê khách hàng theo số điện thoại
 export const getCustomerStatistics = async (phone: string): Promise<PurchaseHistoryResponse> => {
     const response = await fetch(`/api/purchase-history/statistics/${phone}`, {
@@ -90,10 +67,3 @@ export const getCustomerStatistics = async (phone: string): Promise<PurchaseHist
     }
     return response.json();
 };
-
-
-
-
-
-
-
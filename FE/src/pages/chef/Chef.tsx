@@ -2,7 +2,7 @@
 import React, { useState, useEffect } from 'react';
 import { Clock, ChefHat, Utensils, AlertCircle } from 'lucide-react';
 import type { KitchenOrderItem, OrderStatus } from '../../api/chefApi';
-import { fetchPendingOrders, statusList, updateOrderStatus, cancelOrder } from '../../api/chefApi';
+import { subscribeKitchenOrders, statusList, updateOrderStatus, cancelOrder } from '../../api/chefApi';
 import TaskbarChef from './TaskbarChef';
 
 interface OrderCardProps {
@@ -23,24 +23,28 @@ const Chef = () => {
   }, []);
 
   useEffect(() => {
-    const loadOrders = async () => {
-      try {
-        setLoading(true);
+    const upsert = (order: KitchenOrderItem) =>
+      setPendingOrders(prev => {
+        const idx = prev.findIndex(o => o.orderDetailId === order.orderDetailId);
+        if (idx === -1) return [...prev, order];
+        const next = [...prev];
+        next[idx] = order;
+        return next;
+      });
+
+    const unsubscribe = subscribeKitchenOrders({
+      onSnapshot: orders => {
+        setPendingOrders(orders);
         setErrorMessage(null);
-        const pending = await fetchPendingOrders();
-        setPendingOrders(pending);
-      } catch (err) {
-        const message = err instanceof Error ? err.message : 'Failed to fetch orders';
-        setErrorMessage(message);
-        console.error('Error loading orders:', err);
-      } finally {
         setLoading(false);
-      }
-    };
-
-    loadOrders();
-    const interval = setInterval(loadOrders, 30000);
-    return () => clearInterval(interval);
+      },
+      onAdd: upsert,
+      onUpdate: upsert,
+      onRemove: orderDetailId =>
+        setPendingOrders(prev => prev.filter(o => o.orderDetailId !== orderDetailId)),
+      onError: () => console.warn('Kitchen feed disconnected, reconnecting...'),
+    });
+    return unsubscribe;
   }, []);
 
   const totalOrders = pendingOrders.length;
@@ -179,8 +183,7 @@ const OrderCard = ({ orderIdx, order, currentTime }: OrderCardProps) => {
       
       if (newStatus === 'cancelled') {
         await cancelOrder(order.orderDetailId);
-        // Force refresh the orders list
-        window.location.reload();
+        // Danh sách sẽ được cập nhật qua kitchen feed
       } else {
         await updateOrderStatus(order.orderDetailId, newStatus.toUpperCase());
       }
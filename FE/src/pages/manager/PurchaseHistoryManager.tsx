@@ -1,11 +1,10 @@
 import { useState, useEffect } from 'react';
 import TaskbarManager from '../../components/TaskbarManager';
 import { 
-  getAllPurchaseHistory, 
-  getPurchaseHistoryByPhone, 
-  getHistoryWithoutPhone,
+  getPurchaseHistoryPage,
   getCustomerStatistics,
   type PurchaseHistoryDto,
+  type PurchaseHistoryQuery,
   type PurchaseHistoryResponse 
 } from '../../api/purchaseHistoryApi';
 
@@ -16,13 +15,19 @@ const PurchaseHistoryManager = () => {
   const [phoneSearch, setPhoneSearch] = useState<string>('');
   const [customerStats, setCustomerStats] = useState<PurchaseHistoryResponse | null>(null);
   const [showNoPhoneOnly, setShowNoPhoneOnly] = useState<boolean>(false);
+  // Bộ lọc của danh sách đang hiển thị và cursor của trang tiếp theo
+  const [query, setQuery] = useState<PurchaseHistoryQuery>({});
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState<boolean>(false);
   
-  // Load all purchase history initially
+  // Load all purchase history initially (first page)
   const loadAllPurchases = async () => {
     try {
       setLoading(true);
-      const data = await getAllPurchaseHistory();
-      setPurchases(data);
+      const page = await getPurchaseHistoryPage();
+      setPurchases(page.items);
+      setQuery({});
+      setNextCursor(page.nextCursor);
       setCustomerStats(null); // Reset customer stats when loading all
       setError(null);
     } catch (err) {
@@ -33,6 +38,22 @@ const PurchaseHistoryManager = () => {
     }
   };
 
+  // Tải trang tiếp theo với cùng bộ lọc
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    try {
+      setLoadingMore(true);
+      const page = await getPurchaseHistoryPage({ ...query, cursor: nextCursor });
+      setPurchases(prev => [...prev, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      setError('Không thể tải thêm lịch sử giao dịch');
+      console.error('Error loading more purchase history:', err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   useEffect(() => {
     loadAllPurchases();
   }, []);
@@ -58,13 +79,11 @@ const PurchaseHistoryManager = () => {
       setError(null);
       
       const formattedPhone = phoneSearch.trim().replace(/^\+84/, '0');
-      let historyData, statsData;
+      let statsData;
       
       try {
-        [historyData, statsData] = await Promise.all([
-          getPurchaseHistoryByPhone(formattedPhone),
-          getCustomerStatistics(formattedPhone)
-        ]);
+        // Thống kê trả về luôn trang đầu tiên của lịch sử
+        statsData = await getCustomerStatistics(formattedPhone);
       } catch (apiError) {
         if (apiError instanceof Error) {
           if (apiError.message === 'Customer not found') {
@@ -76,12 +95,15 @@ const PurchaseHistoryManager = () => {
         throw apiError;
       }
 
+      const historyData = statsData.purchaseHistory;
       if (!historyData || historyData.length === 0) {
         setError('Không tìm thấy lịch sử giao dịch cho số điện thoại này');
         setPurchases([]);
       } else {
         setPurchases(historyData);
       }
+      setQuery({ phone: formattedPhone });
+      setNextCursor(statsData.nextCursor);
       
       setCustomerStats(statsData);
       
@@ -146,11 +168,13 @@ const PurchaseHistoryManager = () => {
                         try {
                           setLoading(true);
                           setError(null);
-                          const historyData = await getHistoryWithoutPhone();
-                          if (historyData.length === 0) {
+                          const page = await getPurchaseHistoryPage({ noPhone: true });
+                          if (page.items.length === 0) {
                             setError('Không có đơn hàng nào không có số điện thoại');
                           }
-                          setPurchases(historyData);
+                          setPurchases(page.items);
+                          setQuery({ noPhone: true });
+                          setNextCursor(page.nextCursor);
                           setCustomerStats(null);
                         } catch (err) {
                           console.error('Error fetching no-phone orders:', err);
@@ -190,7 +214,7 @@ const PurchaseHistoryManager = () => {
             <div className="mt-4 grid grid-cols-3 gap-4">
               <div className="p-4 bg-gray-50 rounded-lg">
                 <p className="text-sm text-gray-500">Số lần ghé quán</p>
-                <p className="text-xl font-semibold">{customerStats.totalVisits}</p>
+                <p className="text-xl font-semibold">{customerStats.totalOrders}</p>
               </div>
               <div className="p-4 bg-gray-50 rounded-lg">
                 <p className="text-sm text-gray-500">Tổng chi tiêu</p>
@@ -207,7 +231,7 @@ const PurchaseHistoryManager = () => {
                   {new Intl.NumberFormat('vi-VN', {
                     style: 'currency',
                     currency: 'VND'
-                  }).format(customerStats.averageSpent)}
+                  }).format(customerStats.totalOrders > 0 ? customerStats.totalSpent / customerStats.totalOrders : 0)}
                 </p>
               </div>
             </div>
@@ -296,6 +320,18 @@ const PurchaseHistoryManager = () => {
           </table>
         </div>
 
+        {nextCursor && (
+          <div className="flex justify-center mt-4">
+            <button
+              onClick={loadMore}
+              className="px-4 py-2 bg-gray-100 text-gray-700 rounded hover:bg-gray-200"
+              disabled={loadingMore}
+            >
+              {loadingMore ? 'Đang tải...' : 'Tải thêm'}
+            </button>
+          </div>
+        )}
+
       </div>
     </div>
   );
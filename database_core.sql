@@ -293,3 +293,9 @@ CREATE TABLE PromoUsage (
     PRIMARY KEY(PromoID, Phone, UsedAt)
 );
 GO
+
+-- ======================================
+-- Các thay đổi schema tiếp theo (bảng mới, index) nằm trong
+-- management/src/main/resources/db/migration và được Flyway chạy khi ứng dụng khởi động.
+-- Database tạo từ file này sẽ được baseline ở version 1.
+-- ======================================
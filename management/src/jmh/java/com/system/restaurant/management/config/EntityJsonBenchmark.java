@@ -0,0 +1,91 @@
+package com.system.restaurant.management.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.system.restaurant.management.entity.Order;
+import com.system.restaurant.management.entity.RestaurantTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the entities that controllers return directly (Order with its
+ * eagerly loaded table, RestaurantTable lists for the floor plan), using the application's
+ * {@link JacksonConfig} ObjectMapper.
+ * <pre>
+ * mvn -Pbenchmark compile exec:exec -Djmh.args="EntityJsonBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityJsonBenchmark {
+
+    @Param({"20", "200"})
+    private int size;
+
+    private ObjectMapper mapper;
+    private List<Order> orders;
+    private List<RestaurantTable> tables;
+
+    @Setup
+    public void setUp() {
+        mapper = new JacksonConfig().objectMapper();
+        LocalDateTime now = LocalDateTime.of(2025, 7, 1, 19, 0);
+        tables = new ArrayList<>();
+        orders = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            RestaurantTable table = RestaurantTable.builder()
+                    .tableId(i)
+                    .tableName("Bàn " + i)
+                    .areaId(1 + i % 3)
+                    .tableType("Thường")
+                    .status(i % 3 == 0 ? RestaurantTable.Status.OCCUPIED : RestaurantTable.Status.AVAILABLE)
+                    .isWindow(i % 4 == 0)
+                    .createdAt(now.minusDays(30))
+                    .build();
+            tables.add(table);
+            orders.add(Order.builder()
+                    .orderId(i)
+                    .orderType("DINEIN")
+                    .customerName("Khách " + i)
+                    .phone("09000000" + (10 + i % 90))
+                    .subTotal(BigDecimal.valueOf(350000))
+                    .discountAmount(BigDecimal.ZERO)
+                    .finalTotal(BigDecimal.valueOf(350000))
+                    .tableId(i)
+                    .table(table)
+                    .createdAt(now.minusMinutes(i))
+                    .statusId(1)
+                    .isRefunded(0)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] orders() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public byte[] tables() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(tables);
+    }
+}
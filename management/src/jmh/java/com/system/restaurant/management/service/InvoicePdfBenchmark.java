@@ -0,0 +1,80 @@
+package com.system.restaurant.management.service;
+
+import com.itextpdf.layout.font.FontProvider;
+import com.system.restaurant.management.dto.InvoicePdfData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-invoice render time and allocation, before and after sharing the font set.
+ * <p>
+ * {@code legacySystemFonts} reproduces the old path (new FontProvider + addSystemFonts for
+ * every invoice); {@code sharedFontSet} is what {@link InvoicePdfRenderer} does now. Run with
+ * {@code -prof gc} to see allocation per invoice:
+ * <pre>
+ * mvn -Pbenchmark compile exec:exec -Djmh.args="InvoicePdfBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoicePdfBenchmark {
+
+    @Param({"5", "30"})
+    private int lines;
+
+    private InvoicePdfRenderer renderer;
+    private InvoicePdfData invoice;
+
+    @Setup
+    public void setUp() {
+        renderer = new InvoicePdfRenderer(List.of());
+        List<InvoicePdfData.Item> items = new ArrayList<>();
+        for (int i = 1; i <= lines; i++) {
+            items.add(new InvoicePdfData.Item("Phở bò tái chín " + i, BigDecimal.valueOf(45000 + i * 1000L), 1 + i % 3));
+        }
+        invoice = InvoicePdfData.builder()
+                .orderId(1024)
+                .tableNumber(7)
+                .paidAt(LocalDateTime.of(2025, 7, 1, 19, 30))
+                .cashierName("Nguyễn Thị Thu Ngân")
+                .customerName("Trần Văn Khách")
+                .discount(BigDecimal.valueOf(20000))
+                .finalTotal(BigDecimal.valueOf(1500000))
+                .items(items)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] legacySystemFonts() {
+        FontProvider fontProvider = new FontProvider();
+        fontProvider.addSystemFonts();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        renderer.render(invoice, out, fontProvider, "Arial");
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] sharedFontSet() {
+        return renderer.render(invoice);
+    }
+}
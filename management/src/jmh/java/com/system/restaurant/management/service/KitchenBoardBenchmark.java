@@ -0,0 +1,82 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.dto.KitchenOrderDTO;
+import com.system.restaurant.management.entity.Dish;
+import com.system.restaurant.management.entity.Order;
+import com.system.restaurant.management.entity.OrderDetail;
+import com.system.restaurant.management.entity.RestaurantTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderDetail to {@link KitchenOrderDTO} mapping for the kitchen board
+ * ({@link KitchenFeedService#convertToDTO}, formerly ChefServiceImpl.convertToDTO), measured
+ * for a whole board load.
+ * <pre>
+ * mvn -Pbenchmark compile exec:exec -Djmh.args="KitchenBoardBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KitchenBoardBenchmark {
+
+    @Param({"50", "500"})
+    private int lines;
+
+    private List<OrderDetail> board;
+
+    @Setup
+    public void setUp() {
+        board = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.of(2025, 7, 1, 19, 0);
+        for (int i = 1; i <= lines; i++) {
+            RestaurantTable table = RestaurantTable.builder().tableId(i % 20 + 1).tableName("Bàn " + (i % 20 + 1)).build();
+            Order order = Order.builder()
+                    .orderId(i / 4 + 1)
+                    .orderType(i % 5 == 0 ? "TAKEAWAY" : "DINEIN")
+                    .table(table)
+                    .createdAt(now.minusMinutes(i))
+                    .build();
+            Dish dish = Dish.builder().dishId(i % 40 + 1).dishName("Phở bò tái " + i % 40).price(BigDecimal.valueOf(55000)).build();
+            board.add(OrderDetail.builder()
+                    .orderDetailId(i)
+                    .orderId(order.getOrderId())
+                    .dishId(dish.getDishId())
+                    .quantity(1 + i % 3)
+                    .unitPrice(dish.getPrice())
+                    .statusId(i % 10 == 0 ? 4 : 1)
+                    .notes(i % 3 == 0 ? "Không hành" : null)
+                    .order(order)
+                    .dish(dish)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<KitchenOrderDTO> convertBoard() {
+        List<KitchenOrderDTO> dtos = new ArrayList<>(board.size());
+        for (OrderDetail line : board) {
+            dtos.add(KitchenFeedService.convertToDTO(line));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,107 @@
+package com.system.restaurant.management.service.serviceImpl;
+
+import com.system.restaurant.management.dto.OrderItemRequest;
+import com.system.restaurant.management.entity.Combo;
+import com.system.restaurant.management.entity.ComboItem;
+import com.system.restaurant.management.entity.Dish;
+import com.system.restaurant.management.entity.Order;
+import com.system.restaurant.management.entity.OrderDetail;
+import com.system.restaurant.management.service.ComboCatalog.ComboDefinition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order pricing hot paths: expanding a combo into order lines when a waiter orders it
+ * ({@link WaiterServiceImpl#comboLines}), with the price split precomputed by ComboCatalog, the
+ * BigDecimal subtotal of the lines a waiter adds ({@link WaiterServiceImpl#calculateOrderSubTotal}),
+ * and the delta that a line change adds to the order's totals instead of re-summing every line
+ * ({@link OrderServiceImpl#lineTotal}, {@link OrderServiceImpl#addToTotals}).
+ * <pre>
+ * mvn -Pbenchmark compile exec:exec -Djmh.args="OrderPricingBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderPricingBenchmark {
+
+    /** Dishes in the combo, and lines in the order. */
+    @Param({"4", "30"})
+    private int size;
+
+    private ComboDefinition combo;
+    private OrderItemRequest comboItem;
+    private List<OrderDetail> lines;
+    private Order order;
+    private int changes;
+
+    @Setup
+    public void setUp() {
+        List<ComboItem> items = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            Dish dish = Dish.builder().dishId(i).dishName("Món " + i).price(BigDecimal.valueOf(30000 + i * 5000L)).build();
+            items.add(ComboItem.builder().comboId(1).dishId(i).quantity(1 + i % 3).dish(dish).build());
+        }
+        combo = ComboDefinition.of(Combo.builder().comboId(1).comboName("Combo gia đình").price(BigDecimal.valueOf(499000)).comboItems(items).build());
+
+        comboItem = new OrderItemRequest();
+        comboItem.setComboId(1);
+        comboItem.setIsCombo(true);
+        comboItem.setQuantity(2);
+        comboItem.setNotes("Ít cay");
+
+        lines = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            lines.add(OrderDetail.builder()
+                    .orderDetailId(i)
+                    .orderId(1)
+                    .dishId(i)
+                    .quantity(1 + i % 4)
+                    .unitPrice(new BigDecimal("45000.00").add(BigDecimal.valueOf(i * 1000L)))
+                    .statusId(i % 10 == 0 ? 4 : 1)
+                    .isRefunded(0)
+                    .build());
+        }
+        order = new Order();
+        order.setSubTotal(WaiterServiceImpl.calculateOrderSubTotal(lines));
+        order.setDiscountAmount(BigDecimal.ZERO);
+        order.setFinalTotal(order.getSubTotal());
+    }
+
+    @Benchmark
+    public List<OrderDetail> comboAllocation() {
+        return WaiterServiceImpl.comboLines(combo, comboItem, 1);
+    }
+
+    @Benchmark
+    public BigDecimal waiterSubTotal() {
+        return WaiterServiceImpl.calculateOrderSubTotal(lines);
+    }
+
+    // Đổi số lượng một dòng như updateTableOrderItem: chỉ cộng phần chênh lệch vào tổng của order
+    @Benchmark
+    public BigDecimal orderTotalsDelta() {
+        OrderDetail line = lines.get(changes++ % lines.size());
+        BigDecimal before = OrderServiceImpl.lineTotal(line);
+        line.setQuantity(1 + (line.getQuantity() + 1) % 4);
+        OrderServiceImpl.addToTotals(order, OrderServiceImpl.lineTotal(line).subtract(before));
+        return order.getFinalTotal();
+    }
+}
@@ -0,0 +1,83 @@
+package com.system.restaurant.management.service.serviceImpl;
+
+import com.system.restaurant.management.dto.ShiftAttendanceDTO;
+import com.system.restaurant.management.entity.AttendanceRecord;
+import com.system.restaurant.management.entity.User;
+import com.system.restaurant.management.entity.WorkShift;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The shift/attendance join behind GET all shift attendances
+ * ({@link ShiftAttendanceServiceImpl#joinAttendance}), which loads every shift and every
+ * attendance record and matches them by "userId_date" string keys.
+ * <pre>
+ * mvn -Pbenchmark compile exec:exec -Djmh.args="ShiftAttendanceBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShiftAttendanceBenchmark {
+
+    @Param({"500", "10000"})
+    private int shifts;
+
+    private List<WorkShift> workShifts;
+    private List<AttendanceRecord> records;
+
+    @Setup
+    public void setUp() {
+        List<User> users = new ArrayList<>();
+        for (int i = 1; i <= 40; i++) {
+            users.add(User.builder().id(i).username("staff" + i).build());
+        }
+        LocalDate firstDay = LocalDate.of(2025, 1, 1);
+        workShifts = new ArrayList<>();
+        records = new ArrayList<>();
+        for (int i = 0; i < shifts; i++) {
+            User user = users.get(i % users.size());
+            LocalDate day = firstDay.plusDays(i / users.size());
+            WorkShift shift = new WorkShift();
+            shift.setShiftId(i + 1);
+            shift.setUser(user);
+            shift.setShiftDate(day);
+            shift.setStartTime(LocalTime.of(8, 0));
+            shift.setEndTime(LocalTime.of(16, 0));
+            shift.setIsOverNight(0);
+            workShifts.add(shift);
+            // Khoảng 10% ca không chấm công
+            if (i % 10 != 0) {
+                AttendanceRecord record = new AttendanceRecord();
+                record.setAttendanceId(i + 1);
+                record.setUser(user);
+                record.setClockIn(day.atTime(7, 55));
+                record.setClockOut(day.atTime(16, 5));
+                records.add(record);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<ShiftAttendanceDTO> joinAttendance() {
+        return ShiftAttendanceServiceImpl.joinAttendance(workShifts, records);
+    }
+}
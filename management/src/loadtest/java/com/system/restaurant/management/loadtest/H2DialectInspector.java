@@ -0,0 +1,35 @@
+package com.system.restaurant.management.loadtest;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.regex.Pattern;
+
+/**
+ * Rewrites the T-SQL of RevenueRollupRepository.addToBucket, which H2's MSSQLServer mode does
+ * not accept, so the load test runs the same payment path as production. Only registered in
+ * the "loadtest" profile (application-loadtest.properties).
+ * <ul>
+ *   <li>{@code MERGE t WITH (HOLDLOCK)} becomes {@code MERGE INTO t}; H2 locks the row itself.</li>
+ *   <li>The untyped {@code SELECT ? AS BucketStart, ...} source gets CASTs, H2 cannot infer
+ *       parameter types there.</li>
+ * </ul>
+ */
+public class H2DialectInspector implements StatementInspector {
+
+    private static final Pattern MERGE_HOLDLOCK =
+            Pattern.compile("MERGE\\s+(\\w+)\\s+WITH\\s*\\(HOLDLOCK\\)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ROLLUP_SOURCE = Pattern.compile(
+            "SELECT\\s+\\?\\s+AS\\s+BucketStart,\\s*\\?\\s+AS\\s+MethodID,\\s*\\?\\s+AS\\s+OrderType",
+            Pattern.CASE_INSENSITIVE);
+
+    @Override
+    public String inspect(String sql) {
+        if (!sql.strip().regionMatches(true, 0, "MERGE", 0, 5)) {
+            return sql;
+        }
+        String rewritten = MERGE_HOLDLOCK.matcher(sql).replaceFirst("MERGE INTO $1");
+        return ROLLUP_SOURCE.matcher(rewritten).replaceFirst(
+                "SELECT CAST(? AS TIMESTAMP) AS BucketStart, CAST(? AS INT) AS MethodID, "
+                        + "CAST(? AS VARCHAR(20)) AS OrderType");
+    }
+}
@@ -0,0 +1,72 @@
+package com.system.restaurant.management.loadtest;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rewrites T-SQL {@code UPDATE t SET ... OUTPUT inserted.c WHERE ...}, which H2's MSSQLServer
+ * mode does not accept, to {@code SELECT c FROM FINAL TABLE (UPDATE t SET ... WHERE ...)}, so
+ * the load test runs the same overdue-reservation sweep as production. These statements go
+ * through JdbcTemplate rather than Hibernate, so {@link H2DialectInspector} never sees them;
+ * the rewrite sits on the DataSource's connections instead. Only active in the "loadtest"
+ * profile.
+ */
+@Component
+@Profile("loadtest")
+public class H2OutputClauseRewriter implements BeanPostProcessor {
+
+    private static final Pattern UPDATE_OUTPUT = Pattern.compile(
+            "^\\s*UPDATE\\s+(\\w+)\\s+SET\\s+(.+?)\\s+OUTPUT\\s+inserted\\.(\\w+)\\s+(WHERE\\s+.+?)\\s*$",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof DelegatingDataSource) {
+            return bean;
+        }
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return rewriting(super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return rewriting(super.getConnection(username, password));
+            }
+        };
+    }
+
+    private static String rewrite(String sql) {
+        Matcher update = UPDATE_OUTPUT.matcher(sql);
+        if (!update.matches()) {
+            return sql;
+        }
+        return "SELECT " + update.group(3) + " FROM FINAL TABLE (UPDATE " + update.group(1)
+                + " SET " + update.group(2) + " " + update.group(4) + ")";
+    }
+
+    private static Connection rewriting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("prepareStatement") && args[0] instanceof String sql) {
+                        args[0] = rewrite(sql);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
@@ -0,0 +1,608 @@
+package com.system.restaurant.management.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Dinner-rush load test (profile "loadtest"): seeds the H2 stand-in, then
+ * {@code loadtest.concurrency} simulated users drive the running app over HTTP with a mix of
+ * <ul>
+ *   <li>guests opening the QR menu (revalidating with If-None-Match on later scans), ordering
+ *       from it (half through the server-priced v2 endpoint) and polling their table's items,</li>
+ *   <li>guests browsing the reservation availability grid and booking a slot,</li>
+ *   <li>kitchen screens polling pending lines and starting them,</li>
+ *   <li>waiters changing table status and loading the floor plan,</li>
+ *   <li>cashiers looking up the best promo code for an order, then paying it
+ *       (processCompletePayment),</li>
+ *   <li>the odd forgotten password, whose OTP mail goes through the outbound mail queue.</li>
+ * </ul>
+ * Meanwhile {@code loadtest.seed.overdue-reservations} no-show reservations fall due one by
+ * one, and the report shows how many the overdue sweeper cancelled by the end.
+ * After {@code loadtest.warmup-seconds} every request is timed for
+ * {@code loadtest.duration-seconds}. Then {@code loadtest.promo.redemptions} cashiers redeem
+ * one promo code with {@code loadtest.promo.usage-limit} uses at the same instant, and replay
+ * the same requests to check that redemption is idempotent per order, and
+ * {@code loadtest.table-orders} guests add a dish to one table while as many guests add one
+ * to as many other tables, all at the same instant. p50/p95/p99 latency, throughput and
+ * errors per endpoint, plus the redemption and table-order outcomes, are written to
+ * {@code loadtest.report} and the app exits.
+ */
+@Component
+@Profile("loadtest")
+@RequiredArgsConstructor
+@Slf4j
+public class LoadTestRunner implements ApplicationRunner {
+
+    private final LoadTestSeeder seeder;
+    private final LocalSmtpServer smtpServer;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final ApplicationContext context;
+
+    @Value("${loadtest.concurrency:50}")
+    private int concurrency;
+
+    @Value("${loadtest.warmup-seconds:10}")
+    private int warmupSeconds;
+
+    @Value("${loadtest.duration-seconds:60}")
+    private int durationSeconds;
+
+    @Value("${loadtest.seed.overdue-reservations:200}")
+    private int overdueReservations;
+
+    @Value("${loadtest.promo.redemptions:200}")
+    private int promoRedemptions;
+
+    @Value("${loadtest.promo.usage-limit:100}")
+    private int promoUsageLimit;
+
+    @Value("${loadtest.table-orders:50}")
+    private int tableOrders;
+
+    @Value("${loadtest.report:target/loadtest-report.json}")
+    private String report;
+
+    private final Map<String, EndpointStats> stats = new ConcurrentSkipListMap<>();
+    private final Queue<Integer> unpaidOrders = new ConcurrentLinkedQueue<>();
+    private final Set<Integer> queuedOrders = ConcurrentHashMap.newKeySet();
+    private final Map<String, String> menuEtags = new ConcurrentHashMap<>();
+    private HttpClient client;
+    private String baseUrl;
+    private LoadTestSeeder.Menu menu;
+    private volatile boolean measuring;
+    private volatile boolean running = true;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        menu = seeder.seed();
+        List<Integer> noShows = seeder.seedOverdueReservations(overdueReservations, warmupSeconds + durationSeconds);
+        baseUrl = "http://localhost:" + environment.getProperty("local.server.port");
+        // Một phiên đăng nhập thu ngân dùng chung: thanh toán cần userId trong session
+        client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        HttpResponse<String> login = send("POST", "/api/auth/login",
+                Map.of("username", LoadTestSeeder.USERNAME, "password", LoadTestSeeder.PASSWORD));
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("Load test login failed: " + login.statusCode() + " " + login.body());
+        }
+
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService users = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread thread = new Thread(r, "loadtest-user-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < concurrency; i++) {
+            users.execute(this::simulateUser);
+        }
+        log.info("Load test: {} users against {}, warming up for {} s", concurrency, baseUrl, warmupSeconds);
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        measuring = true;
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        measuring = false;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        running = false;
+        users.shutdown();
+        users.awaitTermination(30, TimeUnit.SECONDS);
+
+        Map<String, Object> promotion = promotionContention();
+        Map<String, Object> tableOrders = tableOrderContention();
+        Map<String, Object> sweeper = new LinkedHashMap<>();
+        sweeper.put("seededNoShows", noShows.size());
+        sweeper.put("cancelled", seeder.countReservations(noShows, 3));
+        sweeper.put("stillPending", seeder.countReservations(noShows, 1));
+        writeReport(seconds, promotion, tableOrders, sweeper);
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+
+    private void simulateUser() {
+        while (running) {
+            try {
+                int scenario = ThreadLocalRandom.current().nextInt(100);
+                if (scenario < 30) {
+                    guestOrders();
+                } else if (scenario < 45) {
+                    guestPollsItems();
+                } else if (scenario < 55) {
+                    guestOpensMenu();
+                } else if (scenario < 58) {
+                    guestBooks();
+                } else if (scenario < 75) {
+                    kitchenPolls();
+                } else if (scenario < 87) {
+                    waiterUpdatesTable();
+                } else if (scenario < 88) {
+                    forgotPassword();
+                } else {
+                    cashierPays();
+                }
+            } catch (Exception e) {
+                if (running) {
+                    log.debug("Load test request failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void guestOrders() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Map<String, Object>> items = new ArrayList<>();
+        int lines = 1 + random.nextInt(4);
+        for (int i = 0; i < lines; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            if (random.nextInt(10) == 0) {
+                int combo = 1 + random.nextInt(menu.combos());
+                item.put("comboId", combo);
+                item.put("isCombo", true);
+                item.put("unitPrice", BigDecimal.valueOf(199000 + combo * 50000L));
+            } else {
+                int dish = 1 + random.nextInt(menu.dishPrices().size());
+                item.put("dishId", dish);
+                item.put("unitPrice", menu.dishPrices().get(dish - 1));
+            }
+            item.put("quantity", 1 + random.nextInt(3));
+            item.put("notes", "");
+            items.add(item);
+        }
+        HttpResponse<String> response;
+        if (random.nextBoolean()) {
+            Map<String, Object> body = Map.of("tableId", randomTable(), "orderType", "DINEIN", "items", items);
+            response = timed("POST /api/v1/orders/create", "POST", "/api/v1/orders/create", body);
+        } else {
+            // v2: server tự tính giá, bỏ qua unitPrice/isCombo
+            items.forEach(item -> {
+                item.remove("unitPrice");
+                item.remove("isCombo");
+            });
+            response = timed("POST /api/v2/orders", "POST", "/api/v2/orders", Map.of("tableId", randomTable(), "items", items));
+        }
+        if (response.statusCode() == 201) {
+            // Khách cùng bàn gọi thêm vào cùng một order: chỉ xếp hàng thanh toán một lần
+            int orderId = objectMapper.readTree(response.body()).path("orderId").asInt();
+            if (queuedOrders.add(orderId)) {
+                unpaidOrders.add(orderId);
+            }
+        }
+    }
+
+    private void guestOpensMenu() throws IOException, InterruptedException {
+        for (String path : new String[]{"/api/public/categories", "/api/public/dishes", "/api/public/combos"}) {
+            // Phần lớn khách đã có menu trong cache trình duyệt
+            String etag = ThreadLocalRandom.current().nextInt(10) < 7 ? menuEtags.get(path) : null;
+            HttpResponse<String> response = etag != null
+                    ? timed("GET " + path + " (If-None-Match)", "GET", path, null, "If-None-Match", etag)
+                    : timed("GET " + path, "GET", path, null);
+            response.headers().firstValue("ETag").ifPresent(tag -> menuEtags.put(path, tag));
+        }
+    }
+
+    private void guestBooks() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(10) < 7) {
+            timed("GET /api/v1/reservations/availability", "GET", "/api/v1/reservations/availability", null);
+            return;
+        }
+        LocalDateTime slot = LocalDate.now().plusDays(1 + random.nextInt(6)).atTime(7, 30).plusMinutes(30L * random.nextInt(27));
+        timed("POST /api/v1/reservations", "POST", "/api/v1/reservations", Map.of(
+                "customerName", "Khách đặt bàn", "phone", String.format("09%08d", random.nextInt(100_000_000)),
+                "reservationAt", slot.toString()));
+    }
+
+    private void guestPollsItems() throws IOException, InterruptedException {
+        timed("GET /api/v1/orders/table/{tableId}/items", "GET", "/api/v1/orders/table/" + randomTable() + "/items", null);
+    }
+
+    private void kitchenPolls() throws IOException, InterruptedException {
+        HttpResponse<String> response = timed("GET /api/chef/orders/pending", "GET", "/api/chef/orders/pending", null);
+        JsonNode pending = objectMapper.readTree(response.body());
+        if (pending.isArray() && !pending.isEmpty() && ThreadLocalRandom.current().nextInt(3) == 0) {
+            JsonNode line = pending.get(ThreadLocalRandom.current().nextInt(pending.size()));
+            timed("PUT /api/chef/orders/{orderDetailId}/status", "PUT",
+                    "/api/chef/orders/" + line.path("orderDetailId").asInt() + "/status?status=PROCESSING", null);
+        }
+    }
+
+    private void waiterUpdatesTable() throws IOException, InterruptedException {
+        if (ThreadLocalRandom.current().nextBoolean()) {
+            timed("GET /api/v1/tables/getAll", "GET", "/api/v1/tables/getAll", null);
+        } else {
+            String status = ThreadLocalRandom.current().nextBoolean() ? "Occupied" : "Available";
+            timed("PUT /api/v1/tables/{id}/status", "PUT", "/api/v1/tables/" + randomTable() + "/status",
+                    Map.of("status", status));
+        }
+    }
+
+    private void forgotPassword() throws IOException, InterruptedException {
+        timed("POST /api/auth/forgot-password", "POST", "/api/auth/forgot-password",
+                Map.of("email", LoadTestSeeder.email(1 + ThreadLocalRandom.current().nextInt(LoadTestSeeder.STAFF_WITH_EMAIL))));
+    }
+
+    private void cashierPays() throws IOException, InterruptedException {
+        Integer orderId = unpaidOrders.poll();
+        if (orderId == null) {
+            guestPollsItems();
+            return;
+        }
+        timed("GET /api/promotions/bestPromo", "GET",
+                "/api/promotions/bestPromo?subTotal=" + (100000 + ThreadLocalRandom.current().nextInt(900000)), null);
+        String method = LoadTestSeeder.PAYMENT_METHODS[ThreadLocalRandom.current().nextInt(LoadTestSeeder.PAYMENT_METHODS.length)];
+        timed("POST /api/waiter/orders/{orderId}/payment", "POST", "/api/waiter/orders/" + orderId + "/payment",
+                Map.of("paymentMethod", method));
+    }
+
+    /**
+     * {@code promoRedemptions} concurrent applyPromo calls for one code on distinct orders,
+     * released together, then the same calls again. Exactly {@code promoUsageLimit} first
+     * calls may succeed, the code must end at 0 uses left and every replay of a successful
+     * call must succeed again without using another one.
+     */
+    private Map<String, Object> promotionContention() throws Exception {
+        String code = "RUSH" + promoUsageLimit;
+        int promoId = seeder.seedPromotion(code, promoUsageLimit);
+        int redemptions = Math.min(promoRedemptions, seeder.historyOrders());
+        EndpointStats first = new EndpointStats();
+        EndpointStats replay = new EndpointStats();
+        long start = System.nanoTime();
+        int[] firstStatus = redeemConcurrently(code, redemptions, first);
+        double firstSeconds = (System.nanoTime() - start) / 1e9;
+        start = System.nanoTime();
+        int[] replayStatus = redeemConcurrently(code, redemptions, replay);
+        double replaySeconds = (System.nanoTime() - start) / 1e9;
+
+        int redeemed = 0;
+        int limitReached = 0;
+        int replayMismatches = 0;
+        for (int i = 0; i < redemptions; i++) {
+            if (firstStatus[i] == 200) {
+                redeemed++;
+            } else if (firstStatus[i] == 400) {
+                limitReached++;
+            }
+            if ((firstStatus[i] == 200) != (replayStatus[i] == 200)) {
+                replayMismatches++;
+            }
+        }
+        JsonNode promo = objectMapper.readTree(send("GET", "/api/promotions/getPromo/" + promoId, null).body());
+        int usesLeft = promo.path("usageLimit").asInt(-1);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("concurrentRedemptions", redemptions);
+        result.put("usageLimit", promoUsageLimit);
+        result.put("redeemed", redeemed);
+        result.put("limitReached", limitReached);
+        result.put("otherFailures", redemptions - redeemed - limitReached);
+        result.put("usesLeft", usesLeft);
+        result.put("replayMismatches", replayMismatches);
+        result.put("consistent", redeemed == Math.min(redemptions, promoUsageLimit)
+                && usesLeft == promoUsageLimit - redeemed && replayMismatches == 0);
+        result.put("first", first.summary("POST /api/promotions/applyPromo", firstSeconds));
+        result.put("replay", replay.summary("POST /api/promotions/applyPromo (replay)", replaySeconds));
+        log.info("Promotion contention: {}", result);
+        return result;
+    }
+
+    // Tất cả request chờ ở cùng một vạch xuất phát rồi gửi đồng loạt
+    private int[] redeemConcurrently(String code, int redemptions, EndpointStats stats) throws InterruptedException {
+        int[] status = new int[redemptions];
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService cashiers = Executors.newFixedThreadPool(redemptions);
+        for (int i = 0; i < redemptions; i++) {
+            int orderId = i + 1;
+            cashiers.execute(() -> {
+                long begin = 0;
+                try {
+                    start.await();
+                    begin = System.nanoTime();
+                    status[orderId - 1] = send("POST", "/api/promotions/applyPromo",
+                            Map.of("orderId", orderId, "promoCode", code)).statusCode();
+                } catch (Exception e) {
+                    log.debug("Redemption for order {} failed: {}", orderId, e.getMessage());
+                } finally {
+                    stats.record(System.nanoTime() - begin, status[orderId - 1] == 200);
+                }
+            });
+        }
+        start.countDown();
+        cashiers.shutdown();
+        cashiers.awaitTermination(60, TimeUnit.SECONDS);
+        return status;
+    }
+
+    /**
+     * {@code tableOrders} guests add a dish to table 1 while as many guests each add one to their
+     * own table, all released together; every other guest goes through the QR menu's
+     * POST /api/v1/orders/create, the rest through POST /api/tables/{tableId}/orders. Table 1 may
+     * turn some guests away with 409 (never 500) once its lock queue is full, but must end with
+     * one Pending order holding every accepted line; the other tables must not notice the hot
+     * table, so every one of their guests succeeds.
+     */
+    private Map<String, Object> tableOrderContention() throws Exception {
+        int guests = Math.min(tableOrders, menu.tables() - 1);
+        TableBurst oneTable = new TableBurst(guests, guest -> 1);
+        TableBurst distinctTables = new TableBurst(guests, guest -> 2 + guest);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService phones = Executors.newFixedThreadPool(2 * guests);
+        oneTable.submit(phones, start);
+        distinctTables.submit(phones, start);
+        long begin = System.nanoTime();
+        start.countDown();
+        phones.shutdown();
+        phones.awaitTermination(60, TimeUnit.SECONDS);
+        double seconds = (System.nanoTime() - begin) / 1e9;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("concurrentOrders", 2 * guests);
+        result.put("oneTable", oneTable.result("table orders (one table)", seconds, false));
+        result.put("distinctTables", distinctTables.result("table orders (distinct tables)", seconds, true));
+        log.info("Table order contention: {}", result);
+        return result;
+    }
+
+    /**
+     * One guest per phone, each adding a dish to the table {@code tableOf} gives them; odd guests
+     * use the v1 QR endpoint.
+     */
+    private final class TableBurst {
+
+        private final int guests;
+        private final IntUnaryOperator tableOf;
+        private final Map<Integer, Integer> linesBefore = new LinkedHashMap<>();
+        private final EndpointStats stats = new EndpointStats();
+        private final int[] status;
+
+        TableBurst(int guests, IntUnaryOperator tableOf) {
+            this.guests = guests;
+            this.tableOf = tableOf;
+            this.status = new int[guests];
+            for (int guest = 0; guest < guests; guest++) {
+                linesBefore.putIfAbsent(tableOf.applyAsInt(guest), 0);
+            }
+            linesBefore.replaceAll((table, lines) -> seeder.countPendingLines(table));
+        }
+
+        void submit(ExecutorService phones, CountDownLatch start) {
+            for (int i = 0; i < guests; i++) {
+                int guest = i;
+                int dish = 1 + guest % menu.dishPrices().size();
+                Map<String, Object> item = Map.of("dishId", dish, "quantity", 1,
+                        "unitPrice", menu.dishPrices().get(dish - 1), "notes", "");
+                phones.execute(() -> {
+                    long begin = 0;
+                    try {
+                        start.await();
+                        begin = System.nanoTime();
+                        int table = tableOf.applyAsInt(guest);
+                        status[guest] = guest % 2 == 1
+                                ? send("POST", "/api/v1/orders/create", Map.of("tableId", table,
+                                        "orderType", "DINEIN", "items", List.of(item))).statusCode()
+                                : send("POST", "/api/tables/" + table + "/orders", Map.of("item", item)).statusCode();
+                    } catch (Exception e) {
+                        log.debug("Table order of guest {} failed: {}", guest, e.getMessage());
+                    } finally {
+                        stats.record(System.nanoTime() - begin, accepted(status[guest]));
+                    }
+                });
+            }
+        }
+
+        Map<String, Object> result(String endpoint, double seconds, boolean allMustSucceed) {
+            int succeeded = (int) Arrays.stream(status).filter(TableBurst::accepted).count();
+            int rejected = (int) Arrays.stream(status).filter(code -> code == 409).count();
+            int duplicateOrders = 0;
+            int linesAdded = 0;
+            for (Map.Entry<Integer, Integer> table : linesBefore.entrySet()) {
+                duplicateOrders += Math.max(0, seeder.countPendingOrders(table.getKey()) - 1);
+                linesAdded += seeder.countPendingLines(table.getKey()) - table.getValue();
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("tables", linesBefore.size());
+            result.put("succeeded", succeeded);
+            result.put("rejected", rejected);
+            result.put("duplicatePendingOrders", duplicateOrders);
+            result.put("linesAdded", linesAdded);
+            result.put("serverErrors", (int) Arrays.stream(status).filter(code -> code >= 500).count());
+            result.put("consistent", (allMustSucceed ? succeeded == guests : succeeded + rejected == guests && succeeded > 0)
+                    && duplicateOrders == 0 && linesAdded == succeeded);
+            result.put("latency", stats.summary(endpoint, seconds));
+            return result;
+        }
+
+        // 200 từ /api/tables/{id}/orders, 201 từ /api/v1/orders/create
+        private static boolean accepted(int status) {
+            return status == 200 || status == 201;
+        }
+    }
+
+    private int randomTable() {
+        return 1 + ThreadLocalRandom.current().nextInt(menu.tables());
+    }
+
+    private HttpResponse<String> timed(String endpoint, String method, String path, Object body, String... headers)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            HttpResponse<String> response = send(method, path, body, headers);
+            ok = response.statusCode() < 400;
+            return response;
+        } finally {
+            if (measuring) {
+                stats.computeIfAbsent(endpoint, e -> new EndpointStats()).record(System.nanoTime() - start, ok);
+            }
+        }
+    }
+
+    private HttpResponse<String> send(String method, String path, Object body, String... headers)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json");
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+        request.method(method, body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void writeReport(double seconds, Map<String, Object> promotion, Map<String, Object> tableOrders,
+                             Map<String, Object> sweeper) throws IOException {
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        EndpointStats total = new EndpointStats();
+        stats.forEach((endpoint, endpointStats) -> {
+            endpoints.add(endpointStats.summary(endpoint, seconds));
+            total.addAll(endpointStats);
+            log.info("{}", endpointStats.summary(endpoint, seconds));
+        });
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("finishedAt", LocalDateTime.now().toString());
+        result.put("concurrency", concurrency);
+        result.put("virtualThreads", Threading.VIRTUAL.isActive(environment));
+        result.put("hikariMaxPoolSize", environment.getProperty("spring.datasource.hikari.maximum-pool-size"));
+        result.put("maxInFlight", environment.getProperty("db.concurrency.max-in-flight"));
+        result.put("warmupSeconds", warmupSeconds);
+        result.put("measuredSeconds", Math.round(seconds * 10) / 10.0);
+        result.put("tables", menu.tables());
+        result.put("dishes", menu.dishPrices().size());
+        result.put("endpoints", endpoints);
+        result.put("total", total.summary("ALL", seconds));
+        result.put("mailsDelivered", smtpServer.delivered());
+        result.put("promotionContention", promotion);
+        result.put("tableOrderContention", tableOrders);
+        result.put("overdueReservations", sweeper);
+
+        Path path = Path.of(report);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), result);
+        log.info("Load test report written to {}", path.toAbsolutePath());
+    }
+
+    /** Latencies of one endpoint in nanoseconds; percentiles are computed once at the end. */
+    private static final class EndpointStats {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        synchronized void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized void addAll(EndpointStats other) {
+            synchronized (other) {
+                for (int i = 0; i < other.count; i++) {
+                    record(other.latencies[i], true);
+                }
+                errors += other.errors;
+            }
+        }
+
+        synchronized Map<String, Object> summary(String endpoint, double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("p50", millis(percentile(sorted, 0.50)));
+            latency.put("p95", millis(percentile(sorted, 0.95)));
+            latency.put("p99", millis(percentile(sorted, 0.99)));
+            latency.put("max", millis(count == 0 ? 0 : sorted[count - 1]));
+            latency.put("mean", millis(count == 0 ? 0 : (long) Arrays.stream(sorted).average().orElse(0)));
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("endpoint", endpoint);
+            summary.put("requests", count);
+            summary.put("errors", errors);
+            summary.put("throughputPerSecond", Math.round(count / seconds * 10) / 10.0);
+            summary.put("latencyMs", latency);
+            return summary;
+        }
+
+        private static long percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+
+        private static double millis(long nanos) {
+            return Math.round(nanos / 1e4) / 100.0;
+        }
+    }
+}
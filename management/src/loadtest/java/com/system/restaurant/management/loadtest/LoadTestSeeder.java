@@ -0,0 +1,218 @@
+package com.system.restaurant.management.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills the empty H2 stand-in with a restaurant of realistic size: lookup rows, one cashier
+ * account, areas and tables, a menu with combos, regular customers and some months of paid
+ * order history. IDs are the identity values of a fresh database (1..n).
+ */
+@Component
+@Profile("loadtest")
+@RequiredArgsConstructor
+@Slf4j
+public class LoadTestSeeder {
+
+    static final String USERNAME = "loadtest";
+    static final String PASSWORD = "loadtest";
+    static final int STAFF_WITH_EMAIL = 1000;
+    static final int PROMOTIONS = 40;
+    static final int RESERVATION_TABLES = 2;
+    static final String[] PAYMENT_METHODS = {"Cash", "Card", "Momo", "VNPay"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${loadtest.seed.areas:4}")
+    private int areas;
+
+    @Value("${loadtest.seed.tables:60}")
+    private int tables;
+
+    @Value("${loadtest.seed.dishes:120}")
+    private int dishes;
+
+    @Value("${loadtest.seed.combos:10}")
+    private int combos;
+
+    @Value("${loadtest.seed.history-orders:20000}")
+    private int historyOrders;
+
+    public Menu seed() {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp created = Timestamp.valueOf(now.minusMonths(6));
+
+        for (String status : new String[]{"Pending", "Processing", "Done", "Cancelled"}) {
+            jdbcTemplate.update("INSERT INTO OrderStatuses (StatusName) VALUES (?)", status);
+        }
+        for (String status : new String[]{"Pending", "Confirmed", "Cancelled"}) {
+            jdbcTemplate.update("INSERT INTO ReservationStatuses (StatusName) VALUES (?)", status);
+        }
+        for (String method : PAYMENT_METHODS) {
+            jdbcTemplate.update("INSERT INTO PaymentMethods (MethodName) VALUES (?)", method);
+        }
+        jdbcTemplate.update("INSERT INTO Roles (RoleName, Description) VALUES ('waiter', 'Load test')");
+        jdbcTemplate.update("INSERT INTO Users (Username, PasswordHash, FullName, Email, Status, CreatedAt) VALUES (?, ?, ?, ?, ?, ?)",
+                USERNAME, passwordEncoder.encode(PASSWORD), "Load Test Cashier", email(0), true, created);
+        jdbcTemplate.update("INSERT INTO UserRoles (UserID, RoleID) VALUES (1, 1)");
+        // Quên mật khẩu bị giới hạn theo email: rải request trên nhiều tài khoản
+        String staffPassword = passwordEncoder.encode(PASSWORD);
+        batch("INSERT INTO Users (Username, PasswordHash, FullName, Email, Status, CreatedAt) VALUES (?, ?, ?, ?, ?, ?)",
+                STAFF_WITH_EMAIL, i -> new Object[]{"staff" + i, staffPassword, "Nhân viên " + i, email(i), true, created});
+
+        batch("INSERT INTO Areas (AreaName, Description) VALUES (?, ?)", areas,
+                i -> new Object[]{"Khu " + i, null});
+        batch("INSERT INTO RestaurantTables (TableName, AreaID, TableType, Status, IsWindow, CreatedAt) VALUES (?, ?, ?, ?, ?, ?)",
+                tables, i -> new Object[]{"Bàn " + i, 1 + i % areas, i % 5 == 0 ? "VIP" : "Thường", "Available", i % 4 == 0, created});
+        // Bàn đặt trước (id tables+1..): mỗi bàn nhận tối đa 1/3 số bàn lượt đặt trong 2 giờ
+        batch("INSERT INTO RestaurantTables (TableName, AreaID, TableType, Status, IsWindow, CreatedAt) VALUES (?, ?, ?, ?, ?, ?)",
+                RESERVATION_TABLES, i -> new Object[]{"Đặt trước " + i, 1, "Reserved", "Reserved", false, created});
+
+        batch("INSERT INTO Categories (CategoryName, Description) VALUES (?, ?)", 8,
+                i -> new Object[]{"Danh mục " + i, null});
+        List<BigDecimal> prices = new ArrayList<>();
+        batch("INSERT INTO Dishes (DishName, CategoryID, Price, Status, Unit, ImageUrl, CreatedAt) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                dishes, i -> {
+                    BigDecimal price = BigDecimal.valueOf(25000 + (i * 7919L) % 40 * 5000);
+                    prices.add(price);
+                    return new Object[]{"Món " + i, 1 + i % 8, price, true, "Phần", "/images/dish-" + i + ".jpg", created};
+                });
+        batch("INSERT INTO Combos (ComboName, Price, Description) VALUES (?, ?, ?)", combos,
+                i -> new Object[]{"Combo " + i, BigDecimal.valueOf(199000 + i * 50000L), null});
+        for (int combo = 1; combo <= combos; combo++) {
+            for (int k = 0; k < 4; k++) {
+                jdbcTemplate.update("INSERT INTO ComboItems (ComboID, DishID, Quantity) VALUES (?, ?, ?)",
+                        combo, 1 + (combo * 4 + k) % dishes, 1 + k % 2);
+            }
+        }
+
+        batch("INSERT INTO Customers (FullName, Phone, LoyaltyPoints, MemberSince) VALUES (?, ?, ?, ?)", 2000,
+                i -> new Object[]{"Khách " + i, phone(i), 0, created});
+
+        // Mã khuyến mãi đang chạy, hết hạn và chưa bắt đầu: nửa giảm %, nửa giảm tiền
+        LocalDate today = now.toLocalDate();
+        batch("INSERT INTO Promotions (PromoCode, PromoName, DiscountPercent, DiscountAmount, StartDate, EndDate, UsageLimit, IsActive) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", PROMOTIONS, i -> new Object[]{
+                "KM" + i, "Khuyến mãi " + i,
+                i % 2 == 0 ? BigDecimal.valueOf(5 + i % 20) : BigDecimal.ZERO,
+                i % 2 == 0 ? BigDecimal.ZERO : BigDecimal.valueOf(10000L * (1 + i % 10)),
+                today.plusDays(i % 3 == 0 ? 2 : -30), today.plusDays(i % 5 == 0 ? -1 : 30),
+                i % 4 == 0 ? null : 1000, true});
+
+        seedHistory(now);
+        log.info("Seeded {} areas, {} tables, {} dishes, {} combos and {} paid orders",
+                areas, tables, dishes, combos, historyOrders);
+        return new Menu(tables, List.copyOf(prices), combos);
+    }
+
+    // Lịch sử đơn đã thanh toán: mỗi đơn 3 món, 1 hóa đơn, 1 lần thanh toán
+    private void seedHistory(LocalDateTime now) {
+        batch("INSERT INTO Orders (OrderType, CustomerName, Phone, SubTotal, DiscountAmount, FinalTotal, TableID, CreatedAt, StatusID, IsRefunded) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", historyOrders, i -> new Object[]{
+                i % 4 == 0 ? "TAKEAWAY" : "DINEIN", "Khách " + i % 2000, i % 3 == 0 ? null : phone(1 + i % 2000),
+                BigDecimal.valueOf(300000), BigDecimal.ZERO, BigDecimal.valueOf(300000),
+                i % 4 == 0 ? null : 1 + i % tables, Timestamp.valueOf(createdAt(now, i)), 3, 0});
+        batch("INSERT INTO OrderDetails (OrderID, DishID, Quantity, UnitPrice, StatusID, IsRefunded) VALUES (?, ?, ?, ?, ?, ?)",
+                historyOrders * 3, i -> new Object[]{1 + (i - 1) / 3, 1 + i % dishes, 2, BigDecimal.valueOf(50000), 3, 0});
+        batch("INSERT INTO Invoices (OrderID, SubTotal, DiscountAmount, FinalTotal, IssuedBy, IssuedAt) VALUES (?, ?, ?, ?, ?, ?)",
+                historyOrders, i -> new Object[]{i, BigDecimal.valueOf(300000), BigDecimal.ZERO, BigDecimal.valueOf(300000), 1,
+                        Timestamp.valueOf(createdAt(now, i).plusMinutes(45))});
+        batch("INSERT INTO PaymentRecords (InvoiceID, MethodID, Amount, PaidAt, Notes) VALUES (?, ?, ?, ?, ?)",
+                historyOrders, i -> new Object[]{i, 1 + i % PAYMENT_METHODS.length, BigDecimal.valueOf(300000),
+                        Timestamp.valueOf(createdAt(now, i).plusMinutes(50)), null});
+    }
+
+    /**
+     * A percent-off code that {@code usageLimit} orders may redeem, for the promotion contention
+     * burst; returns its PromoID. The burst redeems it on the history orders 1..n.
+     */
+    public int seedPromotion(String code, int usageLimit) {
+        LocalDate today = LocalDate.now();
+        jdbcTemplate.update("INSERT INTO Promotions (PromoCode, PromoName, DiscountPercent, DiscountAmount, StartDate, EndDate, UsageLimit, IsActive) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                code, "Giờ vàng", BigDecimal.TEN, BigDecimal.ZERO, today.minusDays(1), today.plusDays(1), usageLimit, true);
+        return jdbcTemplate.queryForObject("SELECT PromoID FROM Promotions WHERE PromoCode = ?", Integer.class, code);
+    }
+
+    /**
+     * Pending reservations on the first reservation table whose 30-minute grace ends one by one
+     * over the next {@code spreadSeconds}, for the overdue sweeper. Their ids are returned.
+     */
+    public List<Integer> seedOverdueReservations(int count, int spreadSeconds) {
+        LocalDateTime firstDeadline = LocalDateTime.now().minusMinutes(30);
+        Timestamp created = Timestamp.valueOf(firstDeadline.minusDays(1));
+        batch("INSERT INTO Reservations (CustomerName, Phone, TableID, ReservationAt, StatusID, CreatedAt) VALUES (?, ?, ?, ?, ?, ?)",
+                count, i -> new Object[]{"Khách không đến " + i, phone(i), tables + 1,
+                        Timestamp.valueOf(firstDeadline.plusNanos((long) spreadSeconds * 1_000_000_000L * i / count)), 1, created});
+        return jdbcTemplate.queryForList("SELECT ReservationID FROM Reservations WHERE CustomerName LIKE 'Khách không đến %'", Integer.class);
+    }
+
+    int countReservations(List<Integer> reservationIds, int statusId) {
+        return reservationIds.stream()
+                .mapToInt(id -> jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM Reservations WHERE ReservationID = ? AND StatusID = ?", Integer.class, id, statusId))
+                .sum();
+    }
+
+    // Order Pending của một bàn và số dòng trên các order đó
+    int countPendingOrders(int tableId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM Orders WHERE TableID = ? AND StatusID = 1", Integer.class, tableId);
+    }
+
+    int countPendingLines(int tableId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM OrderDetails d JOIN Orders o ON o.OrderID = d.OrderID "
+                + "WHERE o.TableID = ? AND o.StatusID = 1", Integer.class, tableId);
+    }
+
+    int historyOrders() {
+        return historyOrders;
+    }
+
+    private LocalDateTime createdAt(LocalDateTime now, int i) {
+        return now.minusMinutes((long) (historyOrders - i + 1) * 12);
+    }
+
+    private void batch(String sql, int rows, RowValues values) {
+        List<Object[]> args = new ArrayList<>(Math.min(rows, 1000));
+        for (int i = 1; i <= rows; i++) {
+            args.add(values.row(i));
+            if (args.size() == 1000) {
+                jdbcTemplate.batchUpdate(sql, args);
+                args.clear();
+            }
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, args);
+        }
+    }
+
+    static String email(int i) {
+        return "staff" + i + "@localhost";
+    }
+
+    private static String phone(int i) {
+        return String.format("09%08d", i);
+    }
+
+    private interface RowValues {
+        Object[] row(int i);
+    }
+
+    /** What the scenarios may order: table ids 1..tables, dish i costs dishPrices[i - 1]. */
+    record Menu(int tables, List<BigDecimal> dishPrices, int combos) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.system.restaurant.management.loadtest;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process SMTP server (GreenMail) standing in for Gmail during the load test, so the
+ * outbound mail queue really delivers; spring.mail.* points at it in application-loadtest.properties.
+ */
+@Component
+@Profile("loadtest")
+public class LocalSmtpServer {
+
+    private final GreenMail greenMail;
+
+    public LocalSmtpServer(@Value("${spring.mail.port}") int port) {
+        greenMail = new GreenMail(new ServerSetup(port, "localhost", ServerSetup.PROTOCOL_SMTP));
+        greenMail.start();
+    }
+
+    public int delivered() {
+        return greenMail.getReceivedMessages().length;
+    }
+
+    @PreDestroy
+    public void stop() {
+        greenMail.stop();
+    }
+}
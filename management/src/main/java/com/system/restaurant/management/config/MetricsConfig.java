@@ -0,0 +1,115 @@
+package com.system.restaurant.management.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.ClassUtils;
+
+import java.util.List;
+
+/**
+ * Metrics that Spring Boot does not publish by itself (the rest comes from Actuator:
+ * http.server.requests per endpoint, hibernate.* statistics, hikaricp.* pool metrics).
+ * <ul>
+ *   <li>repository.sql.statements / repository.entity.loads: statements prepared and entities
+ *       loaded by each Spring Data repository method, tagged repository and method.</li>
+ *   <li>http.server.sql.statements: statements per request, see {@link SqlStatementsFilter}.</li>
+ * </ul>
+ * Both are fed by one {@link SqlStatementCounter} registered with Hibernate.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer(SqlStatementCounter counter) {
+        return properties -> {
+            // Giữ inspector đã cấu hình theo profile (vd. plan-check) và đếm sau nó
+            StatementInspector inspector = counter;
+            Object configured = properties.get(AvailableSettings.STATEMENT_INSPECTOR);
+            if (configured instanceof String className && !className.isBlank()) {
+                StatementInspector other = (StatementInspector) BeanUtils.instantiateClass(
+                        ClassUtils.resolveClassName(className, null));
+                inspector = sql -> counter.inspect(other.inspect(sql));
+            }
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+            properties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(new Integrator() {
+                @Override
+                public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                                      SessionFactoryImplementor sessionFactory) {
+                    sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class)
+                            .appendListeners(EventType.POST_LOAD, counter);
+                }
+
+                @Override
+                public void disintegrate(SessionFactoryImplementor sessionFactory,
+                                         SessionFactoryServiceRegistry serviceRegistry) {
+                }
+            }));
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor repositorySqlMetrics(ObjectProvider<SqlStatementCounter> counter,
+                                                         ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, info) -> proxyFactory.addAdvice(
+                                    repositoryInterceptor(info.getRepositoryInterface().getSimpleName(),
+                                            counter, registry))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static MethodInterceptor repositoryInterceptor(String repository,
+                                                           ObjectProvider<SqlStatementCounter> counterProvider,
+                                                           ObjectProvider<MeterRegistry> registryProvider) {
+        return invocation -> {
+            SqlStatementCounter counter = counterProvider.getObject();
+            long statements = counter.statements();
+            long entityLoads = counter.entityLoads();
+            try {
+                return invocation.proceed();
+            } finally {
+                MeterRegistry registry = registryProvider.getObject();
+                String method = invocation.getMethod().getName();
+                DistributionSummary.builder("repository.sql.statements")
+                        .tag("repository", repository)
+                        .tag("method", method)
+                        .register(registry)
+                        .record(counter.statements() - statements);
+                DistributionSummary.builder("repository.entity.loads")
+                        .tag("repository", repository)
+                        .tag("method", method)
+                        .register(registry)
+                        .record(counter.entityLoads() - entityLoads);
+            }
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package com.system.restaurant.management.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulkhead in front of the controllers when requests run on virtual threads
+ * (spring.threads.virtual.enabled on Java 21). Tomcat then no longer caps concurrency at its
+ * 200 worker threads, so a burst would pile thousands of requests onto the HikariCP pool and
+ * time them out there. At most {@code db.concurrency.max-in-flight} requests run at once;
+ * the rest wait up to {@code db.concurrency.acquire-timeout-ms} and are then answered 503.
+ * <p>
+ * Async requests (SSE, streamed exports) hold a permit only until they go async.
+ * Actuator endpoints are never limited.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class RequestConcurrencyLimiter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+    private final Counter rejected;
+
+    public RequestConcurrencyLimiter(@Value("${db.concurrency.max-in-flight:40}") int maxInFlight,
+                                     @Value("${db.concurrency.acquire-timeout-ms:2000}") long acquireTimeoutMs,
+                                     MeterRegistry registry) {
+        this.permits = new Semaphore(maxInFlight, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.rejected = Counter.builder("http.server.requests.rejected")
+                .description("Requests answered 503 because max-in-flight was reached")
+                .register(registry);
+        Gauge.builder("http.server.requests.in-flight", permits, p -> maxInFlight - p.availablePermits())
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            log.warn("Rejected {} {}: too many requests in flight", request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            response.getWriter().write("{\"error\":\"Service Unavailable\",\"message\":\"Server is busy, please retry\"}");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.system.restaurant.management.config;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares and the entities it loads on the current
+ * thread. Callers read the counters before and after a unit of work (an HTTP request, a
+ * repository call) and record the difference; see {@link MetricsConfig}.
+ * <p>
+ * Only Hibernate traffic is counted: queries sent through JdbcTemplate bypass it.
+ */
+public class SqlStatementCounter implements StatementInspector, PostLoadEventListener {
+
+    private static final int STATEMENTS = 0;
+    private static final int ENTITY_LOADS = 1;
+
+    private final ThreadLocal<long[]> counts = ThreadLocal.withInitial(() -> new long[2]);
+
+    @Override
+    public String inspect(String sql) {
+        counts.get()[STATEMENTS]++;
+        return sql;
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        counts.get()[ENTITY_LOADS]++;
+    }
+
+    public long statements() {
+        return counts.get()[STATEMENTS];
+    }
+
+    public long entityLoads() {
+        return counts.get()[ENTITY_LOADS];
+    }
+}
@@ -0,0 +1,65 @@
+package com.system.restaurant.management.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each request issued (http.server.sql.statements, tagged
+ * method and uri template) and flags requests above {@code metrics.sql.request-statement-threshold}:
+ * they are logged with their count and counted in http.server.sql.flagged, which is usually
+ * an N+1 query.
+ * <p>
+ * Counts statements run on the request thread only; async work (SSE, streamed downloads,
+ * export jobs) is not attributed to the request.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SqlStatementsFilter extends OncePerRequestFilter {
+
+    private final SqlStatementCounter counter;
+    private final MeterRegistry registry;
+
+    @Value("${metrics.sql.request-statement-threshold:20}")
+    private long threshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long before = counter.statements();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long statements = counter.statements() - before;
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder("http.server.sql.statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(registry)
+                    .record(statements);
+            if (statements > threshold) {
+                Counter.builder("http.server.sql.flagged")
+                        .tag("method", request.getMethod())
+                        .tag("uri", uri)
+                        .register(registry)
+                        .increment();
+                log.warn("{} {} issued {} SQL statements (threshold {})",
+                        request.getMethod(), request.getRequestURI(), statements, threshold);
+            }
+        }
+    }
+}
@@ -3,8 +3,10 @@ package com.system.restaurant.management.controller;
 import com.system.restaurant.management.dto.KitchenOrderDTO;
 import com.system.restaurant.management.service.ChefService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -20,6 +22,12 @@ public class ChefController {
         return ResponseEntity.ok(chefService.getPendingOrders());
     }
 
+    // Màn hình bếp: nhận snapshot ban đầu rồi các sự kiện add/update/remove
+    @GetMapping(value = "/chef/orders/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrders() {
+        return chefService.subscribeOrders();
+    }
+
     @PutMapping("/chef/orders/{orderDetailId}/status")
     public ResponseEntity<String> updateOrderStatus(
             @PathVariable Integer orderDetailId,
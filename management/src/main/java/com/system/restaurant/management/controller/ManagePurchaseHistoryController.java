@@ -1,14 +1,17 @@
 package com.system.restaurant.management.controller;
 
 import com.system.restaurant.management.dto.PurchaseHistoryDto;
+import com.system.restaurant.management.dto.PurchaseHistoryFilter;
+import com.system.restaurant.management.dto.PurchaseHistoryPage;
 import com.system.restaurant.management.dto.PurchaseHistoryResponse;
+import com.system.restaurant.management.dto.PurchaseHistorySummaryDto;
 import com.system.restaurant.management.service.ManagePurchaseHistoryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -18,6 +21,34 @@ public class ManagePurchaseHistoryController {
 
     private final ManagePurchaseHistoryService managePurchaseHistoryService;
 
+    // Phân trang theo cursor: truyền nextCursor của trang trước để lấy trang tiếp theo
+    @GetMapping
+    public ResponseEntity<PurchaseHistoryPage> getHistoryPage(
+            @RequestParam(required = false) String phone,
+            @RequestParam(defaultValue = "false") boolean noPhone,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String orderType,
+            @RequestParam(required = false) Boolean refunded,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        PurchaseHistoryFilter filter = new PurchaseHistoryFilter(phone, noPhone, from, to, orderType, refunded);
+        return ResponseEntity.ok(managePurchaseHistoryService.getHistoryPage(filter, cursor, size));
+    }
+
+    // Tổng số đơn / tổng tiền theo cùng bộ lọc với danh sách
+    @GetMapping("/summary")
+    public ResponseEntity<PurchaseHistorySummaryDto> getSummary(
+            @RequestParam(required = false) String phone,
+            @RequestParam(defaultValue = "false") boolean noPhone,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String orderType,
+            @RequestParam(required = false) Boolean refunded) {
+        PurchaseHistoryFilter filter = new PurchaseHistoryFilter(phone, noPhone, from, to, orderType, refunded);
+        return ResponseEntity.ok(managePurchaseHistoryService.getSummary(filter));
+    }
+
     @GetMapping("/all")
     public ResponseEntity<List<PurchaseHistoryDto>> getAllHistory() {
         List<PurchaseHistoryDto> history = managePurchaseHistoryService.getAllHistory();
@@ -3,6 +3,7 @@ package com.system.restaurant.management.controller;
 import com.system.restaurant.management.dto.ApplyPromotionRequest;
 import com.system.restaurant.management.dto.ApplyPromotionResponse;
 import com.system.restaurant.management.dto.PromotionRequestDto;
+import com.system.restaurant.management.dto.PromotionSuggestionResponse;
 import com.system.restaurant.management.entity.Promotion;
 import com.system.restaurant.management.service.PromotionService;
 
@@ -13,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -49,6 +51,14 @@ public class PromotionController {
         return ResponseEntity.ok(promotionService.listValidPromotions(phone));
     }
 
+    // Gợi ý mã giảm nhiều nhất cho màn hình thanh toán; 204 nếu không có mã nào áp được
+    @GetMapping("/bestPromo")
+    public ResponseEntity<PromotionSuggestionResponse> bestPromo(@RequestParam BigDecimal subTotal) {
+        return promotionService.suggestBest(subTotal)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
     @GetMapping
     public ResponseEntity<Page<Promotion>> list(
             @RequestParam(defaultValue = "0") int page,
@@ -1,14 +1,13 @@
 package com.system.restaurant.management.controller;
 
-import com.system.restaurant.management.dto.ComboDTO;
 import com.system.restaurant.management.dto.CreateDineInOrderRequest;
-import com.system.restaurant.management.entity.Category;
-import com.system.restaurant.management.entity.Dish;
 import com.system.restaurant.management.entity.Order;
 import com.system.restaurant.management.entity.RestaurantTable;
 import com.system.restaurant.management.service.*;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -21,9 +20,7 @@ import java.util.List;
 public class PublicController {
 
     private final TableService tableService;
-    private final DishService dishService;
-    private final CategoryService categoryService;
-    private final ComboService comboService;
+    private final MenuSnapshot menuSnapshot;
     private final ReceptionistService receptionistService;
 
     // Table endpoints
@@ -47,20 +44,28 @@ public class PublicController {
         return ResponseEntity.ok(tableService.findByAreaId(areaId));
     }
 
-    // Menu endpoints
+    // Menu endpoints: JSON dựng sẵn trong MenuSnapshot; If-None-Match khớp ETag thì Spring trả 304
     @GetMapping("/dishes")
-    public ResponseEntity<List<Dish>> getDishes() {
-        return ResponseEntity.ok(dishService.findAll());
+    public ResponseEntity<byte[]> getDishes() {
+        return menu(menuSnapshot.dishes());
     }
 
     @GetMapping("/categories")
-    public ResponseEntity<List<Category>> getCategories() {
-        return ResponseEntity.ok(categoryService.findAll());
+    public ResponseEntity<byte[]> getCategories() {
+        return menu(menuSnapshot.categories());
     }
 
     @GetMapping("/combos")
-    public ResponseEntity<List<ComboDTO>> getCombos() {
-        return ResponseEntity.ok(comboService.getAllCombos());
+    public ResponseEntity<byte[]> getCombos() {
+        return menu(menuSnapshot.combos());
+    }
+
+    private static ResponseEntity<byte[]> menu(MenuSnapshot.Resource resource) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .cacheControl(CacheControl.noCache())
+                .eTag(resource.etag())
+                .body(resource.body());
     }
 
     // Dine-in ordering endpoints
@@ -6,14 +6,15 @@ import com.system.restaurant.management.entity.OrderDetail;
 import com.system.restaurant.management.entity.Dish;
 import com.system.restaurant.management.service.OrderService;
 import com.system.restaurant.management.service.DishService;
-import com.system.restaurant.management.repository.OrderDetailRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
@@ -25,7 +26,6 @@ public class QRMenuOrderController {
     
     private final OrderService orderService;
     private final DishService dishService;
-    private final OrderDetailRepository orderDetailRepository;
 
     /**
      * Tạo đơn hàng từ QR Menu
@@ -52,56 +52,39 @@ public class QRMenuOrderController {
             orderDto.setTableId(tableId);
             orderDto.setCreatedAt(LocalDateTime.now());
             
-            // Tính toán totals từ items
-            BigDecimal subTotal = BigDecimal.ZERO;
+            // Gom tất cả món/combo trước khi tạo order: dữ liệu sai thì không để lại order rỗng
+            List<OrderItemRequest> orderItems = new ArrayList<>();
             for (Map<String, Object> item : items) {
-                Integer quantity = (Integer) item.get("quantity");
-                BigDecimal unitPrice = new BigDecimal(item.get("unitPrice").toString());
-                subTotal = subTotal.add(unitPrice.multiply(BigDecimal.valueOf(quantity)));
+                Boolean isCombo = (Boolean) item.getOrDefault("isCombo", false);
+                Integer comboId = (Integer) item.get("comboId");
+
+                OrderItemRequest orderItem = new OrderItemRequest();
+                orderItem.setDishId((Integer) item.get("dishId"));
+                orderItem.setComboId(isCombo ? comboId : null);
+                orderItem.setQuantity((Integer) item.get("quantity"));
+                orderItem.setUnitPrice(new BigDecimal(item.get("unitPrice").toString()));
+                orderItem.setNotes((String) item.getOrDefault("notes", ""));
+                orderItem.setIsCombo(isCombo && comboId != null);
+                orderItems.add(orderItem);
             }
-            
-            orderDto.setSubTotal(subTotal);
+
+            // Order mới chưa có món: tổng tiền được cộng dần khi ghi từng dòng (addOrderItems)
+            orderDto.setSubTotal(BigDecimal.ZERO);
             orderDto.setDiscountAmount(BigDecimal.ZERO);
-            orderDto.setFinalTotal(subTotal);
+            orderDto.setFinalTotal(BigDecimal.ZERO);
 
             // Tạo order
             OrderRequestDto savedOrder = orderService.createOrder(orderDto);
 
-            // Tạo order details
+            // Tạo order details: ghi tất cả món/combo một lần
             if (savedOrder.getOrderId() != null) {
-                for (Map<String, Object> item : items) {
-                    Boolean isCombo = (Boolean) item.getOrDefault("isCombo", false);
-                    Integer comboId = (Integer) item.get("comboId");
-
-                    if (isCombo && comboId != null) {
-                        // Xử lý combo bằng OrderService
-                        OrderItemRequest orderItem = new OrderItemRequest();
-                        orderItem.setDishId((Integer) item.get("dishId"));
-                        orderItem.setComboId(comboId);
-                        orderItem.setQuantity((Integer) item.get("quantity"));
-                        orderItem.setUnitPrice(new BigDecimal(item.get("unitPrice").toString()));
-                        orderItem.setNotes((String) item.getOrDefault("notes", ""));
-                        orderItem.setIsCombo(true);
-
-                        TableOrderRequest tableRequest = new TableOrderRequest();
-                        tableRequest.setTableId(tableId);
-                        tableRequest.setItem(orderItem);
-                        
-                        orderService.addTableOrderItem(tableRequest);
-                    } else {
-                        // Xử lý món đơn lẻ như trước
-                        OrderDetail detail = new OrderDetail();
-                        detail.setOrderId(savedOrder.getOrderId());
-                        detail.setDishId((Integer) item.get("dishId"));
-                        detail.setQuantity((Integer) item.get("quantity"));
-                        detail.setUnitPrice(new BigDecimal(item.get("unitPrice").toString()));
-                        detail.setStatusId(1); // Pending
-                        detail.setIsRefunded(0);
-                        detail.setNotes((String) item.getOrDefault("notes", ""));
-                        
-                        orderDetailRepository.save(detail);
-                    }
-                }
+                // Order có thể đã được thanh toán ngay sau khi tạo: món khi đó vào order Pending mới của bàn
+                Order order = orderService.addOrderItems(savedOrder.getOrderId(), orderItems);
+                // Tổng tiền trả về là tổng đã lưu của order, không phải tổng tính từ giá client gửi
+                savedOrder.setOrderId(order.getOrderId());
+                savedOrder.setSubTotal(order.getSubTotal());
+                savedOrder.setDiscountAmount(order.getDiscountAmount());
+                savedOrder.setFinalTotal(order.getFinalTotal());
             }
 
             Map<String, Object> response = new HashMap<>();
@@ -116,7 +99,11 @@ public class QRMenuOrderController {
             errorResponse.put("error", "Dữ liệu không hợp lệ");
             errorResponse.put("message", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
-            
+
+        } catch (ConcurrencyFailureException e) {
+            // Bàn đang có quá nhiều request chờ / order Pending trùng: GlobalExceptionHandler trả 409 để thử lại
+            throw e;
+
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("error", "Không thể tạo đơn hàng");
@@ -150,9 +137,9 @@ public class QRMenuOrderController {
      * GET /api/v1/orders/table/{tableId}/items
      */
     @GetMapping("/table/{tableId}/items")
-    public ResponseEntity<List<Object>> getOrderItemsByTable(@PathVariable Integer tableId) {
+    public ResponseEntity<List<TableOrderItemDto>> getOrderItemsByTable(@PathVariable Integer tableId) {
         try {
-            List<Object> orderItems = orderService.getActiveOrderItemsByTable(tableId);
+            List<TableOrderItemDto> orderItems = orderService.getActiveOrderItemsByTable(tableId);
             return ResponseEntity.ok(orderItems);
         } catch (Exception e) {
             return ResponseEntity.ok(List.of()); // Trả về danh sách rỗng nếu không có order
@@ -0,0 +1,30 @@
+package com.system.restaurant.management.controller;
+
+import com.system.restaurant.management.dto.QrOrderReceipt;
+import com.system.restaurant.management.dto.QrOrderSubmission;
+import com.system.restaurant.management.service.OrderService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v2/orders")
+@RequiredArgsConstructor
+public class QRMenuOrderV2Controller {
+
+    private final OrderService orderService;
+
+    /**
+     * Gọi món từ QR Menu: giá do server tính theo menu, order và các món ghi trong một transaction
+     * POST /api/v2/orders
+     */
+    @PostMapping
+    public ResponseEntity<QrOrderReceipt> submitOrder(@Valid @RequestBody QrOrderSubmission submission) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(orderService.submitQrOrder(submission));
+    }
+}
@@ -1,16 +1,24 @@
 package com.system.restaurant.management.controller;
 
+import com.system.restaurant.management.dto.InvoiceExportJobDto;
 import com.system.restaurant.management.dto.RevenueReportDto;
+import com.system.restaurant.management.dto.RevenueRollupCheckDto;
 import com.system.restaurant.management.dto.ShiftAttendanceDTO;
 import com.system.restaurant.management.dto.WorkShiftRequest;
 import com.system.restaurant.management.entity.WorkShift;
+import com.system.restaurant.management.service.InvoiceExportService;
 import com.system.restaurant.management.service.RevenueService;
 import com.system.restaurant.management.service.ShiftAttendanceService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -21,6 +29,7 @@ import java.util.List;
 public class ReportController {
     private final RevenueService service;
     private final ShiftAttendanceService shiftAttendanceService;
+    private final InvoiceExportService invoiceExportService;
 
     @GetMapping("/revenue/shifts")
     public ResponseEntity<List<RevenueReportDto>> byShifts(
@@ -42,6 +51,61 @@ public class ReportController {
         return ResponseEntity.ok(service.getRevenueByMonths(from, to));
     }
 
+    // Dựng lại rollup doanh thu từ hóa đơn (backfill)
+    @PostMapping("/revenue/rollup/rebuild")
+    public ResponseEntity<Integer> rebuildRollup(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(service.rebuildRollup(from, to));
+    }
+
+    // So sánh rollup với số liệu tính lại trực tiếp từ hóa đơn
+    @GetMapping("/revenue/rollup/check")
+    public ResponseEntity<RevenueRollupCheckDto> checkRollup(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(service.checkRollup(from, to));
+    }
+
+    // Xuất toàn bộ hóa đơn trong khoảng ngày thành file ZIP (chạy nền, theo dõi tiến độ bằng jobId)
+    @PostMapping("/invoices/export")
+    public ResponseEntity<InvoiceExportJobDto> startInvoiceExport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(invoiceExportService.start(from, to));
+    }
+
+    @GetMapping("/invoices/export/{jobId}")
+    public ResponseEntity<InvoiceExportJobDto> invoiceExportStatus(@PathVariable String jobId) {
+        return ResponseEntity.ok(invoiceExportService.status(jobId));
+    }
+
+    @GetMapping("/invoices/export/{jobId}/download")
+    public ResponseEntity<Resource> downloadInvoiceExport(@PathVariable String jobId) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + invoiceExportService.fileName(jobId) + "\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(new FileSystemResource(invoiceExportService.file(jobId)));
+    }
+
+    @DeleteMapping("/invoices/export/{jobId}")
+    public ResponseEntity<InvoiceExportJobDto> cancelInvoiceExport(@PathVariable String jobId) {
+        return ResponseEntity.ok(invoiceExportService.cancel(jobId));
+    }
+
+    // Xuất ZIP trực tiếp vào response, không lưu file trên server
+    @GetMapping("/invoices/export.zip")
+    public ResponseEntity<StreamingResponseBody> streamInvoiceExport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + InvoiceExportService.fileName(from, to) + "\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(invoiceExportService.stream(from, to));
+    }
+
     @GetMapping("/shift/attendance/staff")
     public List<ShiftAttendanceDTO> getShifts(
     ) {
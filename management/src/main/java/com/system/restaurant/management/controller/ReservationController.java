@@ -6,11 +6,15 @@ import com.system.restaurant.management.service.ManageTableService;
 import com.system.restaurant.management.service.ReservationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/reservations")
@@ -60,6 +64,15 @@ public class ReservationController {
         return ResponseEntity.ok(reservations);
     }
 
+    // Số bàn đặt trước còn trống cho từng khung 30 phút, cho màn hình chọn giờ đặt bàn
+    @GetMapping("/availability")
+    public ResponseEntity<Map<LocalDateTime, Integer>> getAvailability(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(defaultValue = "7") int days
+    ) {
+        return ResponseEntity.ok(reservationService.getAvailabilityGrid(from != null ? from : LocalDate.now(), days));
+    }
+
     @PatchMapping("/{reservationId}/confirm")
     public ResponseEntity<Reservation> confirmReservation(
             @PathVariable Integer reservationId, @RequestParam Integer tableId) {
@@ -0,0 +1,25 @@
+package com.system.restaurant.management.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class InvoiceExportJobDto {
+    private String jobId;
+    private String status;          // QUEUED, RUNNING, DONE, FAILED, CANCELLED
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private long totalInvoices;
+    private long renderedInvoices;
+    private long failedInvoices;
+    private int percent;
+    private Long fileSizeBytes;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    private String error;
+}
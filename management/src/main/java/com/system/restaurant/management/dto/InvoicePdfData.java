@@ -0,0 +1,41 @@
+package com.system.restaurant.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Everything printed on an invoice PDF, loaded up front so rendering never touches the database.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoicePdfData {
+    private Integer invoiceId;
+    private Integer orderId;
+    private Integer tableNumber;   // null với đơn mang đi / giao hàng
+    private String address;       // Order.notes
+    private String phone;
+    private LocalDateTime issuedAt;
+    private LocalDateTime paidAt;
+    private String cashierName;
+    private String customerName;
+    private BigDecimal discount;
+    private BigDecimal finalTotal;
+    private List<Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private String dishName;
+        private BigDecimal unitPrice;
+        private Integer quantity;
+    }
+}
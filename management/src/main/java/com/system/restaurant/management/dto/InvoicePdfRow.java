@@ -0,0 +1,30 @@
+package com.system.restaurant.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row of {@code InvoiceRepository.findPdfRows}: the invoice header columns repeated on
+ * every served order line (dish columns are null when the order has no served line).
+ */
+@Getter
+@AllArgsConstructor
+public class InvoicePdfRow {
+    private Integer invoiceId;
+    private LocalDateTime issuedAt;
+    private Integer orderId;
+    private Integer tableId;
+    private String notes;
+    private String phone;
+    private BigDecimal discountAmount;
+    private BigDecimal finalTotal;
+    private LocalDateTime paidAt;
+    private String cashierName;
+    private String customerName;
+    private String dishName;
+    private BigDecimal unitPrice;
+    private Integer quantity;
+}
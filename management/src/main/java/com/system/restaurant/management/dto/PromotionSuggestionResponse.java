@@ -0,0 +1,18 @@
+package com.system.restaurant.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PromotionSuggestionResponse {
+    private String promoCode;
+    private String promoName;
+    private BigDecimal subTotal;
+    private BigDecimal discount;
+    private BigDecimal finalTotal;
+}
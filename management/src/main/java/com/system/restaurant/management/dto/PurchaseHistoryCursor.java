@@ -0,0 +1,35 @@
+package com.system.restaurant.management.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a purchase history page: (createdAt, orderId) of that row,
+ * sent to clients as an opaque URL-safe string.
+ */
+public record PurchaseHistoryCursor(LocalDateTime createdAt, Integer orderId) {
+
+    public static PurchaseHistoryCursor of(PurchaseHistoryDto row) {
+        return new PurchaseHistoryCursor(row.getOrderDate(), row.getOrderId());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PurchaseHistoryCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new PurchaseHistoryCursor(LocalDateTime.parse(raw.substring(0, sep)),
+                    Integer.valueOf(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Cursor không hợp lệ: " + cursor);
+        }
+    }
+}
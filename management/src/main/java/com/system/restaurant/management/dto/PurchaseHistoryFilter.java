@@ -0,0 +1,24 @@
+package com.system.restaurant.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Optional filters of the purchase history list and summary; null fields are ignored.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseHistoryFilter {
+    private String phone;
+    private boolean noPhone;        // chỉ đơn không có số điện thoại
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private String orderType;       // DINEIN / TAKEAWAY
+    private Boolean refunded;
+}
@@ -0,0 +1,18 @@
+package com.system.restaurant.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseHistoryPage {
+    private List<PurchaseHistoryDto> items;
+    private String nextCursor;      // null khi đã hết dữ liệu
+    private boolean hasMore;
+}
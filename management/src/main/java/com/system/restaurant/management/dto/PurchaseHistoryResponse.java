@@ -17,5 +17,6 @@ public class PurchaseHistoryResponse {
     private String customerName;
     private Integer totalOrders;
     private BigDecimal totalSpent;
-    private List<PurchaseHistoryDto> purchaseHistory;
+    private List<PurchaseHistoryDto> purchaseHistory;   // trang đầu tiên, mới nhất trước
+    private String nextCursor;
 }
\ No newline at end of file
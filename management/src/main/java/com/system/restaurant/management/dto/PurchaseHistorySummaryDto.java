@@ -0,0 +1,19 @@
+package com.system.restaurant.management.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseHistorySummaryDto {
+    private long totalOrders;
+    private BigDecimal totalSpent;
+    private BigDecimal totalDiscount;
+    private long refundedOrders;
+}
@@ -0,0 +1,21 @@
+package com.system.restaurant.management.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Result of a QR menu submission (POST /api/v2/orders): the lines written, at server prices,
+ * and the table's order they were added to.
+ */
+public record QrOrderReceipt(
+        Integer orderId,
+        Integer tableId,
+        BigDecimal submittedTotal,
+        BigDecimal orderSubTotal,
+        BigDecimal orderFinalTotal,
+        List<Line> lines) {
+
+    /** One order line; combos appear as their dishes, with the combo price split over them. */
+    public record Line(Integer dishId, Integer comboId, String dishName, Integer quantity, BigDecimal unitPrice) {
+    }
+}
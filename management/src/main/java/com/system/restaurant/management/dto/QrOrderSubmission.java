@@ -0,0 +1,37 @@
+package com.system.restaurant.management.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Cart submitted from the QR menu (POST /api/v2/orders). It carries no prices: every line is
+ * priced on the server from the menu.
+ */
+public record QrOrderSubmission(
+        @NotNull(message = "Table ID is required")
+        Integer tableId,
+
+        @NotEmpty(message = "Order items are required")
+        @Size(max = 100, message = "At most 100 items per order")
+        List<@Valid @NotNull Item> items) {
+
+    /** One cart line: a dish, or a combo when {@code comboId} is set. */
+    public record Item(
+            Integer dishId,
+            Integer comboId,
+
+            @NotNull(message = "Quantity is required")
+            @Min(value = 1, message = "Quantity must be at least 1")
+            @Max(value = 100, message = "Quantity must be at most 100")
+            Integer quantity,
+
+            @Size(max = 200, message = "Notes must be at most 200 characters")
+            String notes) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.system.restaurant.management.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One Pending reservation as the overdue sweeper tracks it
+ * ({@code ReservationRepository.findDeadlinesByStatusId}): only its id and time.
+ */
+public record ReservationDeadlineRow(Integer reservationId, LocalDateTime reservationAt) {
+}
@@ -0,0 +1,18 @@
+package com.system.restaurant.management.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RevenueRollupCheckDto {
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private int bucketsCompared;
+    private boolean consistent;
+    private List<String> mismatches;
+}
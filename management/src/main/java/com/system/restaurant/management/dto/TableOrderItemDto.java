@@ -0,0 +1,45 @@
+package com.system.restaurant.management.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+
+/**
+ * One line of a table's active orders as shown on the QR menu
+ * (GET /api/v1/orders/table/{tableId}/items).
+ * <p>
+ * Rows with a null {@code orderDetailId} stand for active orders that have no lines yet;
+ * they only tell the cache which orders belong to the table and are never returned.
+ */
+public record TableOrderItemDto(
+        @JsonIgnore Integer orderId,
+        Integer orderDetailId,
+        Integer dishId,
+        String dishName,
+        Integer quantity,
+        BigDecimal unitPrice,
+        String imageUrl,
+        String status,
+        String orderStatus,
+        String notes) {
+
+    // Dùng cho constructor expression trong OrderRepository.findActiveItemsByTableId
+    public TableOrderItemDto(Integer orderId, Integer orderDetailId, Integer dishId, String dishName,
+                             Integer quantity, BigDecimal unitPrice, String imageUrl, Integer statusId, String notes) {
+        this(orderId, orderDetailId, dishId, dishName, quantity, unitPrice, imageUrl,
+                statusName(statusId), statusName(statusId), notes);
+    }
+
+    private static String statusName(Integer statusId) {
+        if (statusId == null) {
+            return null;
+        }
+        return switch (statusId) {
+            case 1 -> "pending";
+            case 2 -> "processing";
+            case 3 -> "done";
+            case 4 -> "cancelled";
+            default -> "unknown";
+        };
+    }
+}
@@ -1,11 +1,13 @@
 package com.system.restaurant.management.entity;
 
+import com.system.restaurant.management.service.ReferenceDataListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 @Entity
+@EntityListeners(ReferenceDataListener.class)
 @Table(name = "Areas")
 @Data
 @NoArgsConstructor
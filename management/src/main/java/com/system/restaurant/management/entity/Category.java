@@ -1,11 +1,14 @@
 package com.system.restaurant.management.entity;
 
+import com.system.restaurant.management.service.MenuSnapshotListener;
+import com.system.restaurant.management.service.ReferenceDataListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 @Entity
+@EntityListeners({ReferenceDataListener.class, MenuSnapshotListener.class})
 @Table(name = "Categories")
 @Data
 @NoArgsConstructor
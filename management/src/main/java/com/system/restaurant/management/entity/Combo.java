@@ -1,12 +1,14 @@
 package com.system.restaurant.management.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.system.restaurant.management.service.MenuSnapshotListener;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
 import java.util.List;
 
 @Entity
+@EntityListeners(MenuSnapshotListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
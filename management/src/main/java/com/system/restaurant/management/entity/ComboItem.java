@@ -1,10 +1,12 @@
 package com.system.restaurant.management.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.system.restaurant.management.service.MenuSnapshotListener;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@EntityListeners(MenuSnapshotListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
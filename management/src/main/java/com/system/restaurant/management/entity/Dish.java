@@ -1,5 +1,6 @@
 package com.system.restaurant.management.entity;
 
+import com.system.restaurant.management.service.MenuSnapshotListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,6 +11,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(MenuSnapshotListener.class)
 @Table(name = "Dishes")
 @Data
 @NoArgsConstructor
@@ -2,7 +2,9 @@ package com.system.restaurant.management.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.system.restaurant.management.service.TableOrderItemsListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.*;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -15,6 +17,7 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 @Table(name = "Orders")
+@EntityListeners(TableOrderItemsListener.class)
 @Data
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Order {
@@ -56,6 +59,12 @@ public class Order {
     @Column(name = "Notes", length = 255)
     private String notes;
 
+    // SubTotal/FinalTotal được cộng dồn theo delta: hai giao dịch cùng sửa một order không được ghi đè nhau
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "Version", nullable = false)
+    private Integer version;
+
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "TableID", insertable = false, updatable = false)
     @JsonIgnoreProperties("orders")
@@ -1,6 +1,7 @@
 package com.system.restaurant.management.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.system.restaurant.management.service.TableOrderItemsListener;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
@@ -12,6 +13,7 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 @Builder
 @Table(name = "OrderDetails")
+@EntityListeners(TableOrderItemsListener.class)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class OrderDetail {
     @Id
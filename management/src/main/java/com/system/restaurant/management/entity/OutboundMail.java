@@ -0,0 +1,52 @@
+package com.system.restaurant.management.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "OutboundMails")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class OutboundMail {
+
+    public static final String PENDING = "Pending";
+    public static final String SENDING = "Sending";
+    public static final String SENT = "Sent";
+    public static final String FAILED = "Failed";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "MailID")
+    private Integer mailId;
+
+    @Column(name = "Recipient", nullable = false, length = 255)
+    private String recipient;
+
+    @Column(name = "Subject", nullable = false, length = 255)
+    private String subject;
+
+    @Column(name = "Body", nullable = false, length = 4000)
+    private String body;
+
+    @Column(name = "Status", nullable = false, length = 20)
+    private String status;
+
+    @Column(name = "Attempts", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "NextAttemptAt", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "CreatedAt", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "SentAt")
+    private LocalDateTime sentAt;
+
+    @Column(name = "LastError", length = 500)
+    private String lastError;
+
+    @Column(name = "NotificationID")
+    private Integer notificationId;     // nhắc lịch: Notifications.Status được cập nhật khi gửi xong
+}
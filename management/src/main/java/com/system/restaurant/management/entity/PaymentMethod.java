@@ -1,9 +1,11 @@
 package com.system.restaurant.management.entity;
 
+import com.system.restaurant.management.service.ReferenceDataListener;
 import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@EntityListeners(ReferenceDataListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -8,7 +8,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "PromoUsage")
+@Table(name = "PromoUsage", uniqueConstraints = @UniqueConstraint(columnNames = "OrderID"))
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -25,6 +25,9 @@ public class PromoUsage {
     @Column(name = "Phone")
     private String phone; // nullable
 
+    @Column(name = "OrderID")
+    private Integer orderId; // order đã dùng mã; null với các lượt dùng cũ
+
     @Column(name = "UsedAt", nullable = false)
     private LocalDateTime usedAt;
 }
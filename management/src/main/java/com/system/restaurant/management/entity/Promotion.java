@@ -1,5 +1,6 @@
 package com.system.restaurant.management.entity;
 
+import com.system.restaurant.management.service.PromotionCatalogListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -10,6 +11,7 @@ import java.time.LocalDate;
 
 @Entity
 @Table(name = "Promotions", uniqueConstraints = @UniqueConstraint(columnNames = "PromoCode"))
+@EntityListeners(PromotionCatalogListener.class)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
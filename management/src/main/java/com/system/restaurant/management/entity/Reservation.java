@@ -1,6 +1,8 @@
 package com.system.restaurant.management.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.system.restaurant.management.service.ReservationAvailabilityListener;
+import com.system.restaurant.management.service.ReservationDeadlineListener;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
@@ -12,6 +14,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Table(name = "Reservations")
+@EntityListeners({ReservationAvailabilityListener.class, ReservationDeadlineListener.class})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Reservation {
     public static class Status {
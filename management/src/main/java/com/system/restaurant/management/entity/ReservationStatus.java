@@ -0,0 +1,23 @@
+package com.system.restaurant.management.entity;
+
+import com.system.restaurant.management.service.ReferenceDataListener;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Entity
+@EntityListeners(ReferenceDataListener.class)
+@Table(name = "ReservationStatuses")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationStatus {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "StatusID")
+    private Integer statusId;
+
+    @Column(name = "StatusName", nullable = false, unique = true, length = 20)
+    private String statusName;
+}
@@ -1,6 +1,7 @@
 package com.system.restaurant.management.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.system.restaurant.management.service.FloorStateListener;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
@@ -13,6 +14,7 @@ import java.util.List;
 @AllArgsConstructor
 @Builder
 @Table(name = "RestaurantTables")
+@EntityListeners(FloorStateListener.class)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class RestaurantTable {
     public static class Status {
@@ -0,0 +1,30 @@
+package com.system.restaurant.management.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Invoice count and revenue per hour, payment method and order type.
+ * MethodID 0 holds invoices that have no payment record yet.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "RevenueHourlyRollup")
+public class RevenueHourlyRollup {
+    public static final int UNPAID_METHOD_ID = 0;
+
+    @EmbeddedId
+    private RevenueHourlyRollupId id;
+
+    @Column(name = "InvoiceCount", nullable = false)
+    private Integer invoiceCount;
+
+    @Column(name = "TotalRevenue", precision = 14, scale = 2, nullable = false)
+    private BigDecimal totalRevenue;
+}
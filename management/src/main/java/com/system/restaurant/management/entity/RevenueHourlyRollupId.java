@@ -0,0 +1,40 @@
+package com.system.restaurant.management.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueHourlyRollupId implements Serializable {
+    @Column(name = "BucketStart", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "MethodID", nullable = false)
+    private Integer methodId;
+
+    @Column(name = "OrderType", length = 20, nullable = false)
+    private String orderType;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RevenueHourlyRollupId that = (RevenueHourlyRollupId) o;
+        return Objects.equals(bucketStart, that.bucketStart)
+                && Objects.equals(methodId, that.methodId)
+                && Objects.equals(orderType, that.orderType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(bucketStart, methodId, orderType);
+    }
+}
@@ -1,5 +1,6 @@
 package com.system.restaurant.management.entity;
 
+import com.system.restaurant.management.service.ReferenceDataListener;
 import jakarta.persistence.*;
 import lombok.*;
 import java.util.HashSet;
@@ -7,6 +8,7 @@ import java.util.Set;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
+@EntityListeners(ReferenceDataListener.class)
 @Table(name = "Roles")
 @Data
 @NoArgsConstructor
@@ -0,0 +1,36 @@
+package com.system.restaurant.management.event;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published whenever order lines shown on the kitchen display change. The feed reloads
+ * the affected lines once the surrounding transaction has committed.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class KitchenOrderChangedEvent {
+
+    /** Set when all lines of an order have to be reloaded (e.g. new lines were inserted). */
+    private final Integer orderId;
+    /** Lines whose status, quantity or notes changed. */
+    private final List<Integer> orderDetailIds;
+    /** Lines that were deleted. */
+    private final List<Integer> removedOrderDetailIds;
+
+    public static KitchenOrderChangedEvent orderLinesAdded(Integer orderId) {
+        return new KitchenOrderChangedEvent(orderId, List.of(), List.of());
+    }
+
+    public static KitchenOrderChangedEvent linesChanged(Collection<Integer> orderDetailIds) {
+        return new KitchenOrderChangedEvent(null, List.copyOf(orderDetailIds), List.of());
+    }
+
+    public static KitchenOrderChangedEvent linesRemoved(Collection<Integer> orderDetailIds) {
+        return new KitchenOrderChangedEvent(null, List.of(), List.copyOf(orderDetailIds));
+    }
+}
@@ -0,0 +1,19 @@
+package com.system.restaurant.management.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published when reservations stop holding their table outside of an entity save (e.g. the
+ * overdue sweep cancels them with one bulk UPDATE, which JPA listeners do not see).
+ * Listeners free the slots once the surrounding transaction, if any, has committed.
+ */
+@Getter
+@AllArgsConstructor
+public class TableReleasedEvent {
+
+    /** Reservations that no longer hold a table. */
+    private final List<Integer> reservationIds;
+}
@@ -1,5 +1,6 @@
 package com.system.restaurant.management.exception;
 
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -37,4 +38,16 @@ public class GlobalExceptionHandler {
             .status(HttpStatus.BAD_REQUEST)
             .body(errorResponse);
     }
-}
\ No newline at end of file
+
+    // Hai thao tác cùng sửa một order (khóa lạc quan @Version) hoặc cùng mở order cho một bàn: thao tác sau làm lại
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<?> handleConcurrencyFailure(ConcurrencyFailureException e) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Conflict");
+        errorResponse.put("message", "Dữ liệu vừa được người khác cập nhật, vui lòng thử lại");
+
+        return ResponseEntity
+            .status(HttpStatus.CONFLICT)
+            .body(errorResponse);
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +18,9 @@ public interface ComboRepository extends JpaRepository<Combo, Integer> {
     
     @Query("SELECT c FROM Combo c LEFT JOIN FETCH c.comboItems ci LEFT JOIN FETCH ci.dish")
     List<Combo> findAllWithDetails();
+
+    @Query("SELECT DISTINCT c FROM Combo c LEFT JOIN FETCH c.comboItems ci LEFT JOIN FETCH ci.dish WHERE c.comboId IN :comboIds")
+    List<Combo> findAllWithDetailsByIdIn(@Param("comboIds") Collection<Integer> comboIds);
     
     @Query("SELECT c FROM Combo c WHERE LOWER(c.comboName) LIKE LOWER(CONCAT('%', :name, '%'))")
     List<Combo> findByComboNameContainingIgnoreCase(@Param("name") String name);
@@ -1,11 +1,15 @@
 package com.system.restaurant.management.repository;
 
+import com.system.restaurant.management.dto.InvoicePdfRow;
 import com.system.restaurant.management.entity.Invoice;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +21,52 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Integer> {
 
     @Query("SELECT i FROM Invoice i WHERE i.order.orderId IN :orderIds")
     List<Invoice> findByOrder_OrderId(@Param("orderIds") List<Integer> orderIds);
-}
\ No newline at end of file
+
+    @Query("SELECT MIN(i.issuedAt) FROM Invoice i")
+    Optional<LocalDateTime> findFirstIssuedAt();
+
+    /**
+     * Everything the invoice PDF needs in one round trip: one row per served line (status 3),
+     * or a single row with null dish columns when nothing was served.
+     */
+    @Query("SELECT new com.system.restaurant.management.dto.InvoicePdfRow(" +
+           "i.invoiceId, i.issuedAt, o.orderId, o.tableId, o.notes, o.phone, i.discountAmount, i.finalTotal, " +
+           "(SELECT MAX(p.paidAt) FROM PaymentRecord p WHERE p.invoiceId = i.invoiceId), " +
+           "(SELECT MAX(c.fullName) FROM User c WHERE c.id = :cashierId), " +
+           "(SELECT MAX(u.fullName) FROM User u WHERE u.phone = o.phone AND o.phone <> ''), " +
+           "COALESCE(d.dishName, cb.comboName), od.unitPrice, od.quantity) " +
+           "FROM Invoice i JOIN i.order o " +
+           "LEFT JOIN OrderDetail od ON od.orderId = o.orderId AND od.statusId = 3 " +
+           "LEFT JOIN od.dish d LEFT JOIN od.combo cb " +
+           "WHERE o.orderId = :orderId " +
+           "ORDER BY i.invoiceId, od.orderDetailId")
+    List<InvoicePdfRow> findPdfRows(@Param("orderId") Integer orderId, @Param("cashierId") Integer cashierId);
+
+    /**
+     * Same rows as {@link #findPdfRows} for a batch of invoices, with the issuing user as cashier.
+     */
+    @Query("SELECT new com.system.restaurant.management.dto.InvoicePdfRow(" +
+           "i.invoiceId, i.issuedAt, o.orderId, o.tableId, o.notes, o.phone, i.discountAmount, i.finalTotal, " +
+           "(SELECT MAX(p.paidAt) FROM PaymentRecord p WHERE p.invoiceId = i.invoiceId), " +
+           "(SELECT MAX(c.fullName) FROM User c WHERE c.id = i.issuedBy), " +
+           "(SELECT MAX(u.fullName) FROM User u WHERE u.phone = o.phone AND o.phone <> ''), " +
+           "COALESCE(d.dishName, cb.comboName), od.unitPrice, od.quantity) " +
+           "FROM Invoice i JOIN i.order o " +
+           "LEFT JOIN OrderDetail od ON od.orderId = o.orderId AND od.statusId = 3 " +
+           "LEFT JOIN od.dish d LEFT JOIN od.combo cb " +
+           "WHERE i.invoiceId IN :invoiceIds " +
+           "ORDER BY i.invoiceId, od.orderDetailId")
+    List<InvoicePdfRow> findPdfRowsByInvoiceIds(@Param("invoiceIds") Collection<Integer> invoiceIds);
+
+    // Keyset theo InvoiceID trong khoảng IssuedAt (dùng IX_Invoices_IssuedAt)
+    @Query("SELECT i.invoiceId FROM Invoice i " +
+           "WHERE i.issuedAt >= :fromTime AND i.issuedAt < :toTime AND i.invoiceId > :afterId " +
+           "ORDER BY i.invoiceId")
+    List<Integer> findIdsIssuedBetween(@Param("fromTime") LocalDateTime fromTime,
+                                       @Param("toTime") LocalDateTime toTime,
+                                       @Param("afterId") Integer afterId,
+                                       Limit limit);
+
+    @Query("SELECT COUNT(i) FROM Invoice i WHERE i.issuedAt >= :fromTime AND i.issuedAt < :toTime")
+    long countIssuedBetween(@Param("fromTime") LocalDateTime fromTime, @Param("toTime") LocalDateTime toTime);
+}
@@ -2,11 +2,24 @@ package com.system.restaurant.management.repository;
 
 import com.system.restaurant.management.entity.Notification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Integer> {
     List<Notification> findByReservationId(Integer reservationId);
-}
\ No newline at end of file
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = :status, n.sentAt = :at WHERE n.notificationId IN :ids")
+    int updateStatus(@Param("ids") Collection<Integer> ids,
+                     @Param("status") String status,
+                     @Param("at") LocalDateTime at);
+}
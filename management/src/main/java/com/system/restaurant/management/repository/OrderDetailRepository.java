@@ -4,8 +4,11 @@ import com.system.restaurant.management.entity.OrderDetail;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +31,28 @@ public interface OrderDetailRepository extends JpaRepository<OrderDetail, Intege
             "WHERE od.orderDetailId = :id")
     Optional<OrderDetail> findByIdWithDetails(Integer id);
 
+    // Món chờ nấu, và món đã hủy của order tạo từ cancelledSince; KitchenFeedService.onBoard lọc y như vậy
+    @Query("SELECT DISTINCT od FROM OrderDetail od " +
+            "LEFT JOIN FETCH od.order o " +
+            "LEFT JOIN FETCH o.table t " +
+            "LEFT JOIN FETCH od.dish d " +
+            "WHERE od.statusId = 1 OR (od.statusId = 4 AND o.createdAt >= :cancelledSince)")
+    List<OrderDetail> findKitchenBoard(@Param("cancelledSince") LocalDateTime cancelledSince);
+
+    @Query("SELECT DISTINCT od FROM OrderDetail od " +
+            "LEFT JOIN FETCH od.order o " +
+            "LEFT JOIN FETCH o.table t " +
+            "LEFT JOIN FETCH od.dish d " +
+            "WHERE od.orderId = :orderId")
+    List<OrderDetail> findByOrderIdWithDetails(@Param("orderId") Integer orderId);
+
+    @Query("SELECT DISTINCT od FROM OrderDetail od " +
+            "LEFT JOIN FETCH od.order o " +
+            "LEFT JOIN FETCH o.table t " +
+            "LEFT JOIN FETCH od.dish d " +
+            "WHERE od.orderDetailId IN :ids")
+    List<OrderDetail> findAllByIdWithDetails(@Param("ids") Collection<Integer> ids);
+
     @EntityGraph(attributePaths = {"dish", "combo"})
     List<OrderDetail> findByOrderId(Integer orderId);
     Optional<OrderDetail> findByOrderIdAndDishId(Integer orderId, Integer dishId);
@@ -1,11 +1,14 @@
 package com.system.restaurant.management.repository;
 
+import com.system.restaurant.management.dto.TableOrderItemDto;
 import com.system.restaurant.management.entity.Order;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,9 +39,27 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
     @Query("SELECT o FROM Order o WHERE o.tableId = :tableId AND o.statusId = 1 ORDER BY o.createdAt DESC")
     List<Order> findPendingOrdersByTableId(@Param("tableId") Integer tableId);
 
+    @Query("SELECT o.tableId FROM Order o WHERE o.orderId = :orderId AND o.tableId IS NOT NULL")
+    Optional<Integer> findTableIdByOrderId(@Param("orderId") Integer orderId);
+
     @Query("SELECT o FROM Order o WHERE o.tableId = :tableId AND o.statusId IN (1, 2) ORDER BY o.createdAt DESC")
     List<Order> findActiveOrdersByTableId(@Param("tableId") Integer tableId);
 
+    // QR menu: toàn bộ món của các order đang mở tại bàn trong một query (order chưa có món -> 1 dòng rỗng)
+    @Query("""
+        select new com.system.restaurant.management.dto.TableOrderItemDto(
+            o.orderId, od.orderDetailId, od.dishId, coalesce(d.dishName, cb.comboName, 'Unknown'),
+            od.quantity, od.unitPrice, d.imageUrl, od.statusId, od.notes)
+        from Order o
+        left join o.orderDetails od
+        left join od.dish d
+        left join od.combo cb
+        where o.tableId = :tableId
+          and o.statusId in (1, 2)
+        order by o.orderId, od.orderDetailId
+    """)
+    List<TableOrderItemDto> findActiveItemsByTableId(@Param("tableId") Integer tableId);
+
     @EntityGraph(attributePaths = {
             "orderDetails",
             "orderDetails.dish"
@@ -54,4 +75,22 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
         order by o.createdAt desc
     """)
     List<Order> findTakeawayOrdersByItemStatus(@Param("status") Integer status);
-}
\ No newline at end of file
+
+    // Order đang mở có SubTotal khác tổng các dòng chưa hủy (OrderTotalsVerifier)
+    @Query(value = """
+        SELECT o.OrderID AS orderId, o.SubTotal AS subTotal,
+               COALESCE(SUM(d.UnitPrice * d.Quantity), 0) AS expectedSubTotal
+        FROM Orders o
+        LEFT JOIN OrderDetails d ON d.OrderID = o.OrderID AND d.StatusID <> 4
+        WHERE o.StatusID IN (1, 2)
+        GROUP BY o.OrderID, o.SubTotal
+        HAVING o.SubTotal <> COALESCE(SUM(d.UnitPrice * d.Quantity), 0)
+    """, nativeQuery = true)
+    List<TotalsDrift> findOpenOrdersWithTotalsDrift();
+
+    interface TotalsDrift {
+        Integer getOrderId();
+        BigDecimal getSubTotal();
+        BigDecimal getExpectedSubTotal();
+    }
+}
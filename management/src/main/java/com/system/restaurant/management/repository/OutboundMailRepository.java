@@ -0,0 +1,50 @@
+package com.system.restaurant.management.repository;
+
+import com.system.restaurant.management.entity.OutboundMail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface OutboundMailRepository extends JpaRepository<OutboundMail, Integer>, OutboundMailRepositoryCustom {
+
+    long countByStatusIn(Collection<String> statuses);
+
+    // Body chỉ cần đến lúc gửi: xóa ngay để mã OTP không nằm lại trong DB
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboundMail m SET m.status = 'Sent', m.sentAt = :sentAt, m.lastError = null, m.body = '' " +
+            "WHERE m.mailId IN :mailIds")
+    int markSent(@Param("mailIds") Collection<Integer> mailIds, @Param("sentAt") LocalDateTime sentAt);
+
+    // Lỗi khi gửi, còn lượt: thử lại lúc nextAttemptAt
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboundMail m SET m.status = 'Pending', m.nextAttemptAt = :nextAttemptAt, m.lastError = :error " +
+            "WHERE m.mailId = :mailId")
+    int markRetry(@Param("mailId") Integer mailId,
+                  @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                  @Param("error") String error);
+
+    // Hết lượt: Failed, nextAttemptAt là lúc bỏ cuộc (tính hạn lưu vết), Body xóa như khi gửi xong
+    @Transactional
+    @Modifying
+    @Query("UPDATE OutboundMail m SET m.status = 'Failed', m.nextAttemptAt = :failedAt, m.lastError = :error, " +
+            "m.body = '' WHERE m.mailId = :mailId")
+    int markFailed(@Param("mailId") Integer mailId,
+                   @Param("failedAt") LocalDateTime failedAt,
+                   @Param("error") String error);
+
+    // Mail đã xong (Sent hoặc Failed) không giữ lâu hơn thời gian lưu vết
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM OutboundMail m WHERE (m.status = 'Sent' AND m.sentAt < :before) " +
+            "OR (m.status = 'Failed' AND m.nextAttemptAt < :before)")
+    int deleteFinishedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,19 @@
+package com.system.restaurant.management.repository;
+
+import com.system.restaurant.management.entity.OutboundMail;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Claiming queued mail for delivery; safe with several app instances polling the same table.
+ */
+public interface OutboundMailRepositoryCustom {
+
+    /**
+     * Atomically moves up to {@code limit} due mails (Pending, or Sending whose previous claim
+     * expired) to Sending, counts the attempt and sets NextAttemptAt to {@code claimUntil}.
+     * Rows locked by another worker are skipped, not waited for.
+     */
+    List<OutboundMail> claimDue(int limit, LocalDateTime now, LocalDateTime claimUntil);
+}
@@ -0,0 +1,69 @@
+package com.system.restaurant.management.repository;
+
+import com.system.restaurant.management.entity.OutboundMail;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Claims with UPDLOCK + READPAST inside one short transaction: the oldest due rows are locked,
+ * rows another instance is claiming are skipped rather than waited for, so workers never block
+ * each other or pick the same mail.
+ */
+@RequiredArgsConstructor
+public class OutboundMailRepositoryImpl implements OutboundMailRepositoryCustom {
+
+    private static final String DUE_SQL = """
+      SELECT TOP (:limit) MailID
+      FROM OutboundMails WITH (UPDLOCK, READPAST, ROWLOCK)
+      WHERE Status IN ('Pending', 'Sending') AND NextAttemptAt <= :now
+      ORDER BY NextAttemptAt
+    """;
+
+    private static final String CLAIM_SQL = """
+      UPDATE OutboundMails
+      SET Status = 'Sending', Attempts = Attempts + 1, NextAttemptAt = :claimUntil
+      WHERE MailID IN (:mailIds)
+    """;
+
+    private static final String CLAIMED_SQL = """
+      SELECT MailID, Recipient, Subject, Body, Status, Attempts, NextAttemptAt, CreatedAt, NotificationID
+      FROM OutboundMails
+      WHERE MailID IN (:mailIds)
+      ORDER BY MailID
+    """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public List<OutboundMail> claimDue(int limit, LocalDateTime now, LocalDateTime claimUntil) {
+        List<Integer> mailIds = jdbcTemplate.queryForList(DUE_SQL,
+                new MapSqlParameterSource("limit", limit).addValue("now", now), Integer.class);
+        if (mailIds.isEmpty()) {
+            return List.of();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("mailIds", mailIds).addValue("claimUntil", claimUntil);
+        jdbcTemplate.update(CLAIM_SQL, params);
+        return jdbcTemplate.query(CLAIMED_SQL, params, (rs, i) -> OutboundMail.builder()
+                .mailId(rs.getInt("MailID"))
+                .recipient(rs.getString("Recipient"))
+                .subject(rs.getString("Subject"))
+                .body(rs.getString("Body"))
+                .status(rs.getString("Status"))
+                .attempts(rs.getInt("Attempts"))
+                .nextAttemptAt(rs.getTimestamp("NextAttemptAt").toLocalDateTime())
+                .createdAt(toLocalDateTime(rs.getTimestamp("CreatedAt")))
+                .notificationId((Integer) rs.getObject("NotificationID"))
+                .build());
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
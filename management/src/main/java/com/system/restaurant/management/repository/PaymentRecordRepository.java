@@ -19,4 +19,6 @@ public interface PaymentRecordRepository extends JpaRepository<PaymentRecord, In
     List<PaymentRecord> findByOrderId(@Param("orderId") Integer orderId);
 
     Optional<PaymentRecord> findTopByInvoiceIdOrderByPaidAtDesc(Integer invoiceId);
+
+    Optional<PaymentRecord> findFirstByInvoiceIdOrderByPaymentIdAsc(Integer invoiceId);
 }
\ No newline at end of file
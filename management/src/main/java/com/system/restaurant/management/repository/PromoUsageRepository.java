@@ -2,8 +2,15 @@ package com.system.restaurant.management.repository;
 
 import com.system.restaurant.management.entity.PromoUsage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface PromoUsageRepository extends JpaRepository<PromoUsage, Long> {
+
+    @Query("SELECT u FROM PromoUsage u JOIN FETCH u.promo WHERE u.orderId = :orderId")
+    Optional<PromoUsage> findByOrderId(@Param("orderId") Integer orderId);
 }
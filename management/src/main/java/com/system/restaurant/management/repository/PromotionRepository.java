@@ -3,8 +3,8 @@ package com.system.restaurant.management.repository;
 import com.system.restaurant.management.entity.Promotion;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
-import jakarta.persistence.LockModeType;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
 import java.util.Optional;
 
 @Repository
@@ -12,7 +12,16 @@ public interface PromotionRepository extends JpaRepository<Promotion, Integer> {
 
     Optional<Promotion> findByPromoCodeIgnoreCase(String promoCode);
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("select p from Promotion p where lower(p.promoCode) = lower(:code)")
-    Optional<Promotion> lockByPromoCode(@Param("code") String code);
+    /**
+     * Giữ một lượt dùng của mã: một câu UPDATE có điều kiện, không đọc-rồi-ghi. Mã phải còn
+     * hoạt động, trong hạn vào {@code today} và còn lượt (hoặc không giới hạn), tính trên hàng
+     * trong DB chứ không phải catalog. Trả về 0 khi mã không dùng được nữa. Khóa hàng chỉ giữ
+     * từ câu lệnh này đến lúc commit.
+     */
+    @Modifying
+    @Query(value = "UPDATE Promotions SET UsageLimit = CASE WHEN UsageLimit IS NULL THEN NULL ELSE UsageLimit - 1 END"
+            + " WHERE PromoID = :promoId AND IsActive = 1 AND :today BETWEEN StartDate AND EndDate"
+            + " AND (UsageLimit IS NULL OR UsageLimit > 0)",
+            nativeQuery = true)
+    int reserveUsage(@Param("promoId") Integer promoId, @Param("today") LocalDate today);
 }
@@ -12,7 +12,7 @@
 
     @Repository
     public interface PurchaseHistoryRepository
-            extends JpaRepository<Order, Integer> {
+            extends JpaRepository<Order, Integer>, PurchaseHistoryRepositoryCustom {
 
         @Query("""
           SELECT new com.system.restaurant.management.dto.PurchaseHistoryDto(
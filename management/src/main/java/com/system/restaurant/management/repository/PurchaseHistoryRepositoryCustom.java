@@ -0,0 +1,22 @@
+package com.system.restaurant.management.repository;
+
+import com.system.restaurant.management.dto.PurchaseHistoryCursor;
+import com.system.restaurant.management.dto.PurchaseHistoryDto;
+import com.system.restaurant.management.dto.PurchaseHistoryFilter;
+import com.system.restaurant.management.dto.PurchaseHistorySummaryDto;
+
+import java.util.List;
+
+/**
+ * Filtered purchase history queries whose WHERE clause depends on which filters are set.
+ */
+public interface PurchaseHistoryRepositoryCustom {
+
+    /**
+     * Paid orders matching the filter, newest first, strictly after {@code after}
+     * (null = first page), at most {@code limit} rows.
+     */
+    List<PurchaseHistoryDto> findPage(PurchaseHistoryFilter filter, PurchaseHistoryCursor after, int limit);
+
+    PurchaseHistorySummaryDto summarize(PurchaseHistoryFilter filter);
+}
@@ -0,0 +1,116 @@
+package com.system.restaurant.management.repository;
+
+import com.system.restaurant.management.dto.PurchaseHistoryCursor;
+import com.system.restaurant.management.dto.PurchaseHistoryDto;
+import com.system.restaurant.management.dto.PurchaseHistoryFilter;
+import com.system.restaurant.management.dto.PurchaseHistorySummaryDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keyset-paginated purchase history on (CreatedAt, OrderID) descending.
+ * <p>
+ * Only the filters that are set end up in the SQL, so SQL Server can seek on
+ * IX_Orders_CreatedAt / IX_Orders_Phone_CreatedAt and read just {@code limit} rows whatever
+ * the page number. An order counts as purchased once its invoice has a payment record; the
+ * method shown is the one of the first payment.
+ */
+@RequiredArgsConstructor
+public class PurchaseHistoryRepositoryImpl implements PurchaseHistoryRepositoryCustom {
+
+    private static final String PAID = """
+      EXISTS (SELECT 1 FROM Invoices i
+              JOIN PaymentRecords pr ON pr.InvoiceID = i.InvoiceID
+              WHERE i.OrderID = o.OrderID)
+    """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<PurchaseHistoryDto> findPage(PurchaseHistoryFilter filter, PurchaseHistoryCursor after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        StringBuilder where = where(filter, params);
+        if (after != null) {
+            where.append(" AND (o.CreatedAt < :afterAt OR (o.CreatedAt = :afterAt AND o.OrderID < :afterId))");
+            params.addValue("afterAt", after.createdAt()).addValue("afterId", after.orderId());
+        }
+        String sql = """
+          SELECT TOP (:limit) o.OrderID, o.CreatedAt, o.CustomerName, o.Phone, o.OrderType,
+                 o.SubTotal, o.DiscountAmount, o.FinalTotal, pay.MethodName, o.IsRefunded
+          FROM Orders o
+          CROSS APPLY (SELECT TOP 1 pm.MethodName
+                       FROM Invoices i
+                       JOIN PaymentRecords pr ON pr.InvoiceID = i.InvoiceID
+                       JOIN PaymentMethods pm ON pm.MethodID = pr.MethodID
+                       WHERE i.OrderID = o.OrderID
+                       ORDER BY pr.PaymentID) pay
+          WHERE """ + where + """
+
+          ORDER BY o.CreatedAt DESC, o.OrderID DESC
+        """;
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> new PurchaseHistoryDto(
+                rs.getInt("OrderID"),
+                rs.getObject("CreatedAt", LocalDateTime.class),
+                rs.getString("CustomerName"),
+                rs.getString("Phone"),
+                rs.getString("OrderType"),
+                rs.getBigDecimal("SubTotal"),
+                rs.getBigDecimal("DiscountAmount"),
+                rs.getBigDecimal("FinalTotal"),
+                rs.getString("MethodName"),
+                rs.getInt("IsRefunded")));
+    }
+
+    @Override
+    public PurchaseHistorySummaryDto summarize(PurchaseHistoryFilter filter) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = """
+          SELECT COUNT(*)                                            AS TotalOrders,
+                 COALESCE(SUM(o.FinalTotal), 0)                      AS TotalSpent,
+                 COALESCE(SUM(o.DiscountAmount), 0)                  AS TotalDiscount,
+                 COALESCE(SUM(CASE WHEN o.IsRefunded <> 0 THEN 1 ELSE 0 END), 0) AS RefundedOrders
+          FROM Orders o
+          WHERE """ + where(filter, params);
+        return jdbcTemplate.queryForObject(sql, params, (rs, rowNum) -> PurchaseHistorySummaryDto.builder()
+                .totalOrders(rs.getLong("TotalOrders"))
+                .totalSpent(orZero(rs.getBigDecimal("TotalSpent")))
+                .totalDiscount(orZero(rs.getBigDecimal("TotalDiscount")))
+                .refundedOrders(rs.getLong("RefundedOrders"))
+                .build());
+    }
+
+    private static StringBuilder where(PurchaseHistoryFilter filter, MapSqlParameterSource params) {
+        StringBuilder where = new StringBuilder(PAID.strip());
+        if (filter.isNoPhone()) {
+            where.append(" AND o.Phone IS NULL");
+        } else if (filter.getPhone() != null && !filter.getPhone().isBlank()) {
+            where.append(" AND o.Phone = :phone");
+            params.addValue("phone", filter.getPhone().trim());
+        }
+        if (filter.getFromDate() != null) {
+            where.append(" AND o.CreatedAt >= :fromTime");
+            params.addValue("fromTime", filter.getFromDate().atStartOfDay());
+        }
+        if (filter.getToDate() != null) {
+            where.append(" AND o.CreatedAt < :toTime");
+            params.addValue("toTime", filter.getToDate().plusDays(1).atStartOfDay());
+        }
+        if (filter.getOrderType() != null && !filter.getOrderType().isBlank()) {
+            where.append(" AND o.OrderType = :orderType");
+            params.addValue("orderType", filter.getOrderType().trim());
+        }
+        if (filter.getRefunded() != null) {
+            where.append(filter.getRefunded() ? " AND o.IsRefunded <> 0" : " AND o.IsRefunded = 0");
+        }
+        return where;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -1,16 +1,25 @@
 package com.system.restaurant.management.repository;
 
+import com.system.restaurant.management.dto.ReservationDeadlineRow;
 import com.system.restaurant.management.entity.Reservation;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface ReservationRepository extends JpaRepository<Reservation, Integer> {
+public interface ReservationRepository extends JpaRepository<Reservation, Integer>, ReservationRepositoryCustom {
     List<Reservation> findByPhone(String phone);
     List<Reservation> findByReservationAtBetween(LocalDateTime start, LocalDateTime end);
     List<Reservation> findByStatusIdAndReservationAtBefore(Integer statusId, LocalDateTime dateTime);
     List<Reservation> findByStatusId(Integer statusId, Sort sort);
+    List<Reservation> findByStatusIdInAndReservationAtGreaterThanEqual(List<Integer> statusIds, LocalDateTime from);
+
+    // Chỉ id và giờ đặt: bộ hủy đơn quá hạn không cần cả entity
+    @Query("SELECT new com.system.restaurant.management.dto.ReservationDeadlineRow(r.reservationId, r.reservationAt) " +
+           "FROM Reservation r WHERE r.statusId = :statusId")
+    List<ReservationDeadlineRow> findDeadlinesByStatusId(@Param("statusId") Integer statusId);
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.system.restaurant.management.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bulk cancellation of overdue reservations for ReservationScheduler.
+ */
+public interface ReservationRepositoryCustom {
+
+    /**
+     * Moves the given reservations from {@code pendingStatusId} to {@code cancelledStatusId} if
+     * they are still Pending and due by {@code cutoff}, in one UPDATE, and returns exactly the
+     * ids that UPDATE changed. Reservations confirmed or cancelled meanwhile are not returned.
+     */
+    List<Integer> cancelOverdue(Collection<Integer> reservationIds, LocalDateTime cutoff,
+                                Integer pendingStatusId, Integer cancelledStatusId);
+}
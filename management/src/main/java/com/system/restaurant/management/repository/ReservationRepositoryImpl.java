@@ -0,0 +1,37 @@
+package com.system.restaurant.management.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The UPDATE re-checks StatusID and the time and reports the rows it changed through OUTPUT,
+ * so the caller learns which reservations it cancelled without loading them again.
+ */
+@RequiredArgsConstructor
+public class ReservationRepositoryImpl implements ReservationRepositoryCustom {
+
+    private static final String CANCEL_OVERDUE_SQL = """
+      UPDATE Reservations
+      SET StatusID = :cancelled
+      OUTPUT inserted.ReservationID
+      WHERE ReservationID IN (:ids) AND StatusID = :pending AND ReservationAt <= :cutoff
+    """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public List<Integer> cancelOverdue(Collection<Integer> reservationIds, LocalDateTime cutoff,
+                                       Integer pendingStatusId, Integer cancelledStatusId) {
+        return jdbcTemplate.queryForList(CANCEL_OVERDUE_SQL, new MapSqlParameterSource("ids", reservationIds)
+                .addValue("cutoff", cutoff)
+                .addValue("pending", pendingStatusId)
+                .addValue("cancelled", cancelledStatusId), Integer.class);
+    }
+}
@@ -0,0 +1,9 @@
+package com.system.restaurant.management.repository;
+
+import com.system.restaurant.management.entity.ReservationStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReservationStatusRepository extends JpaRepository<ReservationStatus, Integer> {
+}
@@ -22,19 +22,10 @@ public interface RestaurantTableRepository extends JpaRepository<RestaurantTable
     @Query("SELECT rt FROM RestaurantTable rt WHERE rt.areaId = :areaId")
     List<RestaurantTable> findByAreaId(@Param("areaId") Integer areaId);
 
-    @Query("SELECT rt FROM RestaurantTable rt WHERE rt.areaId = :areaId AND rt.status = 'AVAILABLE'")
-    List<RestaurantTable> findFreeTablesByArea(@Param("areaId") Integer areaId);
-
     Optional<RestaurantTable> findByTableName(String tableName);
 
     List<RestaurantTable> findByTableType(String tableType);
 
-    @Query("SELECT t FROM RestaurantTable t WHERE t.isWindow = true")
-    List<RestaurantTable> findWindowTables();
-
-    @Query("SELECT t FROM RestaurantTable t WHERE t.isWindow = true AND t.status = 'AVAILABLE'")
-    List<RestaurantTable> getFreeWindowTables();
-
     @Query("SELECT t FROM RestaurantTable t WHERE t.status = 'RESERVED' " +
             "AND (SELECT COUNT(r) FROM Reservation r " +
             "WHERE r.tableId = t.tableId " +
@@ -57,7 +48,4 @@ public interface RestaurantTableRepository extends JpaRepository<RestaurantTable
            "AND rt.tableId NOT IN " +
            "(SELECT tgm.table.tableId FROM TableGroupMember tgm)")
     List<RestaurantTable> findByStatusAndNotInGroup(@Param("status") String status);
-
-    @Query("SELECT rt FROM RestaurantTable rt WHERE UPPER(rt.status) IN :statuses")
-    List<RestaurantTable> findByMultipleStatuses(@Param("statuses") List<String> statuses);
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.system.restaurant.management.repository;
+
+import com.system.restaurant.management.entity.RevenueHourlyRollup;
+import com.system.restaurant.management.entity.RevenueHourlyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevenueRollupRepository extends JpaRepository<RevenueHourlyRollup, RevenueHourlyRollupId> {
+
+    /**
+     * Bucket definition shared by {@link #rebuildRange} and the consistency check: hour of
+     * IssuedAt, method of the first payment record (0 if none), order type.
+     */
+    String BUCKETS_SQL = """
+      SELECT DATEADD(hour, DATEDIFF(hour, 0, i.IssuedAt), 0) AS BucketStart,
+             COALESCE(fp.MethodID, 0)                        AS MethodID,
+             o.OrderType                                     AS OrderType,
+             COUNT(*)                                        AS InvoiceCount,
+             COALESCE(SUM(i.FinalTotal), 0)                  AS TotalRevenue
+      FROM Invoices i
+      JOIN Orders o ON o.OrderID = i.OrderID
+      OUTER APPLY (SELECT TOP 1 p.MethodID
+                   FROM PaymentRecords p
+                   WHERE p.InvoiceID = i.InvoiceID
+                   ORDER BY p.PaymentID) fp
+      WHERE i.IssuedAt >= :fromTime AND i.IssuedAt < :toTime
+      GROUP BY DATEADD(hour, DATEDIFF(hour, 0, i.IssuedAt), 0), COALESCE(fp.MethodID, 0), o.OrderType
+    """;
+
+    @Query("SELECT r FROM RevenueHourlyRollup r " +
+            "WHERE r.id.bucketStart >= :fromTime AND r.id.bucketStart < :toTime " +
+            "ORDER BY r.id.bucketStart")
+    List<RevenueHourlyRollup> findBuckets(@Param("fromTime") LocalDateTime fromTime,
+                                          @Param("toTime") LocalDateTime toTime);
+
+    // Cộng dồn vào một bucket; HOLDLOCK để hai giao dịch cùng giờ không insert trùng khóa
+    @Modifying
+    @Query(value = """
+      MERGE RevenueHourlyRollup WITH (HOLDLOCK) AS t
+      USING (SELECT :bucketStart AS BucketStart, :methodId AS MethodID, :orderType AS OrderType) AS s
+         ON t.BucketStart = s.BucketStart AND t.MethodID = s.MethodID AND t.OrderType = s.OrderType
+      WHEN MATCHED THEN
+        UPDATE SET InvoiceCount = t.InvoiceCount + :invoiceDelta,
+                   TotalRevenue = t.TotalRevenue + :revenueDelta
+      WHEN NOT MATCHED THEN
+        INSERT (BucketStart, MethodID, OrderType, InvoiceCount, TotalRevenue)
+        VALUES (s.BucketStart, s.MethodID, s.OrderType, :invoiceDelta, :revenueDelta);
+    """, nativeQuery = true)
+    int addToBucket(@Param("bucketStart") LocalDateTime bucketStart,
+                    @Param("methodId") Integer methodId,
+                    @Param("orderType") String orderType,
+                    @Param("invoiceDelta") int invoiceDelta,
+                    @Param("revenueDelta") BigDecimal revenueDelta);
+
+    @Modifying
+    @Query(value = """
+      DELETE FROM RevenueHourlyRollup
+      WHERE BucketStart >= :fromTime AND BucketStart < :toTime
+    """, nativeQuery = true)
+    int deleteRange(@Param("fromTime") LocalDateTime fromTime,
+                    @Param("toTime") LocalDateTime toTime);
+
+    @Modifying
+    @Query(value = "INSERT INTO RevenueHourlyRollup (BucketStart, MethodID, OrderType, InvoiceCount, TotalRevenue) "
+            + BUCKETS_SQL, nativeQuery = true)
+    int rebuildRange(@Param("fromTime") LocalDateTime fromTime,
+                     @Param("toTime") LocalDateTime toTime);
+}
@@ -1,10 +1,13 @@
 package com.system.restaurant.management.service;
 
 import com.system.restaurant.management.dto.KitchenOrderDTO;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
 import java.util.List;
 
 public interface ChefService {
     List<KitchenOrderDTO> getPendingOrders();
+    SseEmitter subscribeOrders();
     void updateOrderStatus(Integer orderDetailId, String status);
     void cancelOrder(Integer orderDetailId);
 }
@@ -0,0 +1,268 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.entity.Combo;
+import com.system.restaurant.management.entity.ComboItem;
+import com.system.restaurant.management.entity.Dish;
+import com.system.restaurant.management.repository.ComboRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Every combo with its dishes and the split of its price over them, so expanding a combo into
+ * order lines reads no Combos, ComboItems or Dishes rows.
+ * <p>
+ * The split is computed once per combo: each dish unit gets the same share of the price, in
+ * whole cents, adjusted so the lines of one combo add up to exactly its price (see
+ * {@link ComboDefinition#lines}). Ordering a combo n times is then n times those lines.
+ * <p>
+ * Like {@link MenuSnapshot}, the catalog is versioned: {@code ComboServiceImpl} invalidates it
+ * once a create, update or delete commits, and the next read rebuilds it from one fetch-join
+ * query. {@code combo.catalog.max-age-ms} only bounds staleness for writes made outside the app.
+ * Combos missing from the catalog are looked up directly.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ComboCatalog {
+
+    private final ComboRepository comboRepository;
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot current;
+
+    @Value("${combo.catalog.max-age-ms:300000}")
+    private long maxAgeMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            log.info("Combo catalog loaded with {} combos", snapshot().combos.size());
+        } catch (Exception e) {
+            // Sẽ load lại ở lần đọc đầu tiên
+            log.error("Error loading combo catalog: ", e);
+        }
+    }
+
+    /** Definitions of the given combos; ids that do not exist are absent from the map. */
+    public Map<Integer, ComboDefinition> findAll(Collection<Integer> comboIds) {
+        Map<Integer, ComboDefinition> combos = snapshot().combos;
+        Map<Integer, ComboDefinition> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer comboId : comboIds) {
+            if (comboId == null || found.containsKey(comboId)) {
+                continue;
+            }
+            ComboDefinition combo = combos.get(comboId);
+            if (combo != null) {
+                found.put(comboId, combo);
+            } else if (!missing.contains(comboId)) {
+                missing.add(comboId);
+            }
+        }
+        // Combo tạo ở instance khác sau lần build gần nhất
+        if (!missing.isEmpty()) {
+            for (Combo combo : comboRepository.findAllWithDetailsByIdIn(missing)) {
+                found.put(combo.getComboId(), ComboDefinition.of(combo));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Drops the catalog once the current transaction commits (immediately outside one), so a
+     * rebuild never reads a combo as it was before the change.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot snapshot = current;
+        if (isFresh(snapshot)) {
+            return snapshot;
+        }
+        return rebuild();
+    }
+
+    // Một luồng build, các request khác chờ rồi dùng lại kết quả
+    private synchronized Snapshot rebuild() {
+        Snapshot snapshot = current;
+        if (isFresh(snapshot)) {
+            return snapshot;
+        }
+        long builtFrom = version.get();
+        Map<Integer, ComboDefinition> combos = new HashMap<>();
+        for (Combo combo : comboRepository.findAllWithDetails()) {
+            combos.putIfAbsent(combo.getComboId(), ComboDefinition.of(combo));
+        }
+        Snapshot built = new Snapshot(builtFrom, System.currentTimeMillis(), Map.copyOf(combos));
+        // Có thay đổi commit trong lúc build: vẫn trả về, nhưng không giữ lại
+        if (version.get() == builtFrom) {
+            current = built;
+        }
+        return built;
+    }
+
+    private boolean isFresh(Snapshot snapshot) {
+        return snapshot != null
+                && snapshot.version == version.get()
+                && System.currentTimeMillis() - snapshot.builtAt < maxAgeMs;
+    }
+
+    private record Snapshot(long version, long builtAt, Map<Integer, ComboDefinition> combos) {
+    }
+
+    /**
+     * Immutable copy of one combo: its dishes, and the order lines of one combo unit.
+     */
+    public record ComboDefinition(Integer comboId, String comboName, BigDecimal price,
+                                  List<Component> components, List<Line> lines) {
+
+        public static ComboDefinition of(Combo combo) {
+            List<Component> components = new ArrayList<>();
+            if (combo.getComboItems() != null) {
+                combo.getComboItems().stream()
+                        .sorted(Comparator.comparing(ComboItem::getDishId))
+                        .forEach(item -> components.add(Component.of(item)));
+            }
+            BigDecimal price = combo.getPrice() == null ? BigDecimal.ZERO : combo.getPrice();
+            return new ComboDefinition(combo.getComboId(), combo.getComboName(), price,
+                    List.copyOf(components), allocate(components, price));
+        }
+
+        public boolean isEmpty() {
+            return components.isEmpty();
+        }
+
+        /** Lines of one combo unit priced at {@code price}: the precomputed ones for the combo price. */
+        public List<Line> lines(BigDecimal price) {
+            if (price == null || price.compareTo(this.price) == 0) {
+                return lines;
+            }
+            return allocate(components, price);
+        }
+
+        /**
+         * Splits {@code price} over the dish units of the combo. Every unit gets
+         * floor(price / units) cents; the remaining r cents (r < units) are added a cent per unit
+         * to dishes whose quantities add up to r, so each dish keeps a single unit price. When the
+         * quantities cannot make up r, the base share is lowered a cent at a time to leave more to
+         * spread; if that cannot work either (price not a multiple of the quantities' common
+         * divisor), one unit of the last dish carries the rest on its own line.
+         */
+        static List<Line> allocate(List<Component> components, BigDecimal price) {
+            if (components.isEmpty()) {
+                return List.of();
+            }
+            long cents = price.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+            int units = components.stream().mapToInt(Component::quantity).sum();
+            long base = Math.floorDiv(cents, units);
+            int remainder = (int) (cents - base * units);
+
+            // Phần lẻ không ghép được từ số lượng các món: hạ giá gốc từng cent để có thêm cent mà chia
+            int[] extra = extraCents(components, remainder);
+            for (int k = 1; extra == null && k < units && base - k >= 0; k++) {
+                extra = extraCents(components, remainder + k * units);
+                if (extra != null) {
+                    base -= k;
+                    remainder += k * units;
+                }
+            }
+            List<Line> lines = new ArrayList<>();
+            for (int i = 0; i < components.size(); i++) {
+                Component component = components.get(i);
+                if (extra == null && i == components.size() - 1) {
+                    // Không chia đều được: tách 1 phần của món cuối ra dòng riêng gánh phần lẻ
+                    if (component.quantity() > 1) {
+                        lines.add(new Line(component, component.quantity() - 1, centsToPrice(base)));
+                    }
+                    lines.add(new Line(component, 1, centsToPrice(base + remainder)));
+                } else {
+                    lines.add(new Line(component, component.quantity(), centsToPrice(base + (extra == null ? 0 : extra[i]))));
+                }
+            }
+            return List.copyOf(lines);
+        }
+
+        // Số cent cộng thêm cho mỗi món sao cho tổng (cent thêm × số lượng) = remainder; null nếu không có
+        private static int[] extraCents(List<Component> components, int remainder) {
+            int[] extra = new int[components.size()];
+            if (remainder == 0) {
+                return extra;
+            }
+            // Quy hoạch động (đổi tiền): via[s] = món cộng thêm 1 cent/phần cuối cùng để đạt tổng s
+            int[] via = new int[remainder + 1];
+            Arrays.fill(via, -1);
+            boolean[] reachable = new boolean[remainder + 1];
+            reachable[0] = true;
+            for (int s = 1; s <= remainder; s++) {
+                for (int i = 0; i < components.size() && !reachable[s]; i++) {
+                    int quantity = components.get(i).quantity();
+                    if (quantity <= s && reachable[s - quantity]) {
+                        reachable[s] = true;
+                        via[s] = i;
+                    }
+                }
+            }
+            if (!reachable[remainder]) {
+                return null;
+            }
+            for (int s = remainder; s > 0; s -= components.get(via[s]).quantity()) {
+                extra[via[s]]++;
+            }
+            return extra;
+        }
+
+        private static BigDecimal centsToPrice(long cents) {
+            return BigDecimal.valueOf(cents, 2);
+        }
+    }
+
+    /** One dish of a combo and how many of it one combo contains. */
+    public record Component(Integer dishId, String dishName, int quantity) {
+
+        static Component of(ComboItem item) {
+            Dish dish = item.getDish();
+            int quantity = item.getQuantity() == null || item.getQuantity() <= 0 ? 1 : item.getQuantity();
+            return new Component(item.getDishId(), dish == null ? null : dish.getDishName(), quantity);
+        }
+    }
+
+    /** Order line of one combo unit: {@code quantity} of a dish at {@code unitPrice}. */
+    public record Line(Component component, int quantity, BigDecimal unitPrice) {
+
+        public Integer dishId() {
+            return component.dishId();
+        }
+
+        public BigDecimal total() {
+            return unitPrice.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+}
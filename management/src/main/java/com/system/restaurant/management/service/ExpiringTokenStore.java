@@ -0,0 +1,111 @@
+package com.system.restaurant.management.service;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BinaryOperator;
+
+/**
+ * Bounded in-memory store for short-lived tokens (OTP codes, per-key counters, session tokens).
+ * <p>
+ * Every entry of a store lives for the same {@code ttl}, so insertion order is expiry order:
+ * entries are kept in an insertion-ordered map and expired ones are swept from its head on
+ * each write, amortised O(1), with no timer thread and no task per token. Reads ignore an
+ * entry past its expiry even before it is swept. Once {@code maxEntries} is reached the
+ * entry closest to expiry is evicted to make room.
+ */
+public class ExpiringTokenStore<V> {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>();
+
+    public ExpiringTokenStore(Duration ttl, int maxEntries) {
+        if (ttl.isNegative() || ttl.isZero() || maxEntries < 1) {
+            throw new IllegalArgumentException("ttl and maxEntries must be positive");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    /** Stores {@code value} under {@code key} for a full ttl, replacing any previous token. */
+    public synchronized void put(String key, V value) {
+        long now = System.nanoTime();
+        entries.remove(key);
+        sweep(now, true);
+        entries.put(key, new Entry<>(value, now + ttlNanos));
+    }
+
+    /**
+     * Combines {@code value} with the live token of {@code key} ({@code remapping(old, value)})
+     * and returns the result. The token keeps its original expiry, so counters merged this way
+     * count over a fixed window starting at the first merge.
+     */
+    public synchronized V merge(String key, V value, BinaryOperator<V> remapping) {
+        long now = System.nanoTime();
+        sweep(now, false);
+        Entry<V> current = entries.get(key);
+        if (current == null) {
+            sweep(now, true);
+            entries.put(key, new Entry<>(value, now + ttlNanos));
+            return value;
+        }
+        V merged = remapping.apply(current.value, value);
+        entries.put(key, new Entry<>(merged, current.expiresAt));
+        return merged;
+    }
+
+    public synchronized Optional<V> get(String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || expired(entry, System.nanoTime())) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.value);
+    }
+
+    public synchronized void remove(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes the token only if it is still {@code value}; returns whether it did. Lets a
+     * caller consume a token exactly once when several threads read it concurrently.
+     */
+    public synchronized boolean remove(String key, V value) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || !Objects.equals(entry.value, value)) {
+            return false;
+        }
+        entries.remove(key);
+        return !expired(entry, System.nanoTime());
+    }
+
+    public synchronized int size() {
+        sweep(System.nanoTime(), false);
+        return entries.size();
+    }
+
+    // Đầu map luôn là token hết hạn sớm nhất: dừng ở token đầu tiên còn hạn
+    // (makeRoom: bỏ thêm token sắp hết hạn nhất nếu đã đầy)
+    private void sweep(long now, boolean makeRoom) {
+        Iterator<Map.Entry<String, Entry<V>>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry<V> head = it.next().getValue();
+            if (expired(head, now) || (makeRoom && entries.size() >= maxEntries)) {
+                it.remove();
+            } else {
+                break;
+            }
+        }
+    }
+
+    private static boolean expired(Entry<?> entry, long now) {
+        return now - entry.expiresAt >= 0;
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.entity.RestaurantTable;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener on {@link RestaurantTable} that writes every insert, update and delete through
+ * to the {@link FloorStateRegistry} once the transaction has committed. Hooking the entity
+ * instead of the services catches every write path (table management, merge/disband,
+ * reservations, check-in, payment) without touching each of them.
+ */
+@Component
+@RequiredArgsConstructor
+public class FloorStateListener {
+
+    // Registry phụ thuộc repository -> EntityManagerFactory -> listener, nên lấy lười
+    private final ObjectProvider<FloorStateRegistry> registry;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(RestaurantTable table) {
+        FloorStateRegistry.TableState state = FloorStateRegistry.TableState.of(table);
+        afterCommit(() -> registry.getObject().put(state));
+    }
+
+    @PostRemove
+    public void onRemoved(RestaurantTable table) {
+        Integer tableId = table.getTableId();
+        afterCommit(() -> registry.getObject().evict(tableId));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
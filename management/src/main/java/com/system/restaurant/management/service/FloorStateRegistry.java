@@ -0,0 +1,261 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.entity.RestaurantTable;
+import com.system.restaurant.management.repository.RestaurantTableRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * In-memory floor state: every RestaurantTable keyed by tableId, with secondary indexes by
+ * area, status and window seat, so floor-plan reads never hit the database.
+ * <p>
+ * The registry is rebuilt from the database at startup. Writes reach it through
+ * {@link FloorStateListener}, which forwards every persisted table change once its
+ * transaction commits. {@link #reconcile()} periodically compares it with the database and
+ * logs any drift (e.g. rows changed by hand).
+ * <p>
+ * State is held in an immutable {@link Snapshot} that is swapped on each write, so readers
+ * never lock and always see a consistent set of indexes. Status lookups ignore case, like
+ * the database collation does ("Available" and "AVAILABLE" are both in use).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FloorStateRegistry {
+
+    private final RestaurantTableRepository restaurantTableRepository;
+
+    private volatile Snapshot snapshot;
+    private long writes; // guarded by this
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            Snapshot loaded = load();
+            synchronized (this) {
+                snapshot = loaded;
+            }
+            log.info("Floor state registry loaded with {} tables", loaded.tables.size());
+        } catch (Exception e) {
+            // Sẽ load lại ở lần đọc đầu tiên
+            log.error("Error loading floor state registry: ", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${floor.registry.reconcile-ms:60000}",
+               initialDelayString = "${floor.registry.reconcile-ms:60000}")
+    public void reconcile() {
+        if (snapshot == null) {
+            rebuild();
+            return;
+        }
+        try {
+            long writesBefore;
+            synchronized (this) {
+                writesBefore = writes;
+            }
+            Snapshot fromDb = load();
+            synchronized (this) {
+                if (writes != writesBefore) {
+                    // Có thay đổi trong lúc đang đọc DB, đối chiếu ở lần sau
+                    return;
+                }
+                List<Integer> drifted = snapshot.diff(fromDb);
+                if (!drifted.isEmpty()) {
+                    log.warn("Floor state drift detected on tables {}, reloading from database", drifted);
+                }
+                snapshot = fromDb;
+            }
+        } catch (Exception e) {
+            log.error("Error reconciling floor state registry: ", e);
+        }
+    }
+
+    // ====== READS ======
+
+    public Optional<RestaurantTable> find(Integer tableId) {
+        return Optional.ofNullable(current().tables.get(tableId)).map(TableState::toEntity);
+    }
+
+    public List<RestaurantTable> findAll() {
+        Snapshot s = current();
+        return toEntities(s, s.tables.keySet());
+    }
+
+    public int size() {
+        return current().tables.size();
+    }
+
+    public List<RestaurantTable> findByStatus(String status) {
+        Snapshot s = current();
+        return toEntities(s, s.byStatus.getOrDefault(normalize(status), Collections.emptyNavigableSet()));
+    }
+
+    public List<RestaurantTable> findByStatuses(Collection<String> statuses) {
+        Snapshot s = current();
+        NavigableSet<Integer> ids = new TreeSet<>();
+        for (String status : statuses) {
+            ids.addAll(s.byStatus.getOrDefault(normalize(status), Collections.emptyNavigableSet()));
+        }
+        return toEntities(s, ids);
+    }
+
+    public List<RestaurantTable> findByArea(Integer areaId) {
+        Snapshot s = current();
+        return toEntities(s, s.byArea.getOrDefault(areaId, Collections.emptyNavigableSet()));
+    }
+
+    public List<RestaurantTable> findByAreaAndStatus(Integer areaId, String status) {
+        Snapshot s = current();
+        NavigableSet<Integer> ids = new TreeSet<>(s.byArea.getOrDefault(areaId, Collections.emptyNavigableSet()));
+        ids.retainAll(s.byStatus.getOrDefault(normalize(status), Collections.emptyNavigableSet()));
+        return toEntities(s, ids);
+    }
+
+    public List<RestaurantTable> findWindowTables() {
+        Snapshot s = current();
+        return toEntities(s, s.window);
+    }
+
+    public List<RestaurantTable> findWindowTablesByStatus(String status) {
+        Snapshot s = current();
+        NavigableSet<Integer> ids = new TreeSet<>(s.window);
+        ids.retainAll(s.byStatus.getOrDefault(normalize(status), Collections.emptyNavigableSet()));
+        return toEntities(s, ids);
+    }
+
+    // ====== WRITES (gọi từ FloorStateListener sau khi commit) ======
+
+    public synchronized void put(TableState state) {
+        Snapshot s = current();
+        Map<Integer, TableState> tables = new HashMap<>(s.tables);
+        tables.put(state.tableId(), state);
+        snapshot = Snapshot.of(tables);
+        writes++;
+    }
+
+    public synchronized void evict(Integer tableId) {
+        Snapshot s = current();
+        if (!s.tables.containsKey(tableId)) {
+            return;
+        }
+        Map<Integer, TableState> tables = new HashMap<>(s.tables);
+        tables.remove(tableId);
+        snapshot = Snapshot.of(tables);
+        writes++;
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = load();
+                }
+                s = snapshot;
+            }
+        }
+        return s;
+    }
+
+    private Snapshot load() {
+        Map<Integer, TableState> tables = new HashMap<>();
+        for (RestaurantTable table : restaurantTableRepository.findAll()) {
+            tables.put(table.getTableId(), TableState.of(table));
+        }
+        return Snapshot.of(tables);
+    }
+
+    private static List<RestaurantTable> toEntities(Snapshot s, Collection<Integer> ids) {
+        return ids.stream()
+                .map(s.tables::get)
+                .filter(Objects::nonNull)
+                .map(TableState::toEntity)
+                .toList();
+    }
+
+    private static String normalize(String status) {
+        return status == null ? "" : status.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Detached copy of the columns of one RestaurantTable row.
+     */
+    public record TableState(Integer tableId, String tableName, Integer areaId, String tableType,
+                             String status, Boolean isWindow, String notes, LocalDateTime createdAt) {
+
+        public static TableState of(RestaurantTable table) {
+            return new TableState(table.getTableId(), table.getTableName(), table.getAreaId(),
+                    table.getTableType(), table.getStatus(), table.getIsWindow(), table.getNotes(),
+                    table.getCreatedAt());
+        }
+
+        RestaurantTable toEntity() {
+            return RestaurantTable.builder()
+                    .tableId(tableId)
+                    .tableName(tableName)
+                    .areaId(areaId)
+                    .tableType(tableType)
+                    .status(status)
+                    .isWindow(isWindow)
+                    .notes(notes)
+                    .createdAt(createdAt)
+                    .build();
+        }
+    }
+
+    private static final class Snapshot {
+        private final Map<Integer, TableState> tables;
+        private final Map<Integer, NavigableSet<Integer>> byArea;
+        private final Map<String, NavigableSet<Integer>> byStatus;
+        private final NavigableSet<Integer> window;
+
+        private Snapshot(Map<Integer, TableState> tables, Map<Integer, NavigableSet<Integer>> byArea,
+                         Map<String, NavigableSet<Integer>> byStatus, NavigableSet<Integer> window) {
+            this.tables = tables;
+            this.byArea = byArea;
+            this.byStatus = byStatus;
+            this.window = window;
+        }
+
+        static Snapshot of(Map<Integer, TableState> states) {
+            Map<Integer, TableState> tables = new TreeMap<>(states);
+            Map<Integer, NavigableSet<Integer>> byArea = new HashMap<>();
+            Map<String, NavigableSet<Integer>> byStatus = new HashMap<>();
+            NavigableSet<Integer> window = new TreeSet<>();
+            for (TableState state : tables.values()) {
+                byArea.computeIfAbsent(state.areaId(), k -> new TreeSet<>()).add(state.tableId());
+                byStatus.computeIfAbsent(normalize(state.status()), k -> new TreeSet<>()).add(state.tableId());
+                if (Boolean.TRUE.equals(state.isWindow())) {
+                    window.add(state.tableId());
+                }
+            }
+            return new Snapshot(Collections.unmodifiableMap(tables), byArea, byStatus, window);
+        }
+
+        List<Integer> diff(Snapshot other) {
+            NavigableSet<Integer> ids = new TreeSet<>(tables.keySet());
+            ids.addAll(other.tables.keySet());
+            return ids.stream()
+                    .filter(id -> !Objects.equals(tables.get(id), other.tables.get(id)))
+                    .toList();
+        }
+    }
+}
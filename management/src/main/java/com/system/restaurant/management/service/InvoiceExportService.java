@@ -0,0 +1,405 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.dto.InvoiceExportJobDto;
+import com.system.restaurant.management.dto.InvoicePdfData;
+import com.system.restaurant.management.exception.ResourceNotFoundException;
+import com.system.restaurant.management.repository.InvoiceRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Bulk export of every invoice issued in a date range as one ZIP of PDFs.
+ * <p>
+ * Invoices are read in keyset pages of {@code invoice.export.page-size} (one query per page)
+ * and rendered in parallel on a fixed pool shared by all exports. The writer keeps at most
+ * {@code 2 x render-threads} PDFs in flight and writes them to the ZIP in invoiceId order as
+ * they complete, so memory use depends on the page size and pool size, not on how many
+ * invoices the range covers.
+ * <p>
+ * An export either runs as a background job that writes to a file under
+ * {@code invoice.export.dir}, polled through {@link #status(String)}, or is streamed straight
+ * into an HTTP response with {@link #stream(LocalDate, LocalDate)}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvoiceExportService {
+
+    private static final int MAX_LISTED_FAILURES = 1000;
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoicePdfService invoicePdfService;
+    private final InvoicePdfRenderer invoicePdfRenderer;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+    private ExecutorService renderPool;
+    private ThreadPoolExecutor jobPool;
+    private Path exportDir;
+    private int maxInFlight;
+
+    // 0 = số CPU
+    @Value("${invoice.export.render-threads:0}")
+    private int renderThreads;
+
+    @Value("${invoice.export.max-concurrent-jobs:2}")
+    private int maxConcurrentJobs;
+
+    @Value("${invoice.export.page-size:200}")
+    private int pageSize;
+
+    @Value("${invoice.export.max-days:366}")
+    private long maxDays;
+
+    @Value("${invoice.export.dir:${java.io.tmpdir}/invoice-exports}")
+    private String exportDirectory;
+
+    @Value("${invoice.export.retention-minutes:120}")
+    private long retentionMinutes;
+
+    @PostConstruct
+    void init() throws IOException {
+        int threads = renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+        renderPool = Executors.newFixedThreadPool(threads, daemonThreads("invoice-render-"));
+        maxInFlight = threads * 2;
+        // Hàng đợi nhỏ: quá nhiều yêu cầu xuất cùng lúc thì từ chối thay vì xếp hàng vô hạn
+        jobPool = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxConcurrentJobs * 2), daemonThreads("invoice-export-"));
+        exportDir = Path.of(exportDirectory);
+        Files.createDirectories(exportDir);
+    }
+
+    public InvoiceExportJobDto start(LocalDate fromDate, LocalDate toDate) {
+        validateRange(fromDate, toDate);
+        String jobId = UUID.randomUUID().toString();
+        ExportJob job = new ExportJob(jobId, fromDate, toDate, exportDir.resolve(jobId + ".zip"));
+        jobs.put(jobId, job);
+        try {
+            job.future = jobPool.submit(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(jobId);
+            throw new IllegalStateException("Đang có quá nhiều yêu cầu xuất hóa đơn, vui lòng thử lại sau");
+        }
+        log.info("Invoice export {} queued for {} - {}", jobId, fromDate, toDate);
+        return job.toDto();
+    }
+
+    public InvoiceExportJobDto status(String jobId) {
+        return job(jobId).toDto();
+    }
+
+    public InvoiceExportJobDto cancel(String jobId) {
+        ExportJob job = job(jobId);
+        if (job.status.isFinished()) {
+            // Đã xong: hủy = xóa file kết quả
+            jobs.remove(jobId);
+            deleteQuietly(job.file);
+            return job.toDto();
+        }
+        job.cancelled = true;
+        if (job.future != null) {
+            job.future.cancel(true);
+        }
+        if (job.status == Status.QUEUED) {
+            job.finish(Status.CANCELLED, null);
+        }
+        return job.toDto();
+    }
+
+    /**
+     * Finished ZIP of a job, for download.
+     */
+    public Path file(String jobId) {
+        ExportJob job = job(jobId);
+        if (job.status != Status.DONE) {
+            throw new IllegalStateException("Export " + jobId + " chưa hoàn tất (" + job.status + ")");
+        }
+        return job.file;
+    }
+
+    public String fileName(String jobId) {
+        ExportJob job = job(jobId);
+        return fileName(job.fromDate, job.toDate);
+    }
+
+    public static String fileName(LocalDate fromDate, LocalDate toDate) {
+        return "invoices-" + fromDate + "_" + toDate + ".zip";
+    }
+
+    /**
+     * Streams the export straight into the response; nothing is written to disk.
+     */
+    public StreamingResponseBody stream(LocalDate fromDate, LocalDate toDate) {
+        validateRange(fromDate, toDate);
+        return out -> {
+            ExportJob job = new ExportJob("stream", fromDate, toDate, null);
+            writeZip(job, out);
+            log.info("Invoice export streamed for {} - {}: {} invoices, {} failed",
+                    fromDate, toDate, job.rendered.get(), job.failed.get());
+        };
+    }
+
+    @Scheduled(fixedDelayString = "${invoice.export.purge-ms:600000}")
+    public void purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> {
+            if (job.status.isFinished() && job.finishedAt.isBefore(cutoff)) {
+                deleteQuietly(job.file);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobPool.shutdownNow();
+        renderPool.shutdownNow();
+    }
+
+    private void run(ExportJob job) {
+        if (job.cancelled) {
+            return;
+        }
+        job.status = Status.RUNNING;
+        Path part = job.file.resolveSibling(job.file.getFileName() + ".part");
+        try {
+            try (OutputStream out = Files.newOutputStream(part)) {
+                writeZip(job, out);
+            }
+            Files.move(part, job.file, StandardCopyOption.REPLACE_EXISTING);
+            job.finish(Status.DONE, null);
+            log.info("Invoice export {} done: {} invoices, {} failed, {} bytes",
+                    job.id, job.rendered.get(), job.failed.get(), Files.size(job.file));
+        } catch (Exception e) {
+            deleteQuietly(part);
+            // Hủy giữa chừng có thể làm ngắt I/O (ClosedByInterruptException), không tính là lỗi
+            if (job.cancelled || e instanceof CancellationException) {
+                job.finish(Status.CANCELLED, null);
+                log.info("Invoice export {} cancelled", job.id);
+            } else {
+                job.finish(Status.FAILED, e.getMessage());
+                log.error("Invoice export {} failed: ", job.id, e);
+            }
+        }
+    }
+
+    private void writeZip(ExportJob job, OutputStream out) throws IOException {
+        LocalDateTime fromTime = job.fromDate.atStartOfDay();
+        LocalDateTime toTime = job.toDate.plusDays(1).atStartOfDay();
+        job.total.set(invoiceRepository.countIssuedBetween(fromTime, toTime));
+
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        zip.setLevel(Deflater.BEST_SPEED); // PDF đã nén sẵn, nén lại tốn CPU mà không nhỏ đi bao nhiêu
+        Deque<RenderTask> window = new ArrayDeque<>();
+        List<Integer> failedIds = new ArrayList<>();
+        try {
+            Integer afterId = 0;
+            List<Integer> ids;
+            while (!(ids = invoiceRepository.findIdsIssuedBetween(fromTime, toTime, afterId, Limit.of(pageSize))).isEmpty()) {
+                afterId = ids.get(ids.size() - 1);
+                for (InvoicePdfData invoice : invoicePdfService.loadInvoiceBatch(ids)) {
+                    while (window.size() >= maxInFlight) {
+                        writeNext(zip, window, job, failedIds);
+                    }
+                    Future<byte[]> pdf = renderPool.submit(() -> invoicePdfRenderer.render(invoice));
+                    window.add(new RenderTask(invoice.getInvoiceId(), entryName(invoice), pdf));
+                }
+            }
+            while (!window.isEmpty()) {
+                writeNext(zip, window, job, failedIds);
+            }
+        } finally {
+            window.forEach(task -> task.pdf.cancel(true));
+        }
+
+        if (!failedIds.isEmpty()) {
+            zip.putNextEntry(new ZipEntry("_failed-invoices.txt"));
+            StringBuilder text = new StringBuilder("Invoices that could not be rendered (see server log):\n");
+            failedIds.forEach(id -> text.append(id).append('\n'));
+            if (job.failed.get() > failedIds.size()) {
+                text.append("... and ").append(job.failed.get() - failedIds.size()).append(" more\n");
+            }
+            zip.write(text.toString().getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    private void writeNext(ZipOutputStream zip, Deque<RenderTask> window, ExportJob job,
+                           List<Integer> failedIds) throws IOException {
+        if (job.cancelled) {
+            throw new CancellationException();
+        }
+        RenderTask task = window.poll();
+        byte[] pdf;
+        try {
+            pdf = task.pdf.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (ExecutionException e) {
+            log.warn("Invoice {} could not be rendered: {}", task.invoiceId, e.getCause().toString());
+            job.failed.incrementAndGet();
+            if (failedIds.size() < MAX_LISTED_FAILURES) {
+                failedIds.add(task.invoiceId);
+            }
+            return;
+        }
+        zip.putNextEntry(new ZipEntry(task.entryName));
+        zip.write(pdf);
+        zip.closeEntry();
+        job.rendered.incrementAndGet();
+    }
+
+    // Mỗi ngày một thư mục; thêm invoiceId phòng trường hợp một order có nhiều hóa đơn
+    private static String entryName(InvoicePdfData invoice) {
+        return invoice.getIssuedAt().toLocalDate() + "/invoice-" + invoice.getOrderId()
+                + "-" + invoice.getInvoiceId() + ".pdf";
+    }
+
+    private ExportJob job(String jobId) {
+        ExportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Export job", "jobId", jobId);
+        }
+        return job;
+    }
+
+    private void validateRange(LocalDate fromDate, LocalDate toDate) {
+        if (fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("fromDate must not be after toDate");
+        }
+        if (ChronoUnit.DAYS.between(fromDate, toDate) >= maxDays) {
+            throw new IllegalArgumentException("Export range must not exceed " + maxDays + " days");
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private enum Status {
+        QUEUED, RUNNING, DONE, FAILED, CANCELLED;
+
+        boolean isFinished() {
+            return this == DONE || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private record RenderTask(Integer invoiceId, String entryName, Future<byte[]> pdf) {
+    }
+
+    private static final class ExportJob {
+        private final String id;
+        private final LocalDate fromDate;
+        private final LocalDate toDate;
+        private final Path file;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong rendered = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private volatile Status status = Status.QUEUED;
+        private volatile boolean cancelled;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+        private volatile Future<?> future;
+
+        private ExportJob(String id, LocalDate fromDate, LocalDate toDate, Path file) {
+            this.id = id;
+            this.fromDate = fromDate;
+            this.toDate = toDate;
+            this.file = file;
+        }
+
+        private void finish(Status finalStatus, String message) {
+            error = message;
+            finishedAt = LocalDateTime.now();
+            status = finalStatus;
+        }
+
+        private InvoiceExportJobDto toDto() {
+            long totalInvoices = total.get();
+            long processed = rendered.get() + failed.get();
+            Long size = null;
+            if (status == Status.DONE) {
+                try {
+                    size = Files.size(file);
+                } catch (IOException e) {
+                    // File đã bị xóa ngoài ứng dụng
+                }
+            }
+            return InvoiceExportJobDto.builder()
+                    .jobId(id)
+                    .status(status.name())
+                    .fromDate(fromDate)
+                    .toDate(toDate)
+                    .totalInvoices(totalInvoices)
+                    .renderedInvoices(rendered.get())
+                    .failedInvoices(failed.get())
+                    .percent(status == Status.DONE ? 100
+                            : totalInvoices == 0 ? 0 : (int) Math.min(99, processed * 100 / totalInvoices))
+                    .fileSizeBytes(size)
+                    .createdAt(createdAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.system.restaurant.management.service;
+
+import com.itextpdf.kernel.colors.ColorConstants;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.borders.Border;
+import com.itextpdf.layout.borders.SolidBorder;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.font.FontInfo;
+import com.itextpdf.layout.font.FontProvider;
+import com.itextpdf.layout.font.FontSet;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import com.system.restaurant.management.dto.InvoicePdfData;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Renders invoice PDFs from an {@link InvoicePdfData}.
+ * <p>
+ * Fonts are resolved once at startup into a shared {@link FontSet}; each document only gets a
+ * light {@link FontProvider} over it, and iText embeds just the glyphs the invoice uses
+ * (Identity-H subset), so Vietnamese text renders without rescanning the system fonts per
+ * invoice. The static layout (header, column widths, labels, borders) is fixed here too.
+ * <p>
+ * Thread-safe: the font set is read-only after construction and every iText object that
+ * belongs to a document is created inside {@link #render(InvoicePdfData, OutputStream)}.
+ */
+@Service
+@Slf4j
+public class InvoicePdfRenderer {
+
+    // Font mặc định nếu không cấu hình invoice.pdf.fonts: Arial trên Windows, DejaVu trên Linux
+    private static final List<String> DEFAULT_FONTS = List.of(
+            "C:/Windows/Fonts/arial.ttf",
+            "C:/Windows/Fonts/arialbd.ttf",
+            "C:/Windows/Fonts/ariali.ttf",
+            "/Library/Fonts/Arial.ttf",
+            "/System/Library/Fonts/Supplemental/Arial.ttf",
+            "/usr/share/fonts/truetype/dejavu/DejaVuSans.ttf",
+            "/usr/share/fonts/truetype/dejavu/DejaVuSans-Bold.ttf",
+            "/usr/share/fonts/truetype/dejavu/DejaVuSans-Oblique.ttf");
+    private static final String FALLBACK_FAMILY = "Arial";
+
+    private static final String[] HEADER_LINES = {
+            "NHÀ HÀNG HƯƠNG QUÊ\n", "Địa chỉ: Đại học FPT, Hòa Lạc\n", "ĐT: 0372698544"};
+    private static final String[] ITEM_HEADERS = {"STT", "Tên món", "Đơn giá", "SL", "Thành tiền"};
+    private static final String THANK_YOU = "Cảm ơn quý khách!";
+    private static final String WALK_IN_CUSTOMER = "Khách ăn lần đầu";
+
+    private static final float[] INFO_COLUMNS = {1, 3};
+    private static final float[] ITEM_COLUMNS = {1, 4, 2, 1, 2};
+    private static final float[] SUMMARY_COLUMNS = {3, 1};
+    private static final DateTimeFormatter PAID_AT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final FontSet fontSet;
+    private final String fontFamily;
+
+    public InvoicePdfRenderer(@Value("${invoice.pdf.fonts:}") List<String> fontPaths) {
+        FontSet fonts = new FontSet();
+        List<String> configured = fontPaths == null ? List.of()
+                : fontPaths.stream().map(String::trim).filter(path -> !path.isEmpty()).toList();
+        List<String> candidates = configured.isEmpty() ? DEFAULT_FONTS : configured;
+        for (String path : candidates) {
+            if (Files.isRegularFile(Path.of(path)) && !fonts.addFont(path)) {
+                log.warn("Invoice font {} could not be added", path);
+            }
+        }
+
+        if (fonts.isEmpty()) {
+            // Không tìm thấy font nào: quét font hệ thống, nhưng chỉ một lần
+            FontProvider scan = new FontProvider();
+            scan.addSystemFonts();
+            this.fontSet = scan.getFontSet();
+            this.fontFamily = FALLBACK_FAMILY;
+        } else {
+            this.fontSet = fonts;
+            FontInfo first = fonts.getFonts().iterator().next();
+            this.fontFamily = first.getDescriptor().getFamilyNameLowerCase();
+        }
+        log.info("Invoice PDF fonts loaded: {} fonts, family '{}'", fontSet.size(), fontFamily);
+    }
+
+    public byte[] render(InvoicePdfData data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        render(data, out);
+        return out.toByteArray();
+    }
+
+    public void render(InvoicePdfData data, OutputStream out) {
+        render(data, out, new FontProvider(fontSet, fontFamily), fontFamily);
+    }
+
+    void render(InvoicePdfData data, OutputStream out, FontProvider fontProvider, String family) {
+        PdfDocument pdf = new PdfDocument(new PdfWriter(out));
+        Document doc = new Document(pdf);
+        doc.setFontProvider(fontProvider);
+        doc.setFontFamily(family);
+
+        // 1. Tên nhà hàng, địa chỉ, điện thoại
+        Paragraph header = new Paragraph()
+                .setFontSize(14)
+                .setBold()
+                .setTextAlignment(TextAlignment.CENTER);
+        for (String line : HEADER_LINES) {
+            header.add(line);
+        }
+        doc.add(header);
+
+        // 2. Tiêu đề và số hóa đơn
+        doc.add(new Paragraph("HÓA ĐƠN")
+                .setFontSize(18)
+                .setBold()
+                .setTextAlignment(TextAlignment.CENTER)
+                .setMarginTop(10f));
+        doc.add(new Paragraph("Số: " + data.getOrderId())
+                .setFontSize(12)
+                .setTextAlignment(TextAlignment.CENTER)
+                .setMarginBottom(15f));
+
+        // 3. Thông tin bàn và thu ngân
+        Table info = new Table(UnitValue.createPercentArray(INFO_COLUMNS))
+                .useAllAvailableWidth()
+                .setMarginBottom(15f);
+        // Hóa đơn chưa thanh toán (xuất hàng loạt) lấy ngày lập hóa đơn
+        LocalDateTime date = data.getPaidAt() != null ? data.getPaidAt() : data.getIssuedAt();
+        addInfo(info, "Ngày:", date.format(PAID_AT));
+        if (data.getTableNumber() != null) {
+            addInfo(info, "Bàn:", String.valueOf(data.getTableNumber()));
+        } else {
+            addInfo(info, "Địa chỉ: ", String.valueOf(data.getAddress()));
+            addInfo(info, "Số điện thoại:", String.valueOf(data.getPhone()));
+        }
+        addInfo(info, "Thu ngân:", data.getCashierName() != null ? data.getCashierName() : "");
+        addInfo(info, "Khách hàng:", data.getCustomerName() != null && !data.getCustomerName().isBlank()
+                ? data.getCustomerName()
+                : WALK_IN_CUSTOMER);
+        doc.add(info);
+
+        // 4. Bảng chi tiết món với STT, Tên món, Đơn giá, SL, Thành tiền
+        Table table = new Table(UnitValue.createPercentArray(ITEM_COLUMNS))
+                .useAllAvailableWidth();
+        for (String title : ITEM_HEADERS) {
+            table.addHeaderCell(new Cell().add(new Paragraph(title)).setBold());
+        }
+        int index = 1;
+        for (InvoicePdfData.Item item : data.getItems()) {
+            double unitPrice = item.getUnitPrice().doubleValue();
+            table.addCell(new Cell().add(new Paragraph(String.valueOf(index++))));
+            table.addCell(new Cell().add(new Paragraph(item.getDishName() != null ? item.getDishName() : "")));
+            table.addCell(new Cell().add(new Paragraph(money(unitPrice))));
+            table.addCell(new Cell().add(new Paragraph(String.valueOf(item.getQuantity()))));
+            table.addCell(new Cell().add(new Paragraph(money(unitPrice * item.getQuantity()))));
+        }
+        doc.add(table.setMarginBottom(15f));
+
+        // 5. Bảng tổng hợp: Tổng tiền → Chiết khấu → Tiền thanh toán
+        double discount = amount(data.getDiscount());
+        double total = amount(data.getFinalTotal());
+        SolidBorder line = new SolidBorder(ColorConstants.LIGHT_GRAY, 0.5f);
+        Table summary = new Table(UnitValue.createPercentArray(SUMMARY_COLUMNS))
+                .useAllAvailableWidth();
+        addSummary(summary, line, new Paragraph("Tổng tiền").setFontSize(14),
+                new Paragraph(money(total + discount)).setFontSize(14));
+        addSummary(summary, line, new Paragraph("Chiết khấu").setFontSize(14).setItalic(),
+                new Paragraph("-" + money(discount)).setFontSize(14).setItalic());
+        addSummary(summary, line, new Paragraph("Tiền thanh toán").setFontSize(16).setBold(),
+                new Paragraph(money(total)).setFontSize(16).setBold());
+        doc.add(summary);
+
+        // Kết thúc
+        doc.add(new Paragraph("\n"));
+        doc.add(new Paragraph(THANK_YOU).setTextAlignment(TextAlignment.CENTER));
+
+        doc.close();
+    }
+
+    private static void addInfo(Table info, String label, String value) {
+        info.addCell(infoCell(label));
+        info.addCell(infoCell(value));
+    }
+
+    private static Cell infoCell(String text) {
+        return new Cell()
+                .setBorder(Border.NO_BORDER)
+                .setPadding(1f)
+                .add(new Paragraph(text).setFontSize(12f));
+    }
+
+    private static void addSummary(Table summary, SolidBorder line, Paragraph label, Paragraph value) {
+        summary.addCell(summaryCell(line, label));
+        summary.addCell(summaryCell(line, value));
+    }
+
+    private static Cell summaryCell(SolidBorder line, Paragraph content) {
+        return new Cell()
+                .add(content)
+                .setBorder(Border.NO_BORDER)
+                .setBorderBottom(line)
+                .setTextAlignment(TextAlignment.LEFT);
+    }
+
+    private static String money(double value) {
+        return String.format("%,.0f₫", value);
+    }
+
+    private static double amount(BigDecimal value) {
+        return value != null ? value.doubleValue() : 0d;
+    }
+}
@@ -1,233 +1,86 @@
 package com.system.restaurant.management.service;
 
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfWriter;
-import com.itextpdf.layout.Document;
-import com.itextpdf.layout.font.FontProvider;
-import com.itextpdf.layout.element.Cell;
-import com.itextpdf.layout.element.Paragraph;
-import com.itextpdf.layout.element.Table;
-import com.itextpdf.layout.properties.UnitValue;
-import com.itextpdf.layout.properties.TextAlignment;
-import com.itextpdf.layout.borders.Border;
-import com.system.restaurant.management.entity.*;
-import com.system.restaurant.management.repository.*;
+import com.system.restaurant.management.dto.InvoicePdfData;
+import com.system.restaurant.management.dto.InvoicePdfRow;
+import com.system.restaurant.management.repository.InvoiceRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import com.itextpdf.layout.borders.SolidBorder;
-import com.itextpdf.kernel.colors.ColorConstants;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.server.ResponseStatusException;
 
-import java.io.ByteArrayOutputStream;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
-import java.util.function.BiFunction;
 
 @Service
 @RequiredArgsConstructor
 public class InvoicePdfService {
 
     private final InvoiceRepository invoiceRepository;
-    private final OrderDetailRepository orderDetailRepository;
-    private final PaymentRecordRepository paymentRecordRepository;
-    private final UserRepository userRepository;
-    private final OrderRepository orderRepository;
+    private final InvoicePdfRenderer invoicePdfRenderer;
 
     @Transactional(readOnly = true)
-    public byte[] buildInvoicePdf(Integer orderId, Integer cashierUserId) throws Exception {
-        Invoice inv = invoiceRepository.findByOrderId(orderId)
-                .orElseThrow(() -> new EntityNotFoundException("Invoice không tồn tại cho order " + orderId));
-
-        List<OrderDetail> items = orderDetailRepository.findByOrderIdAndStatusId(orderId, 3);
-
-        PaymentRecord pr = paymentRecordRepository
-                .findTopByInvoiceIdOrderByPaidAtDesc(inv.getInvoiceId())
-                .orElseThrow(() -> new EntityNotFoundException(
-                        "PaymentRecord không tồn tại cho invoice " + inv.getInvoiceId()));
-
-        double discount = inv.getDiscountAmount().doubleValue();
-        double total    = inv.getFinalTotal().doubleValue();
-        Integer tableNumber = (inv.getOrder() != null && inv.getOrder().getTable() != null)
-                ? inv.getOrder().getTable().getTableId()
-                : null;
-
-        String cashierName = userRepository.findById(cashierUserId)
-                .orElseThrow(() -> new EntityNotFoundException("User không tồn tại: " + cashierUserId))
-                .getFullName();
-
-        return generateInvoicePdf(
-                orderId,
-                tableNumber,
-                cashierName,
-                items,
-                pr,
-                discount,
-                total
-        );
+    public byte[] buildInvoicePdf(Integer orderId, Integer cashierUserId) {
+        return invoicePdfRenderer.render(loadInvoiceData(orderId, cashierUserId));
     }
-    public byte[] generateInvoicePdf(Integer orderId,
-                                     Integer tableNumber,
-                                     String cashierName,
-                                     List<OrderDetail> items,
-                                     PaymentRecord pr,
-                                     double discount,
-                                     double total) throws Exception {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PdfWriter writer = new PdfWriter(baos);
-        PdfDocument pdf = new PdfDocument(writer);
-        Document doc = new Document(pdf);
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND, "Order không tồn tại với id = " + orderId
-                ));
-        User user = (order.getPhone() != null && !order.getPhone().isBlank())
-                ? userRepository.findByPhone(order.getPhone()).orElse(null)
-                : null;
-        String customerDisplay =
-                (user != null && user.getFullName() != null && !user.getFullName().isBlank())
-                        ? user.getFullName()
-                        : "Khách ăn lần đầu";
-
-        // Font
-        FontProvider fontProvider = new FontProvider();
-        fontProvider.addSystemFonts();
-        doc.setFontProvider(fontProvider);
-        doc.setFontFamily("Arial");
-
-        // 1. Tên nhà hàng, địa chỉ, điện thoại
-        Paragraph header = new Paragraph()
-                .add("NHÀ HÀNG HƯƠNG QUÊ\n")
-                .add("Địa chỉ: Đại học FPT, Hòa Lạc\n")
-                .add("ĐT: 0372698544")
-                .setFontSize(14)
-                .setBold()
-                .setTextAlignment(TextAlignment.CENTER);
-        doc.add(header);
 
-        // 2. Tiêu đề và số hóa đơn
-        doc.add(new Paragraph("HÓA ĐƠN")
-                .setFontSize(18)
-                .setBold()
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginTop(10f)
-        );
-        doc.add(new Paragraph("Số: " + orderId)
-                .setFontSize(12)
-                .setTextAlignment(TextAlignment.CENTER)
-                .setMarginBottom(15f)
-        );
-
-        // 3. Thông tin bàn và thu ngân
-        Table info = new Table(UnitValue.createPercentArray(new float[]{1, 3}))
-                .useAllAvailableWidth()
-                .setMarginBottom(15f);
-
-        BiFunction<String, Float, Cell> cell = (text, fontSize) -> new Cell()
-                .setBorder(Border.NO_BORDER)
-                .setPadding(1f)
-                .add(new Paragraph(text).setFontSize(fontSize));
-
-        info.addCell(cell.apply("Ngày:", 12f));
-        info.addCell(cell.apply(pr.getPaidAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")), 12f));
-        if(tableNumber != null) {
-            info.addCell(cell.apply("Bàn:", 12f));
-            info.addCell(cell.apply(String.valueOf(tableNumber), 12f));
-        }else {
-            info.addCell(cell.apply("Địa chỉ: ", 12f));
-            info.addCell(cell.apply(String.valueOf(order.getNotes()), 12f));
-            info.addCell(cell.apply("Số điện thoại:", 12f));
-            info.addCell(cell.apply(String.valueOf(order.getPhone()), 12f));
+    /**
+     * Loads invoice, served lines, payment date, cashier and customer in a single query.
+     */
+    @Transactional(readOnly = true)
+    public InvoicePdfData loadInvoiceData(Integer orderId, Integer cashierUserId) {
+        List<InvoicePdfData> invoices = toInvoiceData(invoiceRepository.findPdfRows(orderId, cashierUserId));
+        if (invoices.isEmpty()) {
+            throw new EntityNotFoundException("Invoice không tồn tại cho order " + orderId);
         }
-        info.addCell(cell.apply("Thu ngân:", 12f));
-        info.addCell(cell.apply(cashierName, 12f));
-        info.addCell(cell.apply("Khách hàng:", 12f));
-        info.addCell(cell.apply(customerDisplay, 12f));
-        doc.add(info);
-
-        // 4. Bảng chi tiết món với STT, Tên món, Đơn giá, SL, Thành tiền
-        Table table = new Table(UnitValue.createPercentArray(new float[]{1, 4, 2, 1, 2}))
-                .useAllAvailableWidth();
-        table.addHeaderCell(new Cell().add(new Paragraph("STT")).setBold());
-        table.addHeaderCell(new Cell().add(new Paragraph("Tên món")).setBold());
-        table.addHeaderCell(new Cell().add(new Paragraph("Đơn giá")).setBold());
-        table.addHeaderCell(new Cell().add(new Paragraph("SL")).setBold());
-        table.addHeaderCell(new Cell().add(new Paragraph("Thành tiền")).setBold());
-
-        int index = 1;
-        for (OrderDetail d : items) {
-            double lineTotal = d.getUnitPrice().doubleValue() * d.getQuantity();
-            table.addCell(new Cell().add(new Paragraph(String.valueOf(index++))));
-            table.addCell(new Cell().add(new Paragraph(d.getDishName())));
-            table.addCell(new Cell().add(new Paragraph(String.format("%,.0f₫", d.getUnitPrice().doubleValue()))));
-            table.addCell(new Cell().add(new Paragraph(String.valueOf(d.getQuantity()))));
-            table.addCell(new Cell().add(new Paragraph(String.format("%,.0f₫", lineTotal))));
+        InvoicePdfData invoice = invoices.get(0);
+        if (invoice.getPaidAt() == null) {
+            throw new EntityNotFoundException("PaymentRecord không tồn tại cho invoice " + invoice.getInvoiceId());
         }
-        doc.add(table.setMarginBottom(15f));
-
-
-// 5. Bảng tổng hợp: Tổng tiền → Chiết khấu → Tiền thanh toán
-        double subTotal = total + discount;
-        float lineWidth = 0.5f;
-        SolidBorder horizontalLine = new SolidBorder(ColorConstants.LIGHT_GRAY, lineWidth);
-
-        Table summary = new Table(UnitValue.createPercentArray(new float[]{3, 1}))
-                .useAllAvailableWidth();
-
-// --- HÀNG Tổng tiền ---
-        Cell cell1 = new Cell()
-                .add(new Paragraph("Tổng tiền").setFontSize(14))
-                .setBorder(Border.NO_BORDER)
-                .setBorderBottom(horizontalLine)
-                .setTextAlignment(TextAlignment.LEFT);
-        Cell cell2 = new Cell()
-                .add(new Paragraph(String.format("%,.0f₫", subTotal)).setFontSize(14))
-                .setBorder(Border.NO_BORDER)
-                .setBorderBottom(horizontalLine)
-                .setTextAlignment(TextAlignment.LEFT);
-        summary.addCell(cell1);
-        summary.addCell(cell2);
-
-// --- HÀNG Chiết khấu ---
-        Cell cell3 = new Cell()
-                .add(new Paragraph("Chiết khấu").setFontSize(14).setItalic())
-                .setBorder(Border.NO_BORDER)
-                .setBorderBottom(horizontalLine)
-                .setTextAlignment(TextAlignment.LEFT);
-        Cell cell4 = new Cell()
-                .add(new Paragraph(String.format("-%,.0f₫", discount)).setFontSize(14).setItalic())
-                .setBorder(Border.NO_BORDER)
-                .setBorderBottom(horizontalLine)
-                .setTextAlignment(TextAlignment.LEFT);
-        summary.addCell(cell3);
-        summary.addCell(cell4);
-
-// --- HÀNG Tiền thanh toán ---
-        Cell cell5 = new Cell()
-                .add(new Paragraph("Tiền thanh toán").setFontSize(16).setBold())
-                .setBorder(Border.NO_BORDER)
-                .setBorderBottom(horizontalLine)
-                .setTextAlignment(TextAlignment.LEFT);
-        Cell cell6 = new Cell()
-                .add(new Paragraph(String.format("%,.0f₫", total)).setFontSize(16).setBold())
-                .setBorder(Border.NO_BORDER)
-                .setBorderBottom(horizontalLine)
-                .setTextAlignment(TextAlignment.LEFT);
-        summary.addCell(cell5);
-        summary.addCell(cell6);
-
-        doc.add(summary);
+        if (invoice.getCashierName() == null) {
+            throw new EntityNotFoundException("User không tồn tại: " + cashierUserId);
+        }
+        return invoice;
+    }
 
-        // Kết thúc
-        doc.add(new Paragraph("\n"));
-        doc.add(new Paragraph("Cảm ơn quý khách!")
-                .setTextAlignment(TextAlignment.CENTER)
-        );
+    /**
+     * Loads a batch of invoices in one query, in invoiceId order. The cashier is the user who
+     * issued each invoice.
+     */
+    @Transactional(readOnly = true)
+    public List<InvoicePdfData> loadInvoiceBatch(Collection<Integer> invoiceIds) {
+        if (invoiceIds.isEmpty()) {
+            return List.of();
+        }
+        return toInvoiceData(invoiceRepository.findPdfRowsByInvoiceIds(invoiceIds));
+    }
 
-        doc.close();
-        return baos.toByteArray();
+    // Rows đã sắp theo invoiceId: gom các dòng món liên tiếp của cùng một hóa đơn
+    private static List<InvoicePdfData> toInvoiceData(List<InvoicePdfRow> rows) {
+        List<InvoicePdfData> invoices = new ArrayList<>();
+        InvoicePdfData current = null;
+        for (InvoicePdfRow row : rows) {
+            if (current == null || !current.getInvoiceId().equals(row.getInvoiceId())) {
+                current = InvoicePdfData.builder()
+                        .invoiceId(row.getInvoiceId())
+                        .orderId(row.getOrderId())
+                        .tableNumber(row.getTableId())
+                        .address(row.getNotes())
+                        .phone(row.getPhone())
+                        .issuedAt(row.getIssuedAt())
+                        .paidAt(row.getPaidAt())
+                        .cashierName(row.getCashierName())
+                        .customerName(row.getCustomerName())
+                        .discount(row.getDiscountAmount())
+                        .finalTotal(row.getFinalTotal())
+                        .items(new ArrayList<>())
+                        .build();
+                invoices.add(current);
+            }
+            if (row.getUnitPrice() != null) {
+                current.getItems().add(new InvoicePdfData.Item(row.getDishName(), row.getUnitPrice(), row.getQuantity()));
+            }
+        }
+        return invoices;
     }
 }
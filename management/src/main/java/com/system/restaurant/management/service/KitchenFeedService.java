@@ -0,0 +1,293 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.dto.KitchenOrderDTO;
+import com.system.restaurant.management.entity.Order;
+import com.system.restaurant.management.entity.OrderDetail;
+import com.system.restaurant.management.event.KitchenOrderChangedEvent;
+import com.system.restaurant.management.repository.OrderDetailRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Live kitchen board shared by all kitchen display screens.
+ * <p>
+ * The board (pending lines, plus cancelled lines of orders placed within
+ * {@code kitchen.feed.cancelled-lookback-minutes}) is loaded with one query the first
+ * time it is needed and then kept up to date from {@link KitchenOrderChangedEvent}s, which
+ * only reload the lines that changed. Each SSE subscriber gets a "snapshot" event followed
+ * by "add", "update" and "remove" events carrying a {@link KitchenOrderDTO}.
+ * <p>
+ * All board changes and sends run on a single dispatcher thread, so events reach every
+ * screen in order and a slow screen never blocks the request that changed the order.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class KitchenFeedService {
+
+    private static final Set<Integer> BOARD_STATUSES = Set.of(1, 4); // Pending, Cancelled
+
+    private static final Comparator<KitchenOrderDTO> BOARD_ORDER = Comparator
+            .comparing((KitchenOrderDTO dto) -> "CANCELLED".equals(dto.getStatus()))
+            .thenComparing(KitchenOrderDTO::getOrderDetailId);
+
+    private final OrderDetailRepository orderDetailRepository;
+
+    private final Map<Integer, KitchenOrderDTO> board = new ConcurrentHashMap<>();
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "kitchen-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean loaded;
+
+    // Món đã hủy chỉ hiển thị nếu order được tạo trong 60 phút gần nhất (mặc định); OrderDetails
+    // không lưu thời điểm hủy, nên cả load lẫn cập nhật trực tiếp đều lọc theo giờ tạo order
+    @Value("${kitchen.feed.cancelled-lookback-minutes:60}")
+    private long cancelledLookbackMinutes;
+
+    @Value("${kitchen.feed.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    public List<KitchenOrderDTO> snapshot() {
+        if (!loaded) {
+            await(this::ensureLoaded);
+        }
+        return board.values().stream().sorted(BOARD_ORDER).toList();
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> emitters.remove(emitter));
+
+        dispatcher.execute(() -> {
+            try {
+                ensureLoaded();
+            } catch (Exception e) {
+                log.error("Error loading kitchen board: ", e);
+                emitter.completeWithError(e);
+                return;
+            }
+            List<KitchenOrderDTO> snapshot = board.values().stream().sorted(BOARD_ORDER).toList();
+            if (send(emitter, SseEmitter.event().name("snapshot").data(snapshot))) {
+                emitters.add(emitter);
+                log.info("Kitchen screen subscribed, {} screens connected", emitters.size());
+            }
+        });
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKitchenOrderChanged(KitchenOrderChangedEvent event) {
+        dispatcher.execute(() -> apply(event));
+    }
+
+    @Scheduled(fixedRate = 15000)
+    public void heartbeat() {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        dispatcher.execute(() -> emitters.forEach(emitter -> send(emitter, SseEmitter.event().comment("ping"))));
+    }
+
+    /**
+     * Reloads the whole board every few minutes to drop expired cancelled lines and to pick up
+     * changes made outside the services (e.g. directly in the database).
+     */
+    @Scheduled(fixedDelayString = "${kitchen.feed.resync-ms:300000}")
+    public void resync() {
+        if (!loaded) {
+            return;
+        }
+        dispatcher.execute(() -> {
+            try {
+                Map<Integer, KitchenOrderDTO> fresh = loadBoard();
+                List.copyOf(board.keySet()).stream()
+                        .filter(id -> !fresh.containsKey(id))
+                        .forEach(this::remove);
+                fresh.values().forEach(this::upsert);
+            } catch (Exception e) {
+                log.error("Error resyncing kitchen board: ", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        board.putAll(loadBoard());
+        loaded = true;
+        log.info("Kitchen board loaded with {} lines", board.size());
+    }
+
+    private Map<Integer, KitchenOrderDTO> loadBoard() {
+        LocalDateTime cancelledSince = cancelledSince();
+        Map<Integer, KitchenOrderDTO> lines = new HashMap<>();
+        for (OrderDetail detail : orderDetailRepository.findKitchenBoard(cancelledSince)) {
+            lines.put(detail.getOrderDetailId(), convertToDTO(detail));
+        }
+        return lines;
+    }
+
+    private void apply(KitchenOrderChangedEvent event) {
+        // Chưa có màn hình nào mở: lần load đầu tiên sẽ đọc dữ liệu đã commit
+        if (!loaded) {
+            return;
+        }
+        try {
+            event.getRemovedOrderDetailIds().forEach(this::remove);
+
+            List<OrderDetail> lines;
+            if (event.getOrderId() != null) {
+                lines = orderDetailRepository.findByOrderIdWithDetails(event.getOrderId());
+            } else if (!event.getOrderDetailIds().isEmpty()) {
+                lines = orderDetailRepository.findAllByIdWithDetails(event.getOrderDetailIds());
+            } else {
+                lines = List.of();
+            }
+
+            LocalDateTime cancelledSince = cancelledSince();
+            for (OrderDetail line : lines) {
+                if (onBoard(line, cancelledSince)) {
+                    upsert(convertToDTO(line));
+                } else {
+                    remove(line.getOrderDetailId());
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error applying kitchen order change: ", e);
+        }
+    }
+
+    private LocalDateTime cancelledSince() {
+        return LocalDateTime.now().minusMinutes(cancelledLookbackMinutes);
+    }
+
+    // Cùng điều kiện với OrderDetailRepository.findKitchenBoard, để board cập nhật trực tiếp và board load lại giống nhau
+    private static boolean onBoard(OrderDetail line, LocalDateTime cancelledSince) {
+        if (!BOARD_STATUSES.contains(line.getStatusId())) {
+            return false;
+        }
+        if (Integer.valueOf(4).equals(line.getStatusId())) {
+            Order order = line.getOrder();
+            return order != null && order.getCreatedAt() != null && !order.getCreatedAt().isBefore(cancelledSince);
+        }
+        return true;
+    }
+
+    private void upsert(KitchenOrderDTO dto) {
+        KitchenOrderDTO previous = board.put(dto.getOrderDetailId(), dto);
+        if (previous == null) {
+            broadcast("add", dto);
+        } else if (!previous.equals(dto)) {
+            broadcast("update", dto);
+        }
+    }
+
+    private void remove(Integer orderDetailId) {
+        KitchenOrderDTO previous = board.remove(orderDetailId);
+        if (previous != null) {
+            broadcast("remove", previous);
+        }
+    }
+
+    private void broadcast(String name, KitchenOrderDTO dto) {
+        emitters.forEach(emitter -> send(emitter, SseEmitter.event().name(name).data(dto)));
+    }
+
+    private boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (Exception e) {
+            // Màn hình đã đóng kết nối
+            emitters.remove(emitter);
+            log.debug("Dropping kitchen screen: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void await(Runnable task) {
+        try {
+            dispatcher.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading kitchen board", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to load kitchen board", e.getCause());
+        }
+    }
+
+    static KitchenOrderDTO convertToDTO(OrderDetail orderDetail) {
+        KitchenOrderDTO dto = new KitchenOrderDTO();
+        dto.setOrderDetailId(orderDetail.getOrderDetailId());
+        dto.setOrderId(orderDetail.getOrder() != null ? orderDetail.getOrder().getOrderId() : orderDetail.getOrderId());
+
+        // Xử lý dish name an toàn
+        String dishName = "Món không xác định";
+        if (orderDetail.getDish() != null && orderDetail.getDish().getDishName() != null) {
+            dishName = orderDetail.getDish().getDishName();
+        }
+        dto.setDishName(dishName);
+
+        dto.setQuantity(orderDetail.getQuantity());
+        dto.setStatus(getStatusText(orderDetail.getStatusId()));
+        dto.setNotes(orderDetail.getNotes() != null ? orderDetail.getNotes() : "");
+
+        String tableName = "Bàn không xác định";
+        var o = orderDetail.getOrder();
+        if (o != null) {
+            if (o.getTable() != null && o.getTable().getTableName() != null) {
+                // ƯU TIÊN: nếu là TAKEAWAY -> luôn hiển thị "Mang đi"
+                tableName = "TAKEAWAY".equalsIgnoreCase(o.getOrderType())
+                        ? "Mang đi"
+                        : o.getTable().getTableName();
+            }
+            dto.setOrderTime(o.getCreatedAt());
+        } else {
+            log.warn("Order is null for order detail ID: {}", orderDetail.getOrderDetailId());
+            dto.setOrderTime(LocalDateTime.now());
+        }
+
+        dto.setTableNumber(tableName);
+        return dto;
+    }
+
+    private static String getStatusText(Integer statusId) {
+        return switch (statusId) {
+            case 1 -> "PENDING";
+            case 2 -> "PROCESSING";
+            case 3 -> "COMPLETED";
+            case 4 -> "CANCELLED";
+            default -> "UNKNOWN";
+        };
+    }
+}
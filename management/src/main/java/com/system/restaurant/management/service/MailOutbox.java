@@ -0,0 +1,43 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.entity.OutboundMail;
+import com.system.restaurant.management.repository.OutboundMailRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entry point for outgoing mail: queues a row in OutboundMails (in the caller's transaction,
+ * if any) and returns. {@link MailOutboxWorker} delivers it within mail.outbox.poll-ms.
+ */
+@Service
+@RequiredArgsConstructor
+public class MailOutbox {
+
+    private final OutboundMailRepository outboundMailRepository;
+
+    @Transactional
+    public OutboundMail enqueue(String recipient, String subject, String body) {
+        return enqueue(recipient, subject, body, null);
+    }
+
+    /**
+     * @param notificationId Notifications row whose Status follows the delivery (Sent / Failed)
+     */
+    @Transactional
+    public OutboundMail enqueue(String recipient, String subject, String body, Integer notificationId) {
+        LocalDateTime now = LocalDateTime.now();
+        return outboundMailRepository.save(OutboundMail.builder()
+                .recipient(recipient)
+                .subject(subject)
+                .body(body)
+                .status(OutboundMail.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .notificationId(notificationId)
+                .build());
+    }
+}
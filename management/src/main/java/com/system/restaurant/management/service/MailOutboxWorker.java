@@ -0,0 +1,220 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.entity.OutboundMail;
+import com.system.restaurant.management.repository.NotificationRepository;
+import com.system.restaurant.management.repository.OutboundMailRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers the OutboundMails queue.
+ * <p>
+ * Every mail.outbox.poll-ms the worker claims up to mail.outbox.batch-size due mails and splits
+ * them over mail.outbox.workers tasks on the application task executor (virtual threads when
+ * enabled). Each task sends its share with one {@link JavaMailSender#send(SimpleMailMessage...)}
+ * call, i.e. over a single SMTP connection. Failed mails are retried after retry-base-ms,
+ * doubling up to retry-max-ms, and marked Failed after max-attempts. A mail's body is blanked
+ * once it is sent or given up on, since it may hold an OTP, and Sent and Failed rows are
+ * deleted after mail.outbox.retention-days.
+ * <p>
+ * Metrics: mail.outbox.depth (mails still to send), mail.send.batch (time per SMTP session),
+ * mail.delivery.delay (queued to sent) and mail.outbox.attempts tagged result=sent|retry|failed.
+ */
+@Service
+@Slf4j
+public class MailOutboxWorker {
+
+    private static final List<String> OPEN = List.of(OutboundMail.PENDING, OutboundMail.SENDING);
+
+    private final OutboundMailRepository outboundMailRepository;
+    private final NotificationRepository notificationRepository;
+    private final JavaMailSender mailSender;
+    private final Executor executor;
+    private final MeterRegistry registry;
+    private final AtomicLong depth = new AtomicLong();
+    private final Timer batchTimer;
+    private final Timer deliveryDelay;
+
+    @Value("${mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${mail.outbox.workers:2}")
+    private int workers;
+
+    @Value("${mail.outbox.claim-ms:120000}")
+    private long claimMs;
+
+    @Value("${mail.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.retry-base-ms:30000}")
+    private long retryBaseMs;
+
+    @Value("${mail.outbox.retry-max-ms:1800000}")
+    private long retryMaxMs;
+
+    @Value("${mail.outbox.retention-days:7}")
+    private int retentionDays;
+
+    public MailOutboxWorker(OutboundMailRepository outboundMailRepository,
+                            NotificationRepository notificationRepository,
+                            JavaMailSender mailSender,
+                            @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor,
+                            MeterRegistry registry) {
+        this.outboundMailRepository = outboundMailRepository;
+        this.notificationRepository = notificationRepository;
+        this.mailSender = mailSender;
+        this.executor = executor;
+        this.registry = registry;
+        Gauge.builder("mail.outbox.depth", depth, AtomicLong::get).register(registry);
+        this.batchTimer = Timer.builder("mail.send.batch").register(registry);
+        this.deliveryDelay = Timer.builder("mail.delivery.delay").register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-ms:1000}")
+    public void poll() {
+        try {
+            List<OutboundMail> batch;
+            do {
+                LocalDateTime now = LocalDateTime.now();
+                batch = outboundMailRepository.claimDue(batchSize, now, now.plus(Duration.ofMillis(claimMs)));
+                if (!batch.isEmpty()) {
+                    deliver(batch);
+                }
+            } while (batch.size() == batchSize);
+            depth.set(outboundMailRepository.countByStatusIn(OPEN));
+        } catch (Exception e) {
+            log.error("Mail outbox poll failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.purge-ms:3600000}")
+    public void purgeFinished() {
+        int purged = outboundMailRepository.deleteFinishedBefore(LocalDateTime.now().minusDays(retentionDays));
+        if (purged > 0) {
+            log.info("Purged {} sent or failed mails older than {} days", purged, retentionDays);
+        }
+    }
+
+    private void deliver(List<OutboundMail> batch) {
+        int parts = Math.max(1, Math.min(workers, batch.size()));
+        int size = (batch.size() + parts - 1) / parts;
+        List<CompletableFuture<Void>> sends = new ArrayList<>();
+        for (int from = 0; from < batch.size(); from += size) {
+            List<OutboundMail> part = batch.subList(from, Math.min(from + size, batch.size()));
+            sends.add(CompletableFuture.runAsync(() -> send(part), executor));
+        }
+        CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).join();
+    }
+
+    private void send(List<OutboundMail> mails) {
+        SimpleMailMessage[] messages = mails.stream().map(MailOutboxWorker::toMessage).toArray(SimpleMailMessage[]::new);
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        long start = System.nanoTime();
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failures.putAll(e.getFailedMessages());
+            if (failures.isEmpty()) {
+                failAll(messages, e, failures);
+            }
+        } catch (MailException e) {
+            failAll(messages, e, failures);
+        } finally {
+            batchTimer.record(Duration.ofNanos(System.nanoTime() - start));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> sent = new ArrayList<>();
+        List<Integer> sentNotifications = new ArrayList<>();
+        List<Integer> failedNotifications = new ArrayList<>();
+        for (int i = 0; i < mails.size(); i++) {
+            OutboundMail mail = mails.get(i);
+            Exception failure = failures.get(messages[i]);
+            if (failure == null) {
+                sent.add(mail.getMailId());
+                addIfPresent(sentNotifications, mail.getNotificationId());
+                if (mail.getCreatedAt() != null) {
+                    deliveryDelay.record(Duration.between(mail.getCreatedAt(), now));
+                }
+                count("sent");
+            } else if (mail.getAttempts() >= maxAttempts) {
+                outboundMailRepository.markFailed(mail.getMailId(), now, error(failure));
+                addIfPresent(failedNotifications, mail.getNotificationId());
+                log.warn("Giving up mail {} to {} after {} attempts: {}",
+                        mail.getMailId(), mail.getRecipient(), mail.getAttempts(), failure.getMessage());
+                count("failed");
+            } else {
+                outboundMailRepository.markRetry(mail.getMailId(), now.plus(backoff(mail.getAttempts())), error(failure));
+                count("retry");
+            }
+        }
+        if (!sent.isEmpty()) {
+            outboundMailRepository.markSent(sent, now);
+        }
+        if (!sentNotifications.isEmpty()) {
+            notificationRepository.updateStatus(sentNotifications, "Sent", now);
+        }
+        if (!failedNotifications.isEmpty()) {
+            notificationRepository.updateStatus(failedNotifications, "Failed", now);
+        }
+    }
+
+    // retry-base-ms, gấp đôi sau mỗi lần thử, tối đa retry-max-ms
+    private Duration backoff(int attempts) {
+        long delay = retryBaseMs << Math.min(attempts - 1, 20);
+        return Duration.ofMillis(Math.min(delay, retryMaxMs));
+    }
+
+    private void count(String result) {
+        Counter.builder("mail.outbox.attempts").tag("result", result).register(registry).increment();
+    }
+
+    private static void failAll(SimpleMailMessage[] messages, Exception e, Map<Object, Exception> failures) {
+        for (SimpleMailMessage message : messages) {
+            failures.put(message, e);
+        }
+    }
+
+    private static void addIfPresent(List<Integer> ids, Integer id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    private static String error(Exception e) {
+        String message = Objects.toString(e.getMessage(), e.getClass().getSimpleName());
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    private static SimpleMailMessage toMessage(OutboundMail mail) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(mail.getRecipient());
+        message.setSubject(mail.getSubject());
+        message.setText(mail.getBody());
+        return message;
+    }
+}
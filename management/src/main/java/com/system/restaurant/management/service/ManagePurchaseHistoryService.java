@@ -1,9 +1,11 @@
 package com.system.restaurant.management.service;
 
 import com.system.restaurant.management.dto.PurchaseHistoryDto;
+import com.system.restaurant.management.dto.PurchaseHistoryFilter;
+import com.system.restaurant.management.dto.PurchaseHistoryPage;
 import com.system.restaurant.management.dto.PurchaseHistoryResponse;
+import com.system.restaurant.management.dto.PurchaseHistorySummaryDto;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ManagePurchaseHistoryService {
@@ -11,4 +13,6 @@ public interface ManagePurchaseHistoryService {
      List<PurchaseHistoryDto> getHistoryByPhone(String phone);
      List<PurchaseHistoryDto> getHistoryWithoutPhone();
      PurchaseHistoryResponse getCustomerStatistics(String phone);
-}
\ No newline at end of file
+     PurchaseHistoryPage getHistoryPage(PurchaseHistoryFilter filter, String cursor, int size);
+     PurchaseHistorySummaryDto getSummary(PurchaseHistoryFilter filter);
+}
@@ -0,0 +1,148 @@
+package com.system.restaurant.management.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.system.restaurant.management.entity.Dish;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Public menu (/api/public/dishes, categories, combos) as pre-serialized JSON.
+ * <p>
+ * The snapshot is built on the first request after a change and then served from memory: no
+ * query and no serialization per guest. Each resource carries a strong ETag derived from its
+ * bytes, so unchanged menus answer conditional GETs with 304 and the tag stays the same across
+ * rebuilds and instances. {@link MenuSnapshotListener} invalidates it when a Dish, Category,
+ * Combo or ComboItem commits; {@code menu.snapshot.max-age-ms} only bounds staleness for
+ * writes made outside the app.
+ * <p>
+ * The snapshot also keeps each dish's name, price and availability by id, so the QR order
+ * endpoint prices a cart without reading Dishes.
+ */
+@Service
+@RequiredArgsConstructor
+public class MenuSnapshot {
+
+    private final DishService dishService;
+    private final CategoryService categoryService;
+    private final ComboService comboService;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot current;
+
+    @Value("${menu.snapshot.max-age-ms:300000}")
+    private long maxAgeMs;
+
+    public Resource dishes() {
+        return snapshot().dishes;
+    }
+
+    public Resource categories() {
+        return snapshot().categories;
+    }
+
+    public Resource combos() {
+        return snapshot().combos;
+    }
+
+    /** Dish as on the public menu; empty for dishes created since the last rebuild. */
+    public Optional<MenuDish> dish(Integer dishId) {
+        return Optional.ofNullable(snapshot().dishesById.get(dishId));
+    }
+
+    /**
+     * Drops the snapshot once the current transaction commits (immediately outside one), so a
+     * rebuild never reads the menu as it was before the change.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot snapshot = current;
+        if (isFresh(snapshot)) {
+            return snapshot;
+        }
+        return rebuild();
+    }
+
+    // Một luồng build, các request khác chờ rồi dùng lại kết quả
+    private synchronized Snapshot rebuild() {
+        Snapshot snapshot = current;
+        if (isFresh(snapshot)) {
+            return snapshot;
+        }
+        long builtFrom = version.get();
+        List<Dish> dishes = dishService.findAll();
+        Map<Integer, MenuDish> dishesById = new HashMap<>();
+        for (Dish dish : dishes) {
+            dishesById.put(dish.getDishId(), MenuDish.of(dish));
+        }
+        Snapshot built = new Snapshot(builtFrom, System.currentTimeMillis(),
+                resource(dishes),
+                resource(categoryService.findAll()),
+                resource(comboService.getAllCombos()),
+                Map.copyOf(dishesById));
+        // Có thay đổi commit trong lúc build: vẫn trả về, nhưng không giữ lại
+        if (version.get() == builtFrom) {
+            current = built;
+        }
+        return built;
+    }
+
+    private boolean isFresh(Snapshot snapshot) {
+        return snapshot != null
+                && snapshot.version == version.get()
+                && System.currentTimeMillis() - snapshot.builtAt < maxAgeMs;
+    }
+
+    private Resource resource(Object value) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(value);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return new Resource(body, HexFormat.of().formatHex(digest, 0, 16));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot serialize menu", e);
+        }
+    }
+
+    /** JSON body and its strong ETag (unquoted). */
+    public record Resource(byte[] body, String etag) {
+    }
+
+    /** Name, price and availability of one dish. */
+    public record MenuDish(Integer dishId, String dishName, BigDecimal price, boolean available) {
+
+        public static MenuDish of(Dish dish) {
+            return new MenuDish(dish.getDishId(), dish.getDishName(), dish.getPrice(),
+                    !Boolean.FALSE.equals(dish.getStatus()));
+        }
+    }
+
+    private record Snapshot(long version, long builtAt, Resource dishes, Resource categories, Resource combos,
+                            Map<Integer, MenuDish> dishesById) {
+    }
+}
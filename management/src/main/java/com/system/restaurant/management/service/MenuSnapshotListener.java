@@ -0,0 +1,31 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.entity.Category;
+import com.system.restaurant.management.entity.Combo;
+import com.system.restaurant.management.entity.ComboItem;
+import com.system.restaurant.management.entity.Dish;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link Dish}, {@link Category}, {@link Combo} and {@link ComboItem} that
+ * invalidates the {@link MenuSnapshot} once the writing transaction commits.
+ */
+@Component
+@RequiredArgsConstructor
+public class MenuSnapshotListener {
+
+    // Snapshot phụ thuộc service -> repository -> EntityManagerFactory -> listener, nên lấy lười
+    private final ObjectProvider<MenuSnapshot> snapshot;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onMenuChanged(Object entity) {
+        snapshot.getObject().invalidate();
+    }
+}
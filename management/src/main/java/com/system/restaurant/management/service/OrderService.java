@@ -1,7 +1,11 @@
 package com.system.restaurant.management.service;
 
 import com.system.restaurant.management.dto.OrderDto;
+import com.system.restaurant.management.dto.OrderItemRequest;
 import com.system.restaurant.management.dto.OrderRequestDto;
+import com.system.restaurant.management.dto.QrOrderReceipt;
+import com.system.restaurant.management.dto.QrOrderSubmission;
+import com.system.restaurant.management.dto.TableOrderItemDto;
 import com.system.restaurant.management.dto.TableOrderRequest;
 import com.system.restaurant.management.dto.TableOrderResponse;
 import com.system.restaurant.management.entity.Order;
@@ -21,15 +25,18 @@ public interface OrderService {
     // Methods for QR Menu
     List<OrderDto> findAll();
     OrderRequestDto createOrder(OrderRequestDto orderDto);
-    List<Object> getActiveOrderItemsByTable(Integer tableId);
+    QrOrderReceipt submitQrOrder(QrOrderSubmission submission);
+    List<TableOrderItemDto> getActiveOrderItemsByTable(Integer tableId);
 
     void cancelOrderDetail(Integer orderDetailId);
+    void updateOrderDetailStatus(Integer orderDetailId, Integer statusId);
     OrderDetail replaceOrderDetail(Integer orderDetailId, OrderDetail newOrderDetail);
     List<Order> getOrdersByTable(Integer tableId);
     Order getOrderById(Integer orderId);
     List<OrderDetail> getOrderDetails(Integer orderId);
 
     TableOrderResponse addTableOrderItem(TableOrderRequest request);
+    Order addOrderItems(Integer orderId, List<OrderItemRequest> items);
     TableOrderResponse updateTableOrderItem(Integer tableId, Integer dishId, Integer quantity);
     TableOrderResponse removeTableOrderItem(Integer tableId, Integer dishId);
     void cancelTableOrder(Integer tableId);
@@ -0,0 +1,38 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Re-sums the lines of every open order in one query and flags orders whose SubTotal no
+ * longer matches, since order totals are maintained by deltas (OrderServiceImpl) rather than
+ * recomputed on every change. Drift means a line was changed by a path that bypasses the
+ * delta, e.g. a direct SQL fix. Totals are reported, not rewritten.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderTotalsVerifier {
+
+    private final OrderRepository orderRepository;
+
+    @Scheduled(fixedDelayString = "${order.totals.verify-ms:600000}",
+               initialDelayString = "${order.totals.verify-ms:600000}")
+    public void verify() {
+        try {
+            List<OrderRepository.TotalsDrift> drifts = orderRepository.findOpenOrdersWithTotalsDrift();
+            for (OrderRepository.TotalsDrift drift : drifts) {
+                log.warn("Order {} total drift: SubTotal {} but lines add up to {}",
+                        drift.getOrderId(), drift.getSubTotal(), drift.getExpectedSubTotal());
+            }
+            log.debug("Order totals verified, {} open orders drifted", drifts.size());
+        } catch (Exception e) {
+            log.error("Error verifying order totals: ", e);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.entity.Promotion;
+import com.system.restaurant.management.repository.PromotionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory promotion catalog: every Promotion keyed by id and by code (case-insensitive, like
+ * the PromoCode collation), plus the promotions valid today, so listing codes, validating a
+ * code at checkout and suggesting the best code never scan the Promotions table.
+ * <p>
+ * The catalog is loaded at startup. {@link PromotionCatalogListener} writes every create,
+ * update and delete through once its transaction commits, and {@code applyToOrder} reports
+ * each use it reserves. The catalog is reloaded every {@code promotion.catalog.reload-ms} to
+ * pick up uses made by other instances; a reload that overlaps one of these writes is dropped,
+ * so it never puts back the state from before the write. "Valid today" is derived for one day in Asia/Bangkok:
+ * {@link #rollOver()} reloads at midnight, and a read on a new day re-derives it even if the
+ * job has not run yet.
+ * <p>
+ * Like {@link FloorStateRegistry}, state is an immutable {@link Snapshot} swapped on each write.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PromotionCatalog {
+
+    public static final ZoneId ZONE = ZoneId.of("Asia/Bangkok");
+
+    private final PromotionRepository promotionRepository;
+
+    private volatile Snapshot snapshot;
+    private long writes; // guarded by this
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            long writesBefore;
+            synchronized (this) {
+                writesBefore = writes;
+            }
+            Snapshot loaded = load();
+            synchronized (this) {
+                if (writes != writesBefore) {
+                    // Có thay đổi trong lúc đang đọc DB: giữ bản hiện tại, load lại ở lần sau
+                    log.debug("Promotion catalog changed during reload, keeping the current snapshot");
+                    return;
+                }
+                snapshot = loaded;
+            }
+            log.info("Promotion catalog loaded with {} promotions, {} valid today",
+                    loaded.byId.size(), loaded.valid.size());
+        } catch (Exception e) {
+            // Sẽ load lại ở lần đọc đầu tiên
+            log.error("Error loading promotion catalog: ", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${promotion.catalog.reload-ms:300000}",
+               initialDelayString = "${promotion.catalog.reload-ms:300000}")
+    public void reload() {
+        rebuild();
+    }
+
+    // Qua ngày mới: mã hết hạn rời danh sách, mã bắt đầu hôm nay vào danh sách
+    @Scheduled(cron = "0 0 0 * * *", zone = "Asia/Bangkok")
+    public void rollOver() {
+        rebuild();
+    }
+
+    // ====== READS ======
+
+    public Optional<Promotion> findByCode(String promoCode) {
+        return Optional.ofNullable(current().byCode.get(normalize(promoCode))).map(PromoState::toEntity);
+    }
+
+    /** Active promotions valid today with uses left, soonest to expire first. */
+    public List<Promotion> findValid() {
+        return current().valid.stream().map(PromoState::toEntity).toList();
+    }
+
+    /**
+     * The valid promotion giving the largest discount on {@code subTotal}, with that discount.
+     * Only the highest percentage and the highest fixed amount can win, so this is O(1).
+     */
+    public Optional<Suggestion> best(BigDecimal subTotal) {
+        if (subTotal == null || subTotal.signum() <= 0) {
+            return Optional.empty();
+        }
+        Snapshot s = current();
+        Suggestion best = null;
+        for (PromoState candidate : new PromoState[]{s.topPercent, s.topFixed}) {
+            if (candidate == null) {
+                continue;
+            }
+            BigDecimal discount = discount(candidate.toEntity(), subTotal);
+            if (discount.signum() > 0 && (best == null || discount.compareTo(best.discount()) > 0)) {
+                best = new Suggestion(candidate.toEntity(), discount);
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /** Discount of {@code promotion} on {@code subTotal}: percent if > 0, else the fixed amount, never above the subtotal. */
+    public static BigDecimal discount(Promotion promotion, BigDecimal subTotal) {
+        BigDecimal pct = promotion.getDiscountPercent() == null ? BigDecimal.ZERO : promotion.getDiscountPercent();
+        BigDecimal fxd = promotion.getDiscountAmount() == null ? BigDecimal.ZERO : promotion.getDiscountAmount();
+        BigDecimal discount = pct.signum() > 0
+                ? subTotal.multiply(pct).divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP)
+                : fxd.setScale(2, RoundingMode.HALF_UP);
+        return discount.min(subTotal);
+    }
+
+    // ====== WRITES (gọi sau khi commit) ======
+
+    public synchronized void put(PromoState state) {
+        Snapshot s = current();
+        Map<Integer, PromoState> promotions = new HashMap<>(s.byId);
+        promotions.put(state.promoId(), state);
+        snapshot = Snapshot.of(promotions, today());
+        writes++;
+    }
+
+    public synchronized void evict(Integer promoId) {
+        // Kể cả khi chưa có trong catalog: một lần reload đang chạy có thể đã đọc dòng vừa xóa
+        writes++;
+        Snapshot s = current();
+        if (!s.byId.containsKey(promoId)) {
+            return;
+        }
+        Map<Integer, PromoState> promotions = new HashMap<>(s.byId);
+        promotions.remove(promoId);
+        snapshot = Snapshot.of(promotions, today());
+    }
+
+    /**
+     * Records one use reserved by the current transaction, applied once it commits. The
+     * database stays the authority on UsageLimit; this only keeps exhausted codes out of
+     * {@link #findValid()} and {@link #best}.
+     */
+    public void usageReserved(Integer promoId) {
+        Runnable action = () -> {
+            synchronized (this) {
+                PromoState state = current().byId.get(promoId);
+                if (state != null && state.usageLimit() != null) {
+                    put(state.withUsageLimit(Math.max(0, state.usageLimit() - 1)));
+                }
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        LocalDate today = today();
+        if (s == null || !s.day.equals(today)) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = load();
+                } else if (!snapshot.day.equals(today)) {
+                    snapshot = Snapshot.of(snapshot.byId, today);
+                }
+                s = snapshot;
+            }
+        }
+        return s;
+    }
+
+    private Snapshot load() {
+        Map<Integer, PromoState> promotions = new HashMap<>();
+        for (Promotion promotion : promotionRepository.findAll()) {
+            promotions.put(promotion.getPromoId(), PromoState.of(promotion));
+        }
+        return Snapshot.of(promotions, today());
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now(ZONE);
+    }
+
+    private static String normalize(String promoCode) {
+        return promoCode == null ? "" : promoCode.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /** A promotion and the discount it gives on the subtotal it was picked for. */
+    public record Suggestion(Promotion promotion, BigDecimal discount) {
+    }
+
+    /**
+     * Detached copy of the columns of one Promotions row.
+     */
+    public record PromoState(Integer promoId, String promoCode, String promoName, String description,
+                             BigDecimal discountPercent, BigDecimal discountAmount, LocalDate startDate,
+                             LocalDate endDate, Integer usageLimit, Boolean isActive) {
+
+        public static PromoState of(Promotion p) {
+            return new PromoState(p.getPromoId(), p.getPromoCode(), p.getPromoName(), p.getDescription(),
+                    p.getDiscountPercent(), p.getDiscountAmount(), p.getStartDate(), p.getEndDate(),
+                    p.getUsageLimit(), p.getIsActive());
+        }
+
+        PromoState withUsageLimit(Integer limit) {
+            return new PromoState(promoId, promoCode, promoName, description, discountPercent,
+                    discountAmount, startDate, endDate, limit, isActive);
+        }
+
+        boolean validOn(LocalDate day) {
+            return !Boolean.FALSE.equals(isActive)
+                    && !day.isBefore(startDate) && !day.isAfter(endDate)
+                    && (usageLimit == null || usageLimit > 0);
+        }
+
+        Promotion toEntity() {
+            return new Promotion(promoId, promoCode, promoName, description, discountPercent,
+                    discountAmount, startDate, endDate, usageLimit, isActive);
+        }
+    }
+
+    private static final class Snapshot {
+        private final LocalDate day;
+        private final Map<Integer, PromoState> byId;
+        private final Map<String, PromoState> byCode;
+        private final List<PromoState> valid;
+        private final PromoState topPercent;
+        private final PromoState topFixed;
+
+        private Snapshot(LocalDate day, Map<Integer, PromoState> byId, Map<String, PromoState> byCode,
+                         List<PromoState> valid, PromoState topPercent, PromoState topFixed) {
+            this.day = day;
+            this.byId = byId;
+            this.byCode = byCode;
+            this.valid = valid;
+            this.topPercent = topPercent;
+            this.topFixed = topFixed;
+        }
+
+        static Snapshot of(Map<Integer, PromoState> promotions, LocalDate day) {
+            Map<String, PromoState> byCode = new HashMap<>();
+            for (PromoState state : promotions.values()) {
+                byCode.put(normalize(state.promoCode()), state);
+            }
+            List<PromoState> valid = promotions.values().stream()
+                    .filter(state -> state.validOn(day))
+                    .sorted(Comparator.comparing(PromoState::endDate).thenComparing(PromoState::promoId))
+                    .toList();
+            // Hai ứng viên duy nhất cho best(): % cao nhất, và số tiền cố định cao nhất (mã không có %)
+            PromoState topPercent = null;
+            PromoState topFixed = null;
+            for (PromoState state : valid) {
+                if (positive(state.discountPercent())) {
+                    if (topPercent == null || state.discountPercent().compareTo(topPercent.discountPercent()) > 0) {
+                        topPercent = state;
+                    }
+                } else if (positive(state.discountAmount())) {
+                    if (topFixed == null || state.discountAmount().compareTo(topFixed.discountAmount()) > 0) {
+                        topFixed = state;
+                    }
+                }
+            }
+            return new Snapshot(day, Collections.unmodifiableMap(new HashMap<>(promotions)), byCode,
+                    valid, topPercent, topFixed);
+        }
+
+        private static boolean positive(BigDecimal value) {
+            return value != null && value.signum() > 0;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.entity.Promotion;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener on {@link Promotion} that writes every insert, update and delete through to
+ * the {@link PromotionCatalog} once the transaction has committed.
+ */
+@Component
+@RequiredArgsConstructor
+public class PromotionCatalogListener {
+
+    // Catalog phụ thuộc repository -> EntityManagerFactory -> listener, nên lấy lười
+    private final ObjectProvider<PromotionCatalog> catalog;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Promotion promotion) {
+        PromotionCatalog.PromoState state = PromotionCatalog.PromoState.of(promotion);
+        afterCommit(() -> catalog.getObject().put(state));
+    }
+
+    @PostRemove
+    public void onRemoved(Promotion promotion) {
+        Integer promoId = promotion.getPromoId();
+        afterCommit(() -> catalog.getObject().evict(promoId));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
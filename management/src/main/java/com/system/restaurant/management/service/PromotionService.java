@@ -3,12 +3,15 @@ package com.system.restaurant.management.service;
 import com.system.restaurant.management.dto.ApplyPromotionRequest;
 import com.system.restaurant.management.dto.ApplyPromotionResponse;
 import com.system.restaurant.management.dto.PromotionRequestDto;
+import com.system.restaurant.management.dto.PromotionSuggestionResponse;
 import com.system.restaurant.management.entity.PromoUsage;
 import com.system.restaurant.management.entity.Promotion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 public interface PromotionService {
     Promotion create(PromotionRequestDto dto);
@@ -17,6 +20,7 @@ public interface PromotionService {
     Promotion get(Integer promoId);
     Page<Promotion> list(Pageable pageable);
     List<Promotion> listValidPromotions(String phone);
+    Optional<PromotionSuggestionResponse> suggestBest(BigDecimal subTotal);
 
     ApplyPromotionResponse applyToOrder(ApplyPromotionRequest request);
 }
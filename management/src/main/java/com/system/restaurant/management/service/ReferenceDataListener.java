@@ -0,0 +1,46 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.entity.Area;
+import com.system.restaurant.management.entity.Category;
+import com.system.restaurant.management.entity.OrderStatus;
+import com.system.restaurant.management.entity.PaymentMethod;
+import com.system.restaurant.management.entity.ReservationStatus;
+import com.system.restaurant.management.entity.Role;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener on {@link OrderStatus}, {@link PaymentMethod}, {@link ReservationStatus},
+ * {@link Role}, {@link Area} and {@link Category} that reloads the {@link ReferenceDataRegistry}
+ * once the writing transaction commits. The tables are tiny and edited rarely, so the whole
+ * registry is reloaded rather than patched.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataListener {
+
+    // Registry phụ thuộc repository -> EntityManagerFactory -> listener, nên lấy lười
+    private final ObjectProvider<ReferenceDataRegistry> registry;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChanged(Object entity) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    registry.getObject().rebuild();
+                }
+            });
+        } else {
+            registry.getObject().rebuild();
+        }
+    }
+}
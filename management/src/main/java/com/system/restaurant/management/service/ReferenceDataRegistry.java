@@ -0,0 +1,235 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.entity.Area;
+import com.system.restaurant.management.entity.Category;
+import com.system.restaurant.management.entity.OrderStatus;
+import com.system.restaurant.management.entity.PaymentMethod;
+import com.system.restaurant.management.entity.ReservationStatus;
+import com.system.restaurant.management.entity.Role;
+import com.system.restaurant.management.repository.AreaRepository;
+import com.system.restaurant.management.repository.CategoryRepository;
+import com.system.restaurant.management.repository.OrderStatusRepository;
+import com.system.restaurant.management.repository.PaymentMethodRepository;
+import com.system.restaurant.management.repository.ReservationStatusRepository;
+import com.system.restaurant.management.repository.RoleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory copy of the small lookup tables: OrderStatuses, PaymentMethods, ReservationStatuses,
+ * Roles, Areas and Categories. Resolving a status or a payment method by name or id at checkout,
+ * listing areas and categories, and mapping role names when saving a user never hit the database.
+ * <p>
+ * Ids are IDENTITY values starting at 1 and there are only a handful of rows, so each table is
+ * an array indexed by id plus a map by name (case-insensitive, like the column collation).
+ * Reads return copies; the snapshot itself is never mutated.
+ * <p>
+ * The tables are loaded at startup. {@link ReferenceDataListener} reloads them once an admin
+ * edit commits, and they are reloaded every {@code reference-data.reload-ms} to pick up edits
+ * made by other instances or directly in SQL. Each reload is numbered when it starts reading,
+ * and a reload that finishes after a later-started one has published is dropped, so a slow
+ * scheduled reload never puts back the rows from before an edit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenceDataRegistry {
+
+    private final OrderStatusRepository orderStatusRepository;
+    private final PaymentMethodRepository paymentMethodRepository;
+    private final ReservationStatusRepository reservationStatusRepository;
+    private final RoleRepository roleRepository;
+    private final AreaRepository areaRepository;
+    private final CategoryRepository categoryRepository;
+
+    private volatile Snapshot snapshot;
+    private long started;   // guarded by this
+    private long published; // guarded by this
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            long generation;
+            synchronized (this) {
+                generation = ++started;
+            }
+            Snapshot loaded = load();
+            synchronized (this) {
+                if (generation < published) {
+                    // Một lần load bắt đầu sau đã publish dữ liệu mới hơn: bỏ bản này
+                    log.debug("Reference data changed during reload, keeping the current snapshot");
+                    return;
+                }
+                snapshot = loaded;
+                published = generation;
+            }
+            log.info("Reference data loaded: {} order statuses, {} payment methods, {} reservation statuses, "
+                            + "{} roles, {} areas, {} categories",
+                    loaded.orderStatuses.size(), loaded.paymentMethods.size(), loaded.reservationStatuses.size(),
+                    loaded.roles.size(), loaded.areas.size(), loaded.categories.size());
+        } catch (Exception e) {
+            // Sẽ load lại ở lần đọc đầu tiên
+            log.error("Error loading reference data: ", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${reference-data.reload-ms:600000}",
+               initialDelayString = "${reference-data.reload-ms:600000}")
+    public void reload() {
+        rebuild();
+    }
+
+    // ====== READS ======
+
+    public Optional<OrderStatus> orderStatus(Integer statusId) {
+        return current().orderStatuses.byId(statusId);
+    }
+
+    public Optional<OrderStatus> orderStatus(String statusName) {
+        return current().orderStatuses.byName(statusName);
+    }
+
+    public Optional<String> orderStatusName(Integer statusId) {
+        return orderStatus(statusId).map(OrderStatus::getStatusName);
+    }
+
+    public Optional<PaymentMethod> paymentMethod(Integer methodId) {
+        return current().paymentMethods.byId(methodId);
+    }
+
+    public Optional<PaymentMethod> paymentMethod(String methodName) {
+        return current().paymentMethods.byName(methodName);
+    }
+
+    public List<PaymentMethod> paymentMethods() {
+        return current().paymentMethods.all();
+    }
+
+    public Optional<ReservationStatus> reservationStatus(Integer statusId) {
+        return current().reservationStatuses.byId(statusId);
+    }
+
+    public List<ReservationStatus> reservationStatuses() {
+        return current().reservationStatuses.all();
+    }
+
+    /** Detached copy of the role named {@code roleName}, enough to link a user to it by id. */
+    public Optional<Role> role(String roleName) {
+        return current().roles.byName(roleName);
+    }
+
+    public List<Area> areas() {
+        return current().areas.all();
+    }
+
+    public Optional<Category> category(Integer categoryId) {
+        return current().categories.byId(categoryId);
+    }
+
+    public List<Category> categories() {
+        return current().categories.all();
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = load();
+                    published = ++started;
+                }
+                s = snapshot;
+            }
+        }
+        return s;
+    }
+
+    private Snapshot load() {
+        return new Snapshot(
+                Lookup.of(orderStatusRepository.findAll(), OrderStatus::getStatusId, OrderStatus::getStatusName,
+                        s -> new OrderStatus(s.getStatusId(), s.getStatusName())),
+                Lookup.of(paymentMethodRepository.findAll(), PaymentMethod::getMethodId, PaymentMethod::getMethodName,
+                        m -> new PaymentMethod(m.getMethodId(), m.getMethodName())),
+                Lookup.of(reservationStatusRepository.findAll(), ReservationStatus::getStatusId,
+                        ReservationStatus::getStatusName,
+                        s -> new ReservationStatus(s.getStatusId(), s.getStatusName())),
+                Lookup.of(roleRepository.findAll(), Role::getId, Role::getRoleName,
+                        r -> Role.builder().id(r.getId()).roleName(r.getRoleName()).description(r.getDescription()).build()),
+                Lookup.of(areaRepository.findAll(), Area::getAreaId, Area::getAreaName,
+                        a -> new Area(a.getAreaId(), a.getAreaName(), a.getDescription())),
+                Lookup.of(categoryRepository.findAll(), Category::getCategoryId, Category::getCategoryName,
+                        c -> new Category(c.getCategoryId(), c.getCategoryName(), c.getDescription())));
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private record Snapshot(Lookup<OrderStatus> orderStatuses, Lookup<PaymentMethod> paymentMethods,
+                            Lookup<ReservationStatus> reservationStatuses, Lookup<Role> roles,
+                            Lookup<Area> areas, Lookup<Category> categories) {
+    }
+
+    /**
+     * One lookup table: rows by id (array index) and by name, in id order. Holds its own copies
+     * of the rows and hands out fresh copies, so callers may modify what they get.
+     */
+    private static final class Lookup<T> {
+        private final Object[] byId;
+        private final Map<String, T> byName;
+        private final List<T> all;
+        private final UnaryOperator<T> copy;
+
+        private Lookup(Object[] byId, Map<String, T> byName, List<T> all, UnaryOperator<T> copy) {
+            this.byId = byId;
+            this.byName = byName;
+            this.all = all;
+            this.copy = copy;
+        }
+
+        static <T> Lookup<T> of(List<T> rows, Function<T, Integer> id, Function<T, String> name, UnaryOperator<T> copy) {
+            List<T> sorted = rows.stream().map(copy).sorted(Comparator.comparing(id)).toList();
+            int maxId = sorted.isEmpty() ? 0 : id.apply(sorted.get(sorted.size() - 1));
+            Object[] byId = new Object[maxId + 1];
+            Map<String, T> byName = new HashMap<>();
+            for (T row : sorted) {
+                byId[id.apply(row)] = row;
+                byName.putIfAbsent(normalize(name.apply(row)), row);
+            }
+            return new Lookup<>(byId, byName, sorted, copy);
+        }
+
+        @SuppressWarnings("unchecked")
+        Optional<T> byId(Integer id) {
+            if (id == null || id < 0 || id >= byId.length) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable((T) byId[id]).map(copy);
+        }
+
+        Optional<T> byName(String name) {
+            return Optional.ofNullable(byName.get(normalize(name))).map(copy);
+        }
+
+        List<T> all() {
+            return all.stream().map(copy).toList();
+        }
+
+        int size() {
+            return all.size();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.entity.Reservation;
+import com.system.restaurant.management.entity.RestaurantTable;
+import com.system.restaurant.management.event.TableReleasedEvent;
+import com.system.restaurant.management.repository.ReservationRepository;
+import com.system.restaurant.management.repository.RestaurantTableRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory availability of the reservation tables (status "Reserved") over the booking
+ * horizon, replacing the correlated COUNT of RestaurantTableRepository.findAvailableReservedTables.
+ * <p>
+ * Each table keeps a Fenwick tree of reservation start times per minute, from yesterday 00:00
+ * to {@link #HORIZON_DAYS} days later, so "how many Pending/Confirmed reservations start in
+ * [t, t + 2h]" is O(log n) per table. A table is free for t while that count is below a third
+ * of all tables, the same rule as the query. Times outside the horizon fall back to the query.
+ * <p>
+ * The index is loaded at startup and slides at midnight. {@link ReservationAvailabilityListener}
+ * writes every reservation insert, update (status, table, time) and delete through after commit,
+ * and a {@link TableReleasedEvent} frees reservations cancelled in bulk. The writes are
+ * idempotent per reservation, so a reload racing with them stays correct.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationAvailabilityIndex {
+
+    public static final Duration SLOT = Duration.ofHours(2);
+    // Đặt trước tối đa 7 ngày (ReservationTimeValidator) + hôm qua + dư một ngày
+    static final int HORIZON_DAYS = 10;
+    private static final int HORIZON_MINUTES = HORIZON_DAYS * 24 * 60;
+
+    // Lưới cho giao diện đặt bàn: khung giờ nhận đặt, mỗi 30 phút
+    private static final LocalTime FIRST_SLOT = LocalTime.of(7, 30);
+    private static final LocalTime LAST_SLOT = LocalTime.of(20, 30);
+    private static final Duration GRID_STEP = Duration.ofMinutes(30);
+
+    private final ReservationRepository reservationRepository;
+    private final RestaurantTableRepository tableRepository;
+    private final FloorStateRegistry floorStateRegistry;
+
+    // guarded by this
+    private LocalDateTime base;
+    private final Map<Integer, Booking> bookings = new HashMap<>();
+    private final Map<Integer, SlotCounts> byTable = new HashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            int loaded = load(startOfHorizon());
+            log.info("Reservation availability index loaded with {} active reservations", loaded);
+        } catch (Exception e) {
+            // Sẽ load lại ở lần đọc đầu tiên
+            log.error("Error loading reservation availability index: ", e);
+        }
+    }
+
+    // Trượt cửa sổ sang ngày mới
+    @Scheduled(cron = "0 0 0 * * *")
+    public void rollOver() {
+        rebuild();
+    }
+
+    // ====== READS ======
+
+    /** Reservation tables free for a reservation at {@code time}, by ascending id. */
+    public List<RestaurantTable> findFreeTables(LocalDateTime time) {
+        List<RestaurantTable> tables = floorStateRegistry.findByStatus(RestaurantTable.Status.RESERVED);
+        int capacity = floorStateRegistry.size() / 3;
+        synchronized (this) {
+            ensureHorizon();
+            Integer from = minute(time);
+            Integer to = minute(time.plus(SLOT));
+            if (from != null && to != null) {
+                List<RestaurantTable> free = new ArrayList<>();
+                for (RestaurantTable table : tables) {
+                    if (count(table.getTableId(), from, to) < capacity) {
+                        free.add(table);
+                    }
+                }
+                return free;
+            }
+        }
+        return tableRepository.findAvailableReservedTables(time, time.plus(SLOT));
+    }
+
+    public boolean hasFreeTable(LocalDateTime time) {
+        return !findFreeTables(time).isEmpty();
+    }
+
+    /**
+     * Number of free reservation tables for every bookable slot (07:30 to 20:30, every 30
+     * minutes) of {@code days} days from {@code from}, for the booking screen.
+     */
+    public Map<LocalDateTime, Integer> grid(LocalDate from, int days) {
+        List<RestaurantTable> tables = floorStateRegistry.findByStatus(RestaurantTable.Status.RESERVED);
+        int capacity = floorStateRegistry.size() / 3;
+        Map<LocalDateTime, Integer> grid = new LinkedHashMap<>();
+        synchronized (this) {
+            ensureHorizon();
+            for (LocalDate day = from; day.isBefore(from.plusDays(days)); day = day.plusDays(1)) {
+                for (LocalTime time = FIRST_SLOT; !time.isAfter(LAST_SLOT); time = time.plus(GRID_STEP)) {
+                    LocalDateTime slot = day.atTime(time);
+                    Integer start = minute(slot);
+                    Integer end = minute(slot.plus(SLOT));
+                    if (start == null || end == null) {
+                        continue;
+                    }
+                    int free = 0;
+                    for (RestaurantTable table : tables) {
+                        if (count(table.getTableId(), start, end) < capacity) {
+                            free++;
+                        }
+                    }
+                    grid.put(slot, free);
+                }
+            }
+        }
+        return grid;
+    }
+
+    // ====== WRITES (gọi từ ReservationAvailabilityListener sau khi commit) ======
+
+    public synchronized void put(Booking booking) {
+        ensureHorizon();
+        evict(booking.reservationId());
+        if (!booking.active()) {
+            return;
+        }
+        Integer minute = minute(booking.reservationAt());
+        if (minute == null) {
+            return;
+        }
+        bookings.put(booking.reservationId(), booking);
+        byTable.computeIfAbsent(booking.tableId(), id -> new SlotCounts()).add(minute, 1);
+    }
+
+    // Đơn bị hủy hàng loạt (ReservationScheduler) không đi qua listener: giải phóng slot ngay
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTableReleased(TableReleasedEvent event) {
+        event.getReservationIds().forEach(this::evict);
+    }
+
+    public synchronized void evict(Integer reservationId) {
+        Booking old = bookings.remove(reservationId);
+        if (old != null) {
+            byTable.get(old.tableId()).add(minute(old.reservationAt()), -1);
+        }
+    }
+
+    private void ensureHorizon() {
+        LocalDateTime start = startOfHorizon();
+        if (!start.equals(base)) {
+            load(start);
+        }
+    }
+
+    // Giữ lock trong lúc đọc DB: put/evict sau commit chờ rồi ghi đè, nên không mất thay đổi nào
+    private synchronized int load(LocalDateTime start) {
+        bookings.clear();
+        byTable.clear();
+        base = start;
+        try {
+            List<Reservation> reservations = reservationRepository.findByStatusIdInAndReservationAtGreaterThanEqual(
+                    List.of(Reservation.Status.PENDING, Reservation.Status.CONFIRMED), start);
+            for (Reservation reservation : reservations) {
+                put(Booking.of(reservation));
+            }
+            return bookings.size();
+        } catch (RuntimeException e) {
+            base = null; // load lại ở lần gọi sau
+            throw e;
+        }
+    }
+
+    private int count(Integer tableId, int from, int to) {
+        SlotCounts counts = byTable.get(tableId);
+        return counts == null ? 0 : counts.sum(from, to);
+    }
+
+    // Phút thứ mấy kể từ đầu cửa sổ; null nếu nằm ngoài
+    private Integer minute(LocalDateTime time) {
+        long minutes = Duration.between(base, time).toMinutes();
+        return minutes >= 0 && minutes < HORIZON_MINUTES && !time.isBefore(base) ? (int) minutes : null;
+    }
+
+    private static LocalDateTime startOfHorizon() {
+        return LocalDate.now().minusDays(1).atStartOfDay();
+    }
+
+    /**
+     * Detached copy of the columns of one Reservation that decide availability.
+     */
+    public record Booking(Integer reservationId, Integer tableId, LocalDateTime reservationAt, Integer statusId) {
+
+        public static Booking of(Reservation reservation) {
+            return new Booking(reservation.getReservationId(), reservation.getTableId(),
+                    reservation.getReservationAt(), reservation.getStatusId());
+        }
+
+        boolean active() {
+            return tableId != null && reservationAt != null
+                    && (Integer.valueOf(Reservation.Status.PENDING).equals(statusId)
+                        || Integer.valueOf(Reservation.Status.CONFIRMED).equals(statusId));
+        }
+    }
+
+    // Fenwick tree: số lượt đặt bắt đầu ở mỗi phút, tổng một khoảng trong O(log n)
+    private static final class SlotCounts {
+        private final int[] tree = new int[HORIZON_MINUTES + 1];
+
+        void add(int minute, int delta) {
+            for (int i = minute + 1; i <= HORIZON_MINUTES; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        // Tổng các phút from..to (gồm cả hai đầu)
+        int sum(int from, int to) {
+            return prefix(to + 1) - prefix(from);
+        }
+
+        private int prefix(int end) {
+            int sum = 0;
+            for (int i = end; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.entity.Reservation;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener on {@link Reservation} that writes every insert, update and delete through to
+ * the {@link ReservationAvailabilityIndex} once the transaction has committed. This covers
+ * booking, confirmation (table change), status changes and the overdue auto-cancel job.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReservationAvailabilityListener {
+
+    // Index phụ thuộc repository -> EntityManagerFactory -> listener, nên lấy lười
+    private final ObjectProvider<ReservationAvailabilityIndex> index;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Reservation reservation) {
+        ReservationAvailabilityIndex.Booking booking = ReservationAvailabilityIndex.Booking.of(reservation);
+        afterCommit(() -> index.getObject().put(booking));
+    }
+
+    @PostRemove
+    public void onRemoved(Reservation reservation) {
+        Integer reservationId = reservation.getReservationId();
+        afterCommit(() -> index.getObject().evict(reservationId));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
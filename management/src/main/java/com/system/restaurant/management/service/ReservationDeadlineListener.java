@@ -0,0 +1,58 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.entity.Reservation;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA listener on {@link Reservation} that keeps the {@link ReservationScheduler} deadline
+ * queue in step once the transaction has committed: Pending reservations get (or move) their
+ * deadline, any other status or a delete drops it.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReservationDeadlineListener {
+
+    // Scheduler phụ thuộc repository -> EntityManagerFactory -> listener, nên lấy lười
+    private final ObjectProvider<ReservationScheduler> scheduler;
+
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Reservation reservation) {
+        Integer reservationId = reservation.getReservationId();
+        if (Integer.valueOf(Reservation.Status.PENDING).equals(reservation.getStatusId())
+                && reservation.getReservationAt() != null) {
+            LocalDateTime reservationAt = reservation.getReservationAt();
+            afterCommit(() -> scheduler.getObject().schedule(reservationId, reservationAt));
+        } else {
+            afterCommit(() -> scheduler.getObject().unschedule(reservationId));
+        }
+    }
+
+    @PostRemove
+    public void onRemoved(Reservation reservation) {
+        Integer reservationId = reservation.getReservationId();
+        afterCommit(() -> scheduler.getObject().unschedule(reservationId));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
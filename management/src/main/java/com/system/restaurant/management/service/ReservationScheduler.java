@@ -1,34 +1,141 @@
 package com.system.restaurant.management.service;
 
+import com.system.restaurant.management.dto.ReservationDeadlineRow;
 import com.system.restaurant.management.entity.Reservation;
+import com.system.restaurant.management.event.TableReleasedEvent;
 import com.system.restaurant.management.repository.ReservationRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 
+/**
+ * Cancels Pending reservations {@link #GRACE} after their time if the guest has not shown up.
+ * <p>
+ * Deadlines are kept in a priority queue ordered by expiry, so each tick only looks at its
+ * head and a reservation is cancelled within {@code reservation.sweeper.tick-ms} of its
+ * deadline. The queue is loaded from the database at startup and on every
+ * {@code reservation.sweeper.resync-ms}; {@link ReservationDeadlineListener} adds, moves and
+ * drops deadlines as reservations are created, confirmed or cancelled.
+ * <p>
+ * Due reservations are cancelled with one set-based UPDATE that re-checks StatusID and the
+ * time, so a reservation confirmed meanwhile is never cancelled, and returns the ids it changed.
+ * The UPDATE bypasses the JPA listeners, so a {@link TableReleasedEvent} with exactly those ids
+ * tells the availability index the slots are free.
+ */
 @Component
 @RequiredArgsConstructor
+@Slf4j
 public class ReservationScheduler {
+
+    static final Duration GRACE = Duration.ofMinutes(30);
+    // SQL Server giới hạn 2100 tham số mỗi câu lệnh
+    private static final int CANCEL_CHUNK = 500;
+
     private final ReservationRepository reservationRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // guarded by this; mục trong queue đã lỗi thời nếu deadlines không còn giữ đúng hạn đó
+    private final PriorityQueue<Deadline> queue = new PriorityQueue<>();
+    private final Map<Integer, LocalDateTime> deadlines = new HashMap<>();
+    private long writes;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${reservation.sweeper.resync-ms:300000}",
+               initialDelayString = "${reservation.sweeper.resync-ms:300000}")
+    public void resync() {
+        try {
+            long writesBefore;
+            synchronized (this) {
+                writesBefore = writes;
+            }
+            List<ReservationDeadlineRow> pending = reservationRepository.findDeadlinesByStatusId(Reservation.Status.PENDING);
+            synchronized (this) {
+                // Có thay đổi trong lúc đọc DB: chỉ bổ sung, không xóa (UPDATE vẫn kiểm tra lại StatusID)
+                if (writes == writesBefore) {
+                    queue.clear();
+                    deadlines.clear();
+                }
+                for (ReservationDeadlineRow reservation : pending) {
+                    schedule(reservation.reservationId(), reservation.reservationAt());
+                }
+            }
+            log.debug("Reservation sweeper tracking {} pending reservations", pending.size());
+        } catch (Exception e) {
+            log.error("Error loading pending reservations: ", e);
+        }
+    }
 
-    @Scheduled(fixedRate = 300000) // Runs every 5 minutes
-    @Transactional
+    @Scheduled(fixedDelayString = "${reservation.sweeper.tick-ms:1000}")
     public void autoCancelOverdueReservations() {
-        LocalDateTime thirtyMinutesAgo = LocalDateTime.now().minusMinutes(30);
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> due = pollDue(now);
+        if (due.isEmpty()) {
+            return;
+        }
+        for (int from = 0; from < due.size(); from += CANCEL_CHUNK) {
+            cancel(due.subList(from, Math.min(from + CANCEL_CHUNK, due.size())), now.minus(GRACE));
+        }
+    }
 
-        List<Reservation> overdueReservations = reservationRepository.findByStatusIdAndReservationAtBefore(
-                Reservation.Status.PENDING,
-                thirtyMinutesAgo
-        );
+    private void cancel(List<Integer> due, LocalDateTime cutoff) {
+        try {
+            // Đúng các đơn câu UPDATE này đã hủy (OUTPUT), không gồm đơn đã bị hủy từ trước
+            List<Integer> reservationIds = reservationRepository.cancelOverdue(due, cutoff,
+                    Reservation.Status.PENDING, Reservation.Status.CANCELLED);
+            if (reservationIds.isEmpty()) {
+                return;
+            }
+            log.info("Auto-cancelled {} overdue reservations {}", reservationIds.size(), reservationIds);
+            eventPublisher.publishEvent(new TableReleasedEvent(reservationIds));
+        } catch (Exception e) {
+            // Lần resync sau sẽ đưa các đơn còn Pending trở lại hàng đợi
+            log.error("Error cancelling overdue reservations {}: ", due, e);
+        }
+    }
+
+    // ====== WRITES (gọi từ ReservationDeadlineListener sau khi commit) ======
 
-        for (Reservation reservation : overdueReservations) {
-            reservation.setStatusId(Reservation.Status.CANCELLED);
+    public synchronized void schedule(Integer reservationId, LocalDateTime reservationAt) {
+        LocalDateTime deadline = reservationAt.plus(GRACE);
+        writes++;
+        if (!deadline.equals(deadlines.put(reservationId, deadline))) {
+            queue.add(new Deadline(deadline, reservationId));
         }
+    }
+
+    public synchronized void unschedule(Integer reservationId) {
+        writes++;
+        deadlines.remove(reservationId);
+    }
 
-        reservationRepository.saveAll(overdueReservations);
+    private synchronized List<Integer> pollDue(LocalDateTime now) {
+        List<Integer> due = new ArrayList<>();
+        while (!queue.isEmpty() && !queue.peek().at().isAfter(now)) {
+            Deadline head = queue.poll();
+            if (deadlines.remove(head.reservationId(), head.at())) {
+                due.add(head.reservationId());
+            }
+        }
+        return due;
+    }
+
+    private record Deadline(LocalDateTime at, Integer reservationId) implements Comparable<Deadline> {
+        @Override
+        public int compareTo(Deadline other) {
+            int byTime = at.compareTo(other.at);
+            return byTime != 0 ? byTime : reservationId.compareTo(other.reservationId);
+        }
     }
-}
\ No newline at end of file
+}
@@ -2,7 +2,10 @@ package com.system.restaurant.management.service;
 
 import com.system.restaurant.management.dto.CreateReservationRequest;
 import com.system.restaurant.management.entity.Reservation;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public interface ReservationService {
     Reservation createReservation(CreateReservationRequest request);
@@ -10,4 +13,5 @@ public interface ReservationService {
     List<Reservation> getReservationsByStatus(String status);
     Reservation updateReservationStatus(Integer reservationId, String status);
     List<Reservation> getTodayReservations();
+    Map<LocalDateTime, Integer> getAvailabilityGrid(LocalDate from, int days);
 }
\ No newline at end of file
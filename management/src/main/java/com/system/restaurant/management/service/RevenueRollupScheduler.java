@@ -0,0 +1,54 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.repository.InvoiceRepository;
+import com.system.restaurant.management.repository.RevenueRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RevenueRollupScheduler {
+    private final RevenueService revenueService;
+    private final RevenueRollupRepository rollupRepository;
+    private final InvoiceRepository invoiceRepository;
+
+    @Value("${revenue.rollup.rebuild-days:2}")
+    private int rebuildDays;
+
+    // Lần chạy đầu tiên: dựng rollup cho toàn bộ hóa đơn cũ
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (rollupRepository.count() > 0) {
+                return;
+            }
+            invoiceRepository.findFirstIssuedAt().ifPresent(first ->
+                    revenueService.rebuildRollup(first.toLocalDate(), LocalDate.now()));
+        } catch (Exception e) {
+            log.error("Error backfilling revenue rollup: ", e);
+        }
+    }
+
+    // Mỗi đêm dựng lại vài ngày gần nhất và đối chiếu với hóa đơn
+    @Scheduled(cron = "${revenue.rollup.rebuild-cron:0 30 3 * * *}")
+    public void rebuildRecentDays() {
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(Math.max(rebuildDays - 1, 0));
+        try {
+            if (!revenueService.checkRollup(from, to).isConsistent()) {
+                log.warn("Revenue rollup drift for {} - {}, rebuilding", from, to);
+            }
+            revenueService.rebuildRollup(from, to);
+        } catch (Exception e) {
+            log.error("Error rebuilding revenue rollup: ", e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.system.restaurant.management.service;
 
 import com.system.restaurant.management.dto.RevenueReportDto;
+import com.system.restaurant.management.dto.RevenueRollupCheckDto;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -8,4 +9,6 @@ public interface RevenueService {
     List<RevenueReportDto> getRevenueByShifts(LocalDate date);
     List<RevenueReportDto> getRevenueByDays(LocalDate fromDate, LocalDate toDate);
     List<RevenueReportDto> getRevenueByMonths(LocalDate fromDate, LocalDate toDate);
+    int rebuildRollup(LocalDate fromDate, LocalDate toDate);
+    RevenueRollupCheckDto checkRollup(LocalDate fromDate, LocalDate toDate);
 }
@@ -0,0 +1,97 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.dto.TableOrderItemDto;
+import com.system.restaurant.management.event.KitchenOrderChangedEvent;
+import com.system.restaurant.management.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Short-lived cache of the QR menu "items at my table" list, keyed by tableId.
+ * <p>
+ * Every guest phone at a table polls the same list, so each table is loaded with one query
+ * and then served from memory for {@code orders.table-items.ttl-ms}. Changes drop the
+ * affected table straight away: {@link TableOrderItemsListener} forwards committed Order and
+ * OrderDetail writes, and {@link KitchenOrderChangedEvent} covers lines inserted with JDBC
+ * by the order line writer. The TTL only bounds staleness for writes made outside the app.
+ */
+@Service
+@RequiredArgsConstructor
+public class TableOrderItemsCache {
+
+    private final OrderRepository orderRepository;
+
+    private final Map<Integer, Entry> tables = new ConcurrentHashMap<>();
+    // orderId -> tableId của các order đang nằm trong cache, để biết bàn nào cần xóa khi một dòng món đổi
+    private final Map<Integer, Integer> orderTables = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Value("${orders.table-items.ttl-ms:5000}")
+    private long ttlMs;
+
+    public List<TableOrderItemDto> get(Integer tableId) {
+        long now = System.currentTimeMillis();
+        Entry entry = tables.get(tableId);
+        if (entry != null && entry.expiresAt > now) {
+            return entry.items;
+        }
+
+        // Chỉ lưu kết quả nếu không có thay đổi nào xảy ra trong lúc đang load
+        long version = invalidations.get();
+        List<TableOrderItemDto> rows = orderRepository.findActiveItemsByTableId(tableId);
+        Set<Integer> orderIds = rows.stream().map(TableOrderItemDto::orderId).collect(Collectors.toUnmodifiableSet());
+        List<TableOrderItemDto> items = rows.stream().filter(row -> row.orderDetailId() != null).toList();
+
+        Entry loaded = new Entry(items, orderIds, now + ttlMs);
+        orderIds.forEach(orderId -> orderTables.put(orderId, tableId));
+        Entry previous = tables.put(tableId, loaded);
+        if (previous != null) {
+            previous.orderIds.stream()
+                    .filter(orderId -> !orderIds.contains(orderId))
+                    .forEach(orderId -> orderTables.remove(orderId, tableId));
+        }
+        if (invalidations.get() != version) {
+            tables.remove(tableId, loaded);
+        }
+        return items;
+    }
+
+    public void evictTable(Integer tableId) {
+        if (tableId == null) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        Entry removed = tables.remove(tableId);
+        if (removed != null) {
+            removed.orderIds.forEach(orderId -> orderTables.remove(orderId, tableId));
+        }
+    }
+
+    /**
+     * Drops the table the order was cached under. Orders that are in no cached list can be
+     * ignored: a table only starts showing an order after an Order write, which evicts it.
+     */
+    public void evictOrder(Integer orderId) {
+        if (orderId == null) {
+            return;
+        }
+        evictTable(orderTables.get(orderId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKitchenOrderChanged(KitchenOrderChangedEvent event) {
+        evictOrder(event.getOrderId());
+    }
+
+    private record Entry(List<TableOrderItemDto> items, Set<Integer> orderIds, long expiresAt) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.system.restaurant.management.service;
+
+import com.system.restaurant.management.entity.Order;
+import com.system.restaurant.management.entity.OrderDetail;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener on {@link Order} and {@link OrderDetail} that evicts the affected table from
+ * the {@link TableOrderItemsCache} once the transaction has committed.
+ */
+@Component
+@RequiredArgsConstructor
+public class TableOrderItemsListener {
+
+    // Cache phụ thuộc repository -> EntityManagerFactory -> listener, nên lấy lười
+    private final ObjectProvider<TableOrderItemsCache> cache;
+
+    // JPA chỉ cho một callback mỗi loại trong một lớp listener, nên phân nhánh theo entity
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChanged(Object entity) {
+        if (entity instanceof Order order) {
+            onOrderChanged(order);
+        } else if (entity instanceof OrderDetail detail) {
+            onOrderDetailChanged(detail);
+        }
+    }
+
+    private void onOrderChanged(Order order) {
+        Integer orderId = order.getOrderId();
+        Integer tableId = order.getTableId();
+        // evictOrder cho trường hợp chuyển bàn: bàn cũ vẫn đang giữ order trong cache
+        afterCommit(() -> {
+            cache.getObject().evictOrder(orderId);
+            cache.getObject().evictTable(tableId);
+        });
+    }
+
+    private void onOrderDetailChanged(OrderDetail detail) {
+        Integer orderId = detail.getOrderId();
+        afterCommit(() -> cache.getObject().evictOrder(orderId));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -13,8 +13,10 @@ public class TableService {
     
     private final RestaurantTableRepository restaurantTableRepository;
 
+    private final FloorStateRegistry floorStateRegistry;
+
     public RestaurantTable getById(Integer id) {
-        return restaurantTableRepository.findById(id)
+        return floorStateRegistry.find(id)
                 .orElseThrow(() -> new ResourceNotFoundException("RestaurantTable", "id", id));
     }
 
@@ -31,20 +33,21 @@ public class TableService {
     }
 
     public RestaurantTable updateStatus(Integer id, String status) {
-        RestaurantTable table = getById(id);
+        RestaurantTable table = restaurantTableRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("RestaurantTable", "id", id));
         table.setStatus(status);
         return restaurantTableRepository.save(table);
     }
 
     public List<RestaurantTable> findAll() {
-        return restaurantTableRepository.findAll();
+        return floorStateRegistry.findAll();
     }
 
     public List<RestaurantTable> findByStatus(String status) {
-        return restaurantTableRepository.findByStatus(status);
+        return floorStateRegistry.findByStatus(status);
     }
 
     public List<RestaurantTable> findByAreaId(Integer areaId) {
-        return restaurantTableRepository.findByAreaId(areaId);
+        return floorStateRegistry.findByArea(areaId);
     }
 }
@@ -4,6 +4,7 @@ import com.system.restaurant.management.entity.Category;
 import com.system.restaurant.management.exception.ResourceNotFoundException;
 import com.system.restaurant.management.repository.CategoryRepository;
 import com.system.restaurant.management.service.CategoryService;
+import com.system.restaurant.management.service.ReferenceDataRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -13,15 +14,16 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
+    private final ReferenceDataRegistry referenceData;
 
     @Override
     public List<Category> findAll() {
-        return categoryRepository.findAll();
+        return referenceData.categories();
     }
 
     @Override
     public Category findById(Integer id) {
-        return categoryRepository.findById(id)
+        return referenceData.category(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
     }
 
@@ -32,7 +34,7 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     public Category update(Integer id, Category category) {
-        Category existingCategory = findById(id);
+        Category existingCategory = load(id);
         existingCategory.setCategoryName(category.getCategoryName());
         existingCategory.setDescription(category.getDescription());
         return categoryRepository.save(existingCategory);
@@ -40,7 +42,13 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     public void delete(Integer id) {
-        Category category = findById(id);
+        Category category = load(id);
         categoryRepository.delete(category);
     }
+
+    // Ghi luôn đọc bản ghi từ DB, không dùng bản sao trong registry
+    private Category load(Integer id) {
+        return categoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", id));
+    }
 }
\ No newline at end of file
@@ -4,8 +4,11 @@ import com.system.restaurant.management.dto.*;
 import com.system.restaurant.management.entity.*;
 import com.system.restaurant.management.exception.ResourceNotFoundException;
 import com.system.restaurant.management.repository.*;
+import com.system.restaurant.management.service.ComboCatalog;
 import com.system.restaurant.management.service.ComboService;
+import com.system.restaurant.management.service.MenuSnapshot;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +22,9 @@ public class ComboServiceImpl implements ComboService {
     private final ComboRepository comboRepository;
     private final ComboItemRepository comboItemRepository;
     private final DishRepository dishRepository;
+    private final ComboCatalog comboCatalog;
+    // MenuSnapshot dùng ComboService để build, nên lấy lười
+    private final ObjectProvider<MenuSnapshot> menuSnapshot;
 
     @Override
     public List<ComboDTO> getAllCombos() {
@@ -50,6 +56,7 @@ public class ComboServiceImpl implements ComboService {
             comboItem.setQuantity(itemRequest.getQuantity());
             comboItemRepository.save(comboItem);
         }
+        comboCatalog.invalidate();
         return getComboById(combo.getComboId());
     }
 
@@ -70,6 +77,8 @@ public class ComboServiceImpl implements ComboService {
         if (request.getComboItems() != null) {
             validateDishesExist(request.getComboItems());
             comboItemRepository.deleteByComboId(comboId);
+            // Xóa hàng loạt không qua entity listener
+            menuSnapshot.getObject().invalidate();
             for (ComboItemRequest itemRequest : request.getComboItems()) {
                 ComboItem comboItem = ComboItem.builder()
                         .comboId(combo.getComboId())
@@ -79,6 +88,7 @@ public class ComboServiceImpl implements ComboService {
                 comboItemRepository.save(comboItem);
             }
         }
+        comboCatalog.invalidate();
         return getComboById(combo.getComboId());
     }
 
@@ -88,6 +98,7 @@ public class ComboServiceImpl implements ComboService {
             throw new ResourceNotFoundException("Combo", "id", comboId);
         }
         comboRepository.deleteById(comboId);
+        comboCatalog.invalidate();
     }
 
     @Override
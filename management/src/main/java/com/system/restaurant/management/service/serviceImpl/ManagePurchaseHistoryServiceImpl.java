@@ -1,21 +1,25 @@
 package com.system.restaurant.management.service.serviceImpl;
 
+import com.system.restaurant.management.dto.PurchaseHistoryCursor;
 import com.system.restaurant.management.dto.PurchaseHistoryDto;
+import com.system.restaurant.management.dto.PurchaseHistoryFilter;
+import com.system.restaurant.management.dto.PurchaseHistoryPage;
 import com.system.restaurant.management.dto.PurchaseHistoryResponse;
+import com.system.restaurant.management.dto.PurchaseHistorySummaryDto;
 import com.system.restaurant.management.repository.PurchaseHistoryRepository;
 import com.system.restaurant.management.service.ManagePurchaseHistoryService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class ManagePurchaseHistoryServiceImpl implements ManagePurchaseHistoryService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final PurchaseHistoryRepository purchaseHistoryRepository;
 
     @Override
@@ -35,28 +39,41 @@ public class ManagePurchaseHistoryServiceImpl implements ManagePurchaseHistorySe
 
     @Override
     public PurchaseHistoryResponse getCustomerStatistics(String phone) {
-        List<PurchaseHistoryDto> customerHistory = getHistoryByPhone(phone);
-
-        if (customerHistory.isEmpty()) {
-            return PurchaseHistoryResponse.builder()
-                    .customerPhone(phone)
-                    .customerName("Unknown")
-                    .totalOrders(0)
-                    .totalSpent(BigDecimal.ZERO)
-                    .purchaseHistory(customerHistory)
-                    .build();
-        }
-
-        BigDecimal totalSpent = customerHistory.stream()
-                .map(PurchaseHistoryDto::getFinalTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        PurchaseHistoryFilter filter = PurchaseHistoryFilter.builder().phone(phone).build();
+        PurchaseHistorySummaryDto summary = purchaseHistoryRepository.summarize(filter);
+        PurchaseHistoryPage firstPage = getHistoryPage(filter, null, DEFAULT_PAGE_SIZE);
+
+        // Tên khách lấy theo đơn gần nhất
+        String customerName = firstPage.getItems().isEmpty() ? "Unknown"
+                : firstPage.getItems().get(0).getCustomerName();
 
         return PurchaseHistoryResponse.builder()
                 .customerPhone(phone)
-                .customerName(customerHistory.get(0).getCustomerName())
-                .totalOrders(customerHistory.size())
-                .totalSpent(totalSpent)
-                .purchaseHistory(customerHistory)
+                .customerName(customerName)
+                .totalOrders((int) summary.getTotalOrders())
+                .totalSpent(summary.getTotalSpent())
+                .purchaseHistory(firstPage.getItems())
+                .nextCursor(firstPage.getNextCursor())
                 .build();
     }
-}
\ No newline at end of file
+
+    @Override
+    public PurchaseHistoryPage getHistoryPage(PurchaseHistoryFilter filter, String cursor, int size) {
+        int pageSize = size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        // Lấy dư một dòng để biết còn trang sau hay không
+        List<PurchaseHistoryDto> rows = purchaseHistoryRepository.findPage(
+                filter, PurchaseHistoryCursor.decode(cursor), pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<PurchaseHistoryDto> items = hasMore ? rows.subList(0, pageSize) : rows;
+        return PurchaseHistoryPage.builder()
+                .items(items)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? PurchaseHistoryCursor.of(items.get(pageSize - 1)).encode() : null)
+                .build();
+    }
+
+    @Override
+    public PurchaseHistorySummaryDto getSummary(PurchaseHistoryFilter filter) {
+        return purchaseHistoryRepository.summarize(filter);
+    }
+}
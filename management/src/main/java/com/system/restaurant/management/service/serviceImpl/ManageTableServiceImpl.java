@@ -4,7 +4,10 @@ import com.system.restaurant.management.entity.*;
 import com.system.restaurant.management.dto.MergedTableDTO;
 import com.system.restaurant.management.exception.ResourceNotFoundException;
 import com.system.restaurant.management.repository.*;
+import com.system.restaurant.management.service.FloorStateRegistry;
 import com.system.restaurant.management.service.ManageTableService;
+import com.system.restaurant.management.service.ReferenceDataRegistry;
+import com.system.restaurant.management.service.ReservationAvailabilityIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,8 +24,10 @@ public class ManageTableServiceImpl implements ManageTableService {
     private final TableGroupRepository tableGroupRepository;
     private final TableGroupMemberRepository tableGroupMemberRepository;
     private final RestaurantTableRepository tableRepository;
-    private final AreaRepository areaRepository;
+    private final ReferenceDataRegistry referenceData;
     private final ReservationRepository reservationRepository;
+    private final FloorStateRegistry floorStateRegistry;
+    private final ReservationAvailabilityIndex reservationAvailabilityIndex;
 
     @Override
     public RestaurantTable create(RestaurantTable table) {
@@ -44,9 +49,8 @@ public class ManageTableServiceImpl implements ManageTableService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<Area> findAllAreas() {
-        return areaRepository.findAll();
+        return referenceData.areas();
     }
 
     @Override
@@ -76,7 +80,7 @@ public class ManageTableServiceImpl implements ManageTableService {
     @Override
     @Transactional(readOnly = true)
     public List<RestaurantTable> getTablesAvailableByArea(Integer areaId) {
-        return repo.findByAreaIdAndStatusIgnoreCase(areaId, "Available");
+        return floorStateRegistry.findByAreaAndStatus(areaId, "Available");
     }
 
     @Override
@@ -138,19 +142,19 @@ public class ManageTableServiceImpl implements ManageTableService {
     @Override
     @Transactional(readOnly = true)
     public List<RestaurantTable> getAvailableTables() {
-        return repo.findByStatus("Available");
+        return floorStateRegistry.findByStatus("Available");
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<RestaurantTable> getTablesByStatus(String status) {
-        return repo.findByStatus(status);
+        return floorStateRegistry.findByStatus(status);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<RestaurantTable> getTablesByArea(Integer areaId) {
-        return repo.findByAreaId(areaId);
+        return floorStateRegistry.findByArea(areaId);
     }
 
     @Override
@@ -228,9 +232,7 @@ public class ManageTableServiceImpl implements ManageTableService {
 
     @Override
     public RestaurantTable assignTableForReservation(LocalDateTime reservationTime) {
-        LocalDateTime endTime = reservationTime.plusHours(2);
-        List<RestaurantTable> availableReservedTables = tableRepository
-                .findAvailableReservedTables(reservationTime, endTime);
+        List<RestaurantTable> availableReservedTables = reservationAvailabilityIndex.findFreeTables(reservationTime);
 
         if (availableReservedTables.isEmpty()) {
             throw new IllegalStateException("No reserved tables available for this time slot");
@@ -269,8 +271,7 @@ public class ManageTableServiceImpl implements ManageTableService {
 
     @Override
     public boolean hasAvailableReservedTables(LocalDateTime reservationTime) {
-        LocalDateTime endTime = reservationTime.plusHours(2);
-        return !tableRepository.findAvailableReservedTables(reservationTime, endTime).isEmpty();
+        return reservationAvailabilityIndex.hasFreeTable(reservationTime);
     }
 
     @Override
@@ -0,0 +1,62 @@
+package com.system.restaurant.management.service.serviceImpl;
+
+import com.system.restaurant.management.entity.Dish;
+import com.system.restaurant.management.entity.OrderDetail;
+import com.system.restaurant.management.service.ComboCatalog.ComboDefinition;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Order lines of one order being built in memory, together with the dishes and combos
+ * resolved for it. Created by {@link OrderLineWriter#prepare} and persisted by
+ * {@link OrderLineWriter#write}.
+ */
+public class OrderLineBatch {
+
+    private final Map<Integer, Dish> dishes;
+    private final Map<Integer, ComboDefinition> combos;
+    private final int lookupQueries;
+    private final List<OrderDetail> lines = new ArrayList<>();
+
+    OrderLineBatch(Map<Integer, Dish> dishes, Map<Integer, ComboDefinition> combos, int lookupQueries) {
+        this.dishes = dishes;
+        this.combos = combos;
+        this.lookupQueries = lookupQueries;
+    }
+
+    public Optional<Dish> dish(Integer dishId) {
+        return Optional.ofNullable(dishes.get(dishId));
+    }
+
+    public Optional<ComboDefinition> combo(Integer comboId) {
+        return Optional.ofNullable(combos.get(comboId));
+    }
+
+    public OrderDetail add(OrderDetail line) {
+        lines.add(line);
+        return line;
+    }
+
+    public List<OrderDetail> getLines() {
+        return Collections.unmodifiableList(lines);
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    public BigDecimal subTotal() {
+        return lines.stream()
+                .map(line -> line.getUnitPrice().multiply(BigDecimal.valueOf(line.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    int getLookupQueries() {
+        return lookupQueries;
+    }
+}
@@ -0,0 +1,126 @@
+package com.system.restaurant.management.service.serviceImpl;
+
+import com.system.restaurant.management.entity.Dish;
+import com.system.restaurant.management.entity.OrderDetail;
+import com.system.restaurant.management.event.KitchenOrderChangedEvent;
+import com.system.restaurant.management.repository.DishRepository;
+import com.system.restaurant.management.service.ComboCatalog;
+import com.system.restaurant.management.service.ComboCatalog.ComboDefinition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Types;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk write path for order lines.
+ * <p>
+ * Dishes are resolved up front with one IN query and combos from the {@link ComboCatalog},
+ * the lines are built in memory and inserted as a single JDBC batch. OrderDetails uses an IDENTITY key,
+ * which makes Hibernate insert row by row, so the batch goes through JdbcTemplate on
+ * the transaction's connection instead. None of the order-creation flows need the
+ * generated OrderDetailID back; the ones that return lines reload them afterwards.
+ * <p>
+ * Every write notifies the kitchen display, so all order-creation paths (waiter, reception,
+ * takeaway, QR menu) show up there without polling.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderLineWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO OrderDetails (OrderID, DishID, ComboID, Quantity, UnitPrice, StatusID, IsRefunded, Notes) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DishRepository dishRepository;
+    private final ComboCatalog comboCatalog;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    /**
+     * Loads every dish referenced by an order and looks up every combo (with its dishes and
+     * price split) in the catalog.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OrderLineBatch prepare(Collection<Integer> dishIds, Collection<Integer> comboIds) {
+        int queries = 0;
+        Map<Integer, Dish> dishes = new HashMap<>();
+        List<Integer> wantedDishes = distinct(dishIds);
+        if (!wantedDishes.isEmpty()) {
+            dishes = dishRepository.findAllById(wantedDishes).stream()
+                    .collect(Collectors.toMap(Dish::getDishId, Function.identity()));
+            queries++;
+        }
+
+        Map<Integer, ComboDefinition> combos = new HashMap<>();
+        List<Integer> wantedCombos = distinct(comboIds);
+        if (!wantedCombos.isEmpty()) {
+            combos = comboCatalog.findAll(wantedCombos);
+        }
+        return new OrderLineBatch(dishes, combos, queries);
+    }
+
+    /**
+     * Inserts all lines of the batch for the given order in one JDBC batch.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void write(Integer orderId, OrderLineBatch batch) {
+        List<OrderDetail> lines = batch.getLines();
+        for (OrderDetail line : lines) {
+            line.setOrderId(orderId);
+            if (line.getStatusId() == null) {
+                line.setStatusId(1); // Pending
+            }
+            if (line.getIsRefunded() == null) {
+                line.setIsRefunded(0);
+            }
+            if (line.getDishId() == null && line.getComboId() == null) {
+                throw new IllegalStateException("Either DishID or ComboID must be provided");
+            }
+        }
+
+        int roundTrips = 0;
+        if (!lines.isEmpty()) {
+            roundTrips = jdbcTemplate.batchUpdate(INSERT_SQL, lines, batchSize, (ps, line) -> {
+                ps.setInt(1, line.getOrderId());
+                ps.setObject(2, line.getDishId(), Types.INTEGER);
+                ps.setObject(3, line.getComboId(), Types.INTEGER);
+                ps.setInt(4, line.getQuantity());
+                ps.setBigDecimal(5, line.getUnitPrice());
+                ps.setInt(6, line.getStatusId());
+                ps.setInt(7, line.getIsRefunded());
+                ps.setObject(8, line.getNotes(), Types.NVARCHAR);
+            }).length;
+        }
+
+        if (!lines.isEmpty()) {
+            eventPublisher.publishEvent(KitchenOrderChangedEvent.orderLinesAdded(orderId));
+        }
+        log.info("Order {}: {} order lines written with {} statements ({} lookup, {} batch insert)",
+                orderId, lines.size(), batch.getLookupQueries() + roundTrips,
+                batch.getLookupQueries(), roundTrips);
+    }
+
+    private static List<Integer> distinct(Collection<Integer> ids) {
+        if (ids == null) {
+            return List.of();
+        }
+        return ids.stream().filter(Objects::nonNull).distinct().toList();
+    }
+}
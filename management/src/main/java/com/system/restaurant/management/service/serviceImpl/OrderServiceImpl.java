@@ -2,15 +2,28 @@ package com.system.restaurant.management.service.serviceImpl;
 
 import com.system.restaurant.management.dto.OrderDto;
 import com.system.restaurant.management.dto.OrderRequestDto;
+import com.system.restaurant.management.dto.QrOrderReceipt;
+import com.system.restaurant.management.dto.QrOrderSubmission;
 import com.system.restaurant.management.dto.TableOrderRequest;
+import com.system.restaurant.management.dto.TableOrderItemDto;
 import com.system.restaurant.management.dto.TableOrderResponse;
 import com.system.restaurant.management.dto.OrderItemRequest;
 import com.system.restaurant.management.entity.*;
+import com.system.restaurant.management.event.KitchenOrderChangedEvent;
 import com.system.restaurant.management.exception.ResourceNotFoundException;
 import com.system.restaurant.management.repository.*;
+import com.system.restaurant.management.service.ComboCatalog;
+import com.system.restaurant.management.service.ComboCatalog.ComboDefinition;
+import com.system.restaurant.management.service.FloorStateRegistry;
+import com.system.restaurant.management.service.MenuSnapshot;
+import com.system.restaurant.management.service.MenuSnapshot.MenuDish;
 import com.system.restaurant.management.service.OrderService;
+import com.system.restaurant.management.service.ReferenceDataRegistry;
+import com.system.restaurant.management.service.TableOrderItemsCache;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,11 +31,12 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
-import java.util.HashMap;
-import java.util.Map;
 
 @Service
 @Transactional
@@ -30,9 +44,13 @@ import java.util.Map;
 public class OrderServiceImpl implements OrderService {
     private final OrderRepository orderRepository;
     private final OrderDetailRepository orderDetailRepository;
-    private final DishRepository dishRepository;
-    private final OrderStatusRepository statusRepo;
-    private final ComboItemRepository comboItemRepository;
+    private final ReferenceDataRegistry referenceData;
+    private final OrderLineWriter orderLineWriter;
+    private final PendingTableOrders pendingTableOrders;
+    private final MenuSnapshot menuSnapshot;
+    private final FloorStateRegistry floorStateRegistry;
+    private final TableOrderItemsCache tableOrderItemsCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ====== QR MENU METHODS ======
     @Override
@@ -60,7 +78,7 @@ public class OrderServiceImpl implements OrderService {
     @Override
     public OrderRequestDto createOrder(OrderRequestDto orderDto) {
         try {
-            // Tạo Order entity từ DTO
+            // Tạo Order entity từ DTO (bàn đã có order Pending thì gọi thêm vào order đó)
             Order order = new Order();
             order.setOrderType(orderDto.getOrderType() != null ? orderDto.getOrderType() : "DINEIN");
             order.setCustomerName(orderDto.getCustomerName());
@@ -75,7 +93,9 @@ public class OrderServiceImpl implements OrderService {
             order.setIsRefunded(0);
 
             // Lưu order
-            Order savedOrder = orderRepository.save(order);
+            Order savedOrder = order.getTableId() != null
+                    ? pendingTableOrders.findOrOpen(order.getTableId(), () -> order)
+                    : orderRepository.save(order);
 
             // Chuyển đổi ngược về DTO
             OrderRequestDto result = new OrderRequestDto();
@@ -92,49 +112,121 @@ public class OrderServiceImpl implements OrderService {
             result.setStatus("Pending");
 
             return result;
+        } catch (ConcurrencyFailureException e) {
+            throw e;
         } catch (Exception e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to create order: " + e.getMessage());
         }
     }
 
+    /**
+     * Prices the cart from the in-memory menu and combo catalog, ignoring any client price, and
+     * adds it to the table's Pending order in one transaction: the order lookup, the order
+     * insert or its totals update, and one batch insert for all lines. Only dishes created
+     * since the last menu rebuild are read from Dishes.
+     */
     @Override
-    public List<Object> getActiveOrderItemsByTable(Integer tableId) {
-        try {
-            // Tìm order đang active của bàn (status = 1 hoặc 2: Pending hoặc Processing)
-            List<Order> activeOrders = orderRepository.findByTableIdAndStatusIdIn(tableId, List.of(1, 2));
-            
-            if (activeOrders.isEmpty()) {
-                return List.of(); // Trả về danh sách rỗng nếu không có order
+    public QrOrderReceipt submitQrOrder(QrOrderSubmission submission) {
+        Integer tableId = submission.tableId();
+        if (floorStateRegistry.find(tableId).isEmpty()) {
+            throw new ResourceNotFoundException("Table", "id", tableId);
+        }
+
+        List<Integer> dishesNotInMenu = submission.items().stream()
+                .filter(item -> item.comboId() == null && item.dishId() != null)
+                .map(QrOrderSubmission.Item::dishId)
+                .filter(dishId -> menuSnapshot.dish(dishId).isEmpty())
+                .toList();
+        OrderLineBatch batch = orderLineWriter.prepare(dishesNotInMenu,
+                submission.items().stream().map(QrOrderSubmission.Item::comboId).toList());
+        // Món trong combo cũng phải còn bán; món chưa có trong menu snapshot mới đọc từ Dishes
+        List<Integer> comboDishesNotInMenu = submission.items().stream()
+                .map(QrOrderSubmission.Item::comboId)
+                .filter(Objects::nonNull)
+                .flatMap(comboId -> batch.combo(comboId).stream())
+                .flatMap(combo -> combo.lines().stream())
+                .map(ComboCatalog.Line::dishId)
+                .filter(dishId -> menuSnapshot.dish(dishId).isEmpty())
+                .toList();
+        OrderLineBatch comboDishes = comboDishesNotInMenu.isEmpty()
+                ? batch : orderLineWriter.prepare(comboDishesNotInMenu, List.of());
+
+        List<QrOrderReceipt.Line> receipt = new ArrayList<>();
+        for (QrOrderSubmission.Item item : submission.items()) {
+            if (item.comboId() != null) {
+                ComboDefinition combo = batch.combo(item.comboId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Combo", "id", item.comboId()));
+                if (combo.isEmpty()) {
+                    throw new IllegalStateException("Combo " + combo.comboName() + " has no dishes");
+                }
+                String notes = (item.notes() != null && !item.notes().isBlank() ? item.notes() + " " : "")
+                        + "(Từ combo: " + combo.comboName() + ")";
+                // Giá combo đã được chia sẵn cho từng món
+                for (ComboCatalog.Line line : combo.lines()) {
+                    availableDish(comboDishes, line.dishId());
+                    addQrLine(batch, receipt, line.dishId(), combo.comboId(), line.component().dishName(),
+                            item.quantity() * line.quantity(), line.unitPrice(), notes);
+                }
+            } else if (item.dishId() != null) {
+                MenuDish dish = availableDish(batch, item.dishId());
+                addQrLine(batch, receipt, dish.dishId(), null, dish.dishName(),
+                        item.quantity(), dish.price(), item.notes());
+            } else {
+                throw new IllegalStateException("Either dishId or comboId must be provided");
             }
+        }
 
-            // Lấy order details từ các active orders
-            return activeOrders.stream()
-                    .flatMap(order -> {
-                        List<OrderDetail> details = orderDetailRepository.findByOrderId(order.getOrderId());
-                        return details.stream().map(detail -> {
-                            Map<String, Object> item = new HashMap<>();
-                            
-                            // Lấy thông tin dish
-                            Dish dish = dishRepository.findById(detail.getDishId()).orElse(null);
-                            
-                            item.put("orderDetailId", detail.getOrderDetailId());
-                            item.put("dishId", detail.getDishId());
-                            item.put("dishName", dish != null ? dish.getDishName() : "Unknown");
-                            item.put("quantity", detail.getQuantity());
-                            item.put("unitPrice", detail.getUnitPrice());
-                            item.put("imageUrl", dish != null ? dish.getImageUrl() : null);
-                            item.put("status", getStatusName(detail.getStatusId()).toLowerCase());
-                            item.put("orderStatus", getStatusName(detail.getStatusId()).toLowerCase());
-                            item.put("notes", detail.getNotes());
-                            
-                            return item;
-                        });
-                    })
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            System.err.println("Error fetching active order items for table " + tableId + ": " + e.getMessage());
-            return List.of(); // Trả về danh sách rỗng nếu có lỗi
+        BigDecimal submitted = batch.subTotal();
+        // Bàn chưa có order Pending: tạo order với tổng tiền của giỏ luôn, không cần UPDATE sau đó
+        Order newOrder = new Order();
+        newOrder.setOrderType("DINEIN");
+        newOrder.setTableId(tableId);
+        newOrder.setStatusId(1); // Pending
+        newOrder.setSubTotal(submitted);
+        newOrder.setDiscountAmount(BigDecimal.ZERO);
+        newOrder.setFinalTotal(submitted);
+        newOrder.setCreatedAt(LocalDateTime.now());
+        newOrder.setIsRefunded(0);
+        Order order = pendingTableOrders.findOrOpen(tableId, () -> newOrder);
+        if (order != newOrder) {
+            adjustOrderTotals(order, submitted);
+        }
+        orderLineWriter.write(order.getOrderId(), batch);
+
+        return new QrOrderReceipt(order.getOrderId(), tableId, submitted,
+                order.getSubTotal(), order.getFinalTotal(), receipt);
+    }
+
+    // Món như trên menu (món tạo sau lần build menu gần nhất thì lấy từ batch), phải còn bán
+    private MenuDish availableDish(OrderLineBatch batch, Integer dishId) {
+        MenuDish dish = menuSnapshot.dish(dishId)
+                .or(() -> batch.dish(dishId).map(MenuDish::of))
+                .orElseThrow(() -> new ResourceNotFoundException("Dish", "id", dishId));
+        if (!dish.available()) {
+            throw new IllegalStateException("Dish " + dish.dishName() + " is not available");
         }
+        return dish;
+    }
+
+    private static void addQrLine(OrderLineBatch batch, List<QrOrderReceipt.Line> receipt, Integer dishId,
+                                  Integer comboId, String dishName, int quantity, BigDecimal unitPrice, String notes) {
+        OrderDetail detail = new OrderDetail();
+        detail.setDishId(dishId);
+        detail.setComboId(comboId);
+        detail.setQuantity(quantity);
+        detail.setUnitPrice(unitPrice);
+        detail.setStatusId(1); // Pending
+        detail.setNotes(notes);
+        detail.setIsRefunded(0);
+        batch.add(detail);
+        receipt.add(new QrOrderReceipt.Line(dishId, comboId, dishName, quantity, unitPrice));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TableOrderItemDto> getActiveOrderItemsByTable(Integer tableId) {
+        // Một query cho mọi order đang active của bàn (status = 1 hoặc 2), cache ngắn theo bàn
+        return tableOrderItemsCache.get(tableId);
     }
 
     // ====== EXISTING METHODS ======
@@ -157,12 +249,16 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public OrderDetail addOrderDetail(OrderDetail orderDetail) {
-        return orderDetailRepository.save(orderDetail);
+        OrderDetail saved = orderDetailRepository.save(orderDetail);
+        eventPublisher.publishEvent(KitchenOrderChangedEvent.linesChanged(List.of(saved.getOrderDetailId())));
+        return saved;
     }
 
     @Override
     public OrderDetail updateOrderDetail(OrderDetail orderDetail) {
-        return orderDetailRepository.save(orderDetail);
+        OrderDetail saved = orderDetailRepository.save(orderDetail);
+        eventPublisher.publishEvent(KitchenOrderChangedEvent.linesChanged(List.of(saved.getOrderDetailId())));
+        return saved;
     }
 
     @Override
@@ -172,7 +268,7 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public List<OrderDto> getUnpaidOrders() {
-        OrderStatus pending = statusRepo.findByStatusName("Pending")
+        OrderStatus pending = referenceData.orderStatus("Pending")
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND, "Pending status not found"));
 
@@ -186,15 +282,29 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public void cancelOrderDetail(Integer orderDetailId) {
+        updateOrderDetailStatus(orderDetailId, 4); // Cancelled
+    }
+
+    /**
+     * Moves a line to another status and shifts the order's totals by what that changes: a
+     * cancelled line leaves the total, a line brought back from Cancelled counts again, and
+     * any other move (Pending, Processing, Completed) changes nothing.
+     */
+    @Override
+    public void updateOrderDetailStatus(Integer orderDetailId, Integer statusId) {
         OrderDetail detail = orderDetailRepository.findById(orderDetailId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order detail not found"));
-        detail.setStatusId(4); // Cancelled
+        BigDecimal before = lineTotal(detail);
+        detail.setStatusId(statusId);
         orderDetailRepository.save(detail);
-        
-        // Cập nhật lại tổng tiền của order
-        Order order = orderRepository.findById(detail.getOrderId())
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
-        updateOrderTotals(order);
+        eventPublisher.publishEvent(KitchenOrderChangedEvent.linesChanged(List.of(orderDetailId)));
+
+        BigDecimal delta = lineTotal(detail).subtract(before);
+        if (delta.signum() != 0) {
+            Order order = orderRepository.findById(detail.getOrderId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+            adjustOrderTotals(order, delta);
+        }
     }
 
     private OrderDto mapToDto(Order order) {
@@ -217,10 +327,17 @@ public class OrderServiceImpl implements OrderService {
     public OrderDetail replaceOrderDetail(Integer orderDetailId, OrderDetail newOrderDetail) {
         OrderDetail detail = orderDetailRepository.findById(orderDetailId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order detail not found"));
+        BigDecimal before = lineTotal(detail);
         detail.setQuantity(newOrderDetail.getQuantity());
         detail.setUnitPrice(newOrderDetail.getUnitPrice());
         detail.setNotes(newOrderDetail.getNotes());
-        return orderDetailRepository.save(detail);
+        OrderDetail saved = orderDetailRepository.save(detail);
+        eventPublisher.publishEvent(KitchenOrderChangedEvent.linesChanged(List.of(orderDetailId)));
+
+        Order order = orderRepository.findById(detail.getOrderId())
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        adjustOrderTotals(order, lineTotal(saved).subtract(before));
+        return saved;
     }
 
     @Override
@@ -242,133 +359,179 @@ public class OrderServiceImpl implements OrderService {
     @Override
     public TableOrderResponse addTableOrderItem(TableOrderRequest request) {
         Order order = findOrCreatePendingOrder(request.getTableId());
-        OrderItemRequest item = request.getItem();
-
-        if (item.getComboId() != null) {
-            // Lấy danh sách các món trong combo
-            List<ComboItem> comboItems = comboItemRepository.findByComboId(item.getComboId());
-            BigDecimal comboPricePerUnit = item.getUnitPrice();
-            
-            // Tính giá cho mỗi món trong combo dựa trên tỷ lệ
-            int totalQuantityInCombo = comboItems.stream()
-                .mapToInt(ComboItem::getQuantity)
-                .sum();
-                
-            for (ComboItem comboItem : comboItems) {
+        List<OrderDetail> details = new ArrayList<>(orderDetailRepository.findByOrderId(order.getOrderId()));
+        OrderLineBatch batch = writeOrderItems(order, List.of(request.getItem()));
+        details.addAll(batch.getLines());
+        adjustOrderTotals(order, batch.subTotal());
+        return convertToTableOrderResponse(order, details);
+    }
+
+    @Override
+    public Order addOrderItems(Integer orderId, List<OrderItemRequest> items) {
+        // Cùng khóa bàn với thanh toán và các lần gọi món khác của bàn, rồi mới đọc order
+        Optional<Integer> tableId = orderRepository.findTableIdByOrderId(orderId);
+        tableId.ifPresent(pendingTableOrders::lock);
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        if (!Integer.valueOf(1).equals(order.getStatusId())) {
+            // Order đã thanh toán/hủy giữa lúc tạo và lúc ghi món: món vào order đang mở của bàn
+            if (tableId.isEmpty()) {
+                throw new IllegalStateException("Order " + orderId + " is no longer pending");
+            }
+            order = findOrCreatePendingOrder(tableId.get());
+        }
+        adjustOrderTotals(order, writeOrderItems(order, items).subTotal());
+        return order;
+    }
+
+    // Ghi các dòng mới; batch.subTotal() là phần tiền chúng cộng thêm vào order
+    private OrderLineBatch writeOrderItems(Order order, List<OrderItemRequest> items) {
+        OrderLineBatch batch = orderLineWriter.prepare(
+                items.stream().filter(item -> item.getComboId() == null).map(OrderItemRequest::getDishId).toList(),
+                items.stream().map(OrderItemRequest::getComboId).toList());
+
+        for (OrderItemRequest item : items) {
+            if (item.getComboId() != null) {
+                // Lấy danh sách các món trong combo
+                ComboDefinition combo = batch.combo(item.getComboId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Combo", "id", item.getComboId()));
+
+                // Giá combo (giá gửi lên, mặc định giá combo) chia sẵn cho từng món
+                for (ComboCatalog.Line line : combo.lines(item.getUnitPrice())) {
+                    OrderDetail detail = new OrderDetail();
+                    detail.setOrderId(order.getOrderId());
+                    detail.setDishId(line.dishId());
+                    detail.setComboId(item.getComboId()); // Thêm ComboId
+                    detail.setQuantity(item.getQuantity() * line.quantity());
+                    detail.setUnitPrice(line.unitPrice());
+                    detail.setStatusId(1); // Pending
+                    detail.setNotes("Combo: " + item.getNotes());
+                    detail.setIsRefunded(0); // Thêm IsRefunded
+                    batch.add(detail);
+                }
+            } else {
+                // Xử lý món đơn lẻ như trước
+                Dish dish = batch.dish(item.getDishId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Dish", "id", item.getDishId()));
                 OrderDetail detail = new OrderDetail();
                 detail.setOrderId(order.getOrderId());
-                detail.setDishId(comboItem.getDishId());
-                detail.setComboId(item.getComboId()); // Thêm ComboId
-                detail.setQuantity(item.getQuantity() * comboItem.getQuantity());
-                
-                // Tính giá cho từng món trong combo
-                BigDecimal ratio = BigDecimal.valueOf(comboItem.getQuantity())
-                    .divide(BigDecimal.valueOf(totalQuantityInCombo), 2, BigDecimal.ROUND_HALF_UP);
-                detail.setUnitPrice(comboPricePerUnit.multiply(ratio));
-                
+                detail.setDishId(dish.getDishId());
+                detail.setQuantity(item.getQuantity());
+                detail.setUnitPrice(item.getUnitPrice() != null ? item.getUnitPrice() : dish.getPrice());
                 detail.setStatusId(1); // Pending
-                detail.setNotes("Combo: " + item.getNotes());
-                detail.setIsRefunded(0); // Thêm IsRefunded
-                orderDetailRepository.save(detail);
+                detail.setNotes(item.getNotes());
+                detail.setIsRefunded(0);
+                batch.add(detail);
             }
-        } else {
-            // Xử lý món đơn lẻ như trước
-            OrderDetail detail = new OrderDetail();
-            detail.setOrderId(order.getOrderId());
-            detail.setDishId(item.getDishId());
-            detail.setQuantity(item.getQuantity());
-            detail.setUnitPrice(item.getUnitPrice());
-            detail.setStatusId(1); // Pending
-            detail.setNotes(item.getNotes());
-            detail.setIsRefunded(0);
-            orderDetailRepository.save(detail);
         }
 
-        updateOrderTotals(order);
-        return convertToTableOrderResponse(order);
+        orderLineWriter.write(order.getOrderId(), batch);
+        return batch;
     }
 
     @Override
     public TableOrderResponse updateTableOrderItem(Integer tableId, Integer dishId, Integer quantity) {
-        List<Order> pendingOrders = orderRepository.findPendingOrdersByTableId(tableId);
-        if (pendingOrders.isEmpty()) {
-            throw new ResourceNotFoundException("No pending order found");
-        }
-        Order order = pendingOrders.get(0); // Get most recent order
+        Order order = pendingTableOrders.find(tableId)
+                .orElseThrow(() -> new ResourceNotFoundException("No pending order found"));
 
-        OrderDetail detail = orderDetailRepository.findByOrderIdAndDishId(order.getOrderId(), dishId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order item not found"));
+        List<OrderDetail> details = orderDetailRepository.findByOrderId(order.getOrderId());
+        OrderDetail detail = findLine(details, dishId);
 
+        BigDecimal before = lineTotal(detail);
         detail.setQuantity(quantity);
         orderDetailRepository.save(detail);
-        updateOrderTotals(order);
+        eventPublisher.publishEvent(KitchenOrderChangedEvent.linesChanged(List.of(detail.getOrderDetailId())));
+        adjustOrderTotals(order, lineTotal(detail).subtract(before));
 
-        return convertToTableOrderResponse(order);
+        return convertToTableOrderResponse(order, details);
     }
 
     @Override
     public TableOrderResponse removeTableOrderItem(Integer tableId, Integer dishId) {
-        List<Order> pendingOrders = orderRepository.findPendingOrdersByTableId(tableId);
-        if (pendingOrders.isEmpty()) {
-            throw new ResourceNotFoundException("No pending order found");
-        }
-        Order order = pendingOrders.get(0); // Get most recent order
+        Order order = pendingTableOrders.find(tableId)
+                .orElseThrow(() -> new ResourceNotFoundException("No pending order found"));
 
-        OrderDetail detail = orderDetailRepository.findByOrderIdAndDishId(order.getOrderId(), dishId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order item not found"));
+        List<OrderDetail> details = new ArrayList<>(orderDetailRepository.findByOrderId(order.getOrderId()));
+        OrderDetail detail = findLine(details, dishId);
 
         orderDetailRepository.delete(detail);
-        updateOrderTotals(order);
+        details.remove(detail);
+        eventPublisher.publishEvent(KitchenOrderChangedEvent.linesRemoved(List.of(detail.getOrderDetailId())));
+        adjustOrderTotals(order, lineTotal(detail).negate());
+
+        return convertToTableOrderResponse(order, details);
+    }
 
-        return convertToTableOrderResponse(order);
+    // Dòng của món trong các dòng đã load của order, để response dùng lại đúng lần load đó
+    private OrderDetail findLine(List<OrderDetail> details, Integer dishId) {
+        return details.stream()
+                .filter(detail -> dishId.equals(detail.getDishId()))
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Order item not found"));
     }
 
     @Override
     public void cancelTableOrder(Integer tableId) {
-        List<Order> pendingOrders = orderRepository.findPendingOrdersByTableId(tableId);
-        if (!pendingOrders.isEmpty()) {
-            Order order = pendingOrders.get(0); // Get most recent order
+        pendingTableOrders.find(tableId).ifPresent(order -> {
             order.setStatusId(4); // Cancelled
             orderRepository.save(order);
-        }
+        });
     }
 
+    // Khóa bàn đến hết transaction: nhiều máy cùng bàn gọi món một lúc vẫn chỉ có một order Pending
     private Order findOrCreatePendingOrder(Integer tableId) {
-        List<Order> pendingOrders = orderRepository.findPendingOrdersByTableId(tableId);
-        
-        if (!pendingOrders.isEmpty()) {
-            // Lấy order mới nhất (đã được sắp xếp theo createdAt DESC)
-            return pendingOrders.get(0);
-        }
-
-        // Tạo order mới nếu không tìm thấy
-        Order newOrder = new Order();
-        newOrder.setOrderType("DINEIN");
-        newOrder.setTableId(tableId);
-        newOrder.setStatusId(1); // Pending
-        newOrder.setSubTotal(BigDecimal.ZERO);
-        newOrder.setDiscountAmount(BigDecimal.ZERO);
-        newOrder.setFinalTotal(BigDecimal.ZERO);
-        newOrder.setCreatedAt(LocalDateTime.now());
-        newOrder.setIsRefunded(0);
-        return orderRepository.save(newOrder);
+        return pendingTableOrders.findOrOpen(tableId, () -> {
+            // Tạo order mới nếu không tìm thấy
+            Order newOrder = new Order();
+            newOrder.setOrderType("DINEIN");
+            newOrder.setTableId(tableId);
+            newOrder.setStatusId(1); // Pending
+            newOrder.setSubTotal(BigDecimal.ZERO);
+            newOrder.setDiscountAmount(BigDecimal.ZERO);
+            newOrder.setFinalTotal(BigDecimal.ZERO);
+            newOrder.setCreatedAt(LocalDateTime.now());
+            newOrder.setIsRefunded(0);
+            return newOrder;
+        });
     }
 
-    private void updateOrderTotals(Order order) {
-        List<OrderDetail> details = orderDetailRepository.findByOrderId(order.getOrderId());
-        BigDecimal subTotal = details.stream()
-                .filter(detail -> detail.getStatusId() != 4) // Chỉ tính các món không bị hủy
-                .map(detail -> detail.getUnitPrice().multiply(BigDecimal.valueOf(detail.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Adds the change of the order's lines to its SubTotal and FinalTotal in the current
+     * transaction, instead of re-reading and re-summing every line. The {@code @Version} on
+     * Order makes a concurrent change to the same order fail rather than overwrite the total;
+     * {@code OrderTotalsVerifier} re-sums open orders in bulk to catch drift.
+     */
+    private void adjustOrderTotals(Order order, BigDecimal delta) {
+        if (addToTotals(order, delta)) {
+            orderRepository.save(order);
+        }
+    }
 
+    // Cộng delta vào SubTotal/FinalTotal của order; false nếu không có gì thay đổi
+    static boolean addToTotals(Order order, BigDecimal delta) {
+        if (delta.signum() == 0) {
+            return false;
+        }
+        BigDecimal subTotal = order.getSubTotal().add(delta);
         order.setSubTotal(subTotal);
         order.setFinalTotal(subTotal.subtract(order.getDiscountAmount()));
-        orderRepository.save(order);
+        return true;
     }
 
-    private TableOrderResponse convertToTableOrderResponse(Order order) {
-        List<OrderDetail> details = orderDetailRepository.findByOrderId(order.getOrderId());
+    // Tiền một dòng đóng góp vào SubTotal: món đã hủy không tính
+    static BigDecimal lineTotal(OrderDetail detail) {
+        if (Integer.valueOf(4).equals(detail.getStatusId())) {
+            return BigDecimal.ZERO;
+        }
+        return detail.getUnitPrice().multiply(BigDecimal.valueOf(detail.getQuantity()));
+    }
 
+    /**
+     * Response for one add, update or remove: the order's new totals and all of its lines. The
+     * caller passes the lines it already loaded, with its own change applied, so the order is
+     * not read a second time.
+     */
+    private TableOrderResponse convertToTableOrderResponse(Order order, List<OrderDetail> details) {
         TableOrderResponse response = new TableOrderResponse();
         response.setOrderId(order.getOrderId());
         response.setTableId(order.getTableId());
@@ -395,12 +558,6 @@ public class OrderServiceImpl implements OrderService {
     }
 
     private String getStatusName(Integer statusId) {
-        switch (statusId) {
-            case 1: return "Pending";
-            case 2: return "Processing";
-            case 3: return "Done";
-            case 4: return "Cancelled";
-            default: return "Unknown";
-        }
+        return referenceData.orderStatusName(statusId).orElse("Unknown");
     }
 }
\ No newline at end of file
@@ -1,53 +1,67 @@
 package com.system.restaurant.management.service.serviceImpl;
 
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import com.system.restaurant.management.service.ExpiringTokenStore;
+import com.system.restaurant.management.service.MailOutbox;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.Map;
-import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class OtpService {
 
-    private final JavaMailSender mailSender;
-    private final Map<String, OtpEntry> cache = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final MailOutbox mailOutbox;
+    private final SecureRandom random = new SecureRandom();
+    private final ExpiringTokenStore<OtpEntry> otps;
+    // Số OTP đã gửi cho mỗi email trong cửa sổ otp.issue-window-minutes
+    private final ExpiringTokenStore<Integer> issued;
+    private final int maxIssuesPerWindow;
+    private final int maxVerifyAttempts;
+    private final long ttlMinutes;
 
-    public OtpService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public OtpService(MailOutbox mailOutbox,
+                      @Value("${otp.ttl-minutes:15}") long ttlMinutes,
+                      @Value("${otp.max-entries:10000}") int maxEntries,
+                      @Value("${otp.issue-window-minutes:15}") long issueWindowMinutes,
+                      @Value("${otp.max-issues-per-window:5}") int maxIssuesPerWindow,
+                      @Value("${otp.max-verify-attempts:5}") int maxVerifyAttempts) {
+        this.mailOutbox = mailOutbox;
+        this.ttlMinutes = ttlMinutes;
+        this.otps = new ExpiringTokenStore<>(Duration.ofMinutes(ttlMinutes), maxEntries);
+        this.issued = new ExpiringTokenStore<>(Duration.ofMinutes(issueWindowMinutes), maxEntries);
+        this.maxIssuesPerWindow = maxIssuesPerWindow;
+        this.maxVerifyAttempts = maxVerifyAttempts;
     }
 
     public void generateAndSendOtp(String email) {
-        String otp = String.format("%06d", new Random().nextInt(1_000_000));
-        Instant expires = Instant.now().plus(15, ChronoUnit.MINUTES);
-        cache.put(email, new OtpEntry(otp, expires));
-        scheduler.schedule(() -> cache.remove(email), 15, TimeUnit.MINUTES);
-
-        SimpleMailMessage msg = new SimpleMailMessage();
-        msg.setTo(email);
-        msg.setSubject("Mã OTP đặt lại mật khẩu");
-        msg.setText("Mã OTP: " + otp + " (hết hạn 15 phút)");
-        mailSender.send(msg);
+        if (issued.merge(email, 1, Integer::sum) > maxIssuesPerWindow) {
+            throw new IllegalStateException("Bạn đã yêu cầu quá nhiều mã OTP, vui lòng thử lại sau");
+        }
+        String otp = String.format("%06d", random.nextInt(1_000_000));
+        otps.put(email, new OtpEntry(otp));
+
+        mailOutbox.enqueue(email, "Mã OTP đặt lại mật khẩu", "Mã OTP: " + otp + " (hết hạn " + ttlMinutes + " phút)");
     }
 
     public boolean validateOtp(String email, String otp) {
-        OtpEntry e = cache.get(email);
-        if (e == null || Instant.now().isAfter(e.expires)) return false;
-        boolean ok = e.otp.equals(otp);
-        if (ok) cache.remove(email);
-        return ok;
+        OtpEntry e = otps.get(email).orElse(null);
+        if (e == null) return false;
+        if (e.otp.equals(otp)) {
+            // remove(email, e): chỉ một request dùng được mã này
+            return otps.remove(email, e);
+        }
+        // Sai quá maxVerifyAttempts lần thì hủy mã, chống dò 6 chữ số
+        if (e.failedAttempts.incrementAndGet() >= maxVerifyAttempts) {
+            otps.remove(email, e);
+        }
+        return false;
     }
 
     private static class OtpEntry {
         final String otp;
-        final Instant expires;
-        OtpEntry(String otp, Instant expires) { this.otp = otp; this.expires = expires; }
+        final AtomicInteger failedAttempts = new AtomicInteger();
+        OtpEntry(String otp) { this.otp = otp; }
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,8 @@
 package com.system.restaurant.management.service.serviceImpl;
 
 import com.system.restaurant.management.entity.PaymentMethod;
-import com.system.restaurant.management.repository.PaymentMethodRepository;
 import com.system.restaurant.management.service.PaymentService;
+import com.system.restaurant.management.service.ReferenceDataRegistry;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -10,14 +10,14 @@ import java.util.List;
 @Service
 public class PaymentServiceImpl implements PaymentService {
 
-    private final PaymentMethodRepository paymentMethodRepository;
+    private final ReferenceDataRegistry referenceData;
 
-    public PaymentServiceImpl(PaymentMethodRepository paymentMethodRepository) {
-        this.paymentMethodRepository = paymentMethodRepository;
+    public PaymentServiceImpl(ReferenceDataRegistry referenceData) {
+        this.referenceData = referenceData;
     }
 
     @Override
     public List<PaymentMethod> getAllMethodNames() {
-        return paymentMethodRepository.findAll();
+        return referenceData.paymentMethods();
     }
 }
\ No newline at end of file
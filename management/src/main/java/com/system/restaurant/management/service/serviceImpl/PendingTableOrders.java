@@ -0,0 +1,133 @@
+package com.system.restaurant.management.service.serviceImpl;
+
+import com.system.restaurant.management.entity.Order;
+import com.system.restaurant.management.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * The open (Pending) order of a dine-in table. Every flow that puts items on a table's order
+ * (QR menu, waiter, reception) finds it here, so a table never has two Pending orders.
+ * <p>
+ * The table is locked before its order is looked up and stays locked until the transaction
+ * ends: of several phones at one table ordering at once, the first opens the order and the
+ * others wait, then add to it. Locks are striped by table id, so different tables only wait on
+ * each other when they share a stripe, and with {@link #STRIPES} stripes that never happens on
+ * a floor of up to {@link #STRIPES} consecutively numbered tables.
+ * <p>
+ * A request waits for the lock inside its transaction, so every waiter holds a pooled
+ * connection. At most {@code order.table-lock.max-waiters} requests wait on a stripe; any
+ * more fail at once with a 409 instead of parking more connections. A burst at one table
+ * then takes at most max-waiters + 1 connections, and the rest of the pool stays free for
+ * other tables.
+ * <p>
+ * The lock only covers this instance. UX_Orders_PendingTable (V8) makes the database reject a
+ * second Pending order opened from another instance; that request fails with a 409 like any
+ * other concurrent update and can be retried.
+ */
+@Service
+@RequiredArgsConstructor
+public class PendingTableOrders {
+
+    static final int STRIPES = 64;
+    private static final String PENDING_TABLE_INDEX = "UX_Orders_PendingTable";
+
+    private final OrderRepository orderRepository;
+
+    private final ReentrantLock[] locks = newLocks();
+    private final AtomicIntegerArray waiters = new AtomicIntegerArray(STRIPES);
+
+    @Value("${order.table-lock.timeout-ms:5000}")
+    private long lockTimeoutMs;
+
+    @Value("${order.table-lock.max-waiters:4}")
+    private int maxWaiters;
+
+    /** Locks the table for the rest of the transaction and returns its Pending order, if any. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Order> find(Integer tableId) {
+        lock(tableId);
+        List<Order> pendingOrders = orderRepository.findPendingOrdersByTableId(tableId);
+        // Sắp xếp theo createdAt DESC: order mới nhất
+        return pendingOrders.stream().findFirst();
+    }
+
+    /**
+     * Locks the table for the rest of the transaction and returns its Pending order, saving
+     * {@code newOrder} as that order when the table has none.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Order findOrOpen(Integer tableId, Supplier<Order> newOrder) {
+        Optional<Order> pending = find(tableId);
+        if (pending.isPresent()) {
+            return pending.get();
+        }
+        try {
+            return orderRepository.saveAndFlush(newOrder.get());
+        } catch (DataIntegrityViolationException e) {
+            // Instance khác vừa mở order cho bàn này
+            if (String.valueOf(e.getMostSpecificCause().getMessage()).contains(PENDING_TABLE_INDEX)) {
+                throw new ConcurrencyFailureException("Table " + tableId + " already has a pending order", e);
+            }
+            throw e;
+        }
+    }
+
+    /** Locks the table for the rest of the transaction, e.g. to pay its order without a line slipping in. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lock(Integer tableId) {
+        int stripe = Math.floorMod(tableId, STRIPES);
+        ReentrantLock lock = locks[stripe];
+        if (!lock.tryLock()) {
+            await(lock, stripe, tableId);
+        }
+        // Nhả khóa sau khi commit/rollback: request sau đọc được order vừa tạo
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    // Mỗi request chờ giữ một connection: hàng chờ đầy thì trả 409 ngay
+    private void await(ReentrantLock lock, int stripe, Integer tableId) {
+        if (waiters.incrementAndGet(stripe) > maxWaiters) {
+            waiters.decrementAndGet(stripe);
+            throw new CannotAcquireLockException("Too many requests waiting for the order of table " + tableId);
+        }
+        try {
+            if (!lock.tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new CannotAcquireLockException("Timed out waiting for the order of table " + tableId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted waiting for the order of table " + tableId, e);
+        } finally {
+            waiters.decrementAndGet(stripe);
+        }
+    }
+
+    private static ReentrantLock[] newLocks() {
+        ReentrantLock[] locks = new ReentrantLock[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+}
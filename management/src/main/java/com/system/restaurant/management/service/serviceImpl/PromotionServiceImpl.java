@@ -3,6 +3,7 @@ package com.system.restaurant.management.service.serviceImpl;
 import com.system.restaurant.management.dto.ApplyPromotionRequest;
 import com.system.restaurant.management.dto.ApplyPromotionResponse;
 import com.system.restaurant.management.dto.PromotionRequestDto;
+import com.system.restaurant.management.dto.PromotionSuggestionResponse;
 import com.system.restaurant.management.entity.Customer;
 import com.system.restaurant.management.entity.Order;
 import com.system.restaurant.management.entity.PromoUsage;
@@ -11,8 +12,10 @@ import com.system.restaurant.management.repository.CustomerRepository;
 import com.system.restaurant.management.repository.OrderRepository;
 import com.system.restaurant.management.repository.PromoUsageRepository;
 import com.system.restaurant.management.repository.PromotionRepository;
+import com.system.restaurant.management.service.PromotionCatalog;
 import com.system.restaurant.management.service.PromotionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.*;
 import org.springframework.lang.Nullable;
@@ -20,9 +23,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.*;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,6 +36,7 @@ public class PromotionServiceImpl implements PromotionService {
      private final PromotionRepository promotionRepository;
      private final PromoUsageRepository promoUsageRepository;
      private final OrderRepository orderRepository;
+     private final PromotionCatalog promotionCatalog;
 
     @Override
     public Promotion create(PromotionRequestDto dto) {
@@ -79,29 +81,55 @@ public class PromotionServiceImpl implements PromotionService {
     }
 
     public List<Promotion> listValidPromotions(String phone) {
-        LocalDate today = LocalDate.now(ZoneId.of("Asia/Bangkok"));
-        return promotionRepository.findAll().stream()
-                .filter(p -> Boolean.TRUE.equals(p.getIsActive()))
-                .filter(p -> !today.isBefore(p.getStartDate()))
-                .filter(p -> !today.isAfter(p.getEndDate()))
-                .filter(p -> p.getUsageLimit() == null || p.getUsageLimit() > 0)
-                .sorted(Comparator.comparing(Promotion::getEndDate))
-                .toList();
+        return promotionCatalog.findValid();
     }
 
+    @Override
+    public Optional<PromotionSuggestionResponse> suggestBest(BigDecimal subTotal) {
+        return promotionCatalog.best(subTotal).map(s -> new PromotionSuggestionResponse(
+                s.promotion().getPromoCode(),
+                s.promotion().getPromoName(),
+                subTotal,
+                s.discount(),
+                subTotal.subtract(s.discount())));
+    }
 
+
+    /**
+     * Áp mã cho order mà không khóa hàng Promotions trong suốt giao dịch: mã và mức giảm được
+     * đọc từ DB (không dùng catalog, có thể cũ tới lần reload sau), lượt dùng được giữ bằng
+     * {@link PromotionRepository#reserveUsage} ở câu lệnh cuối cùng, câu này kiểm tra lại
+     * IsActive, hạn dùng và UsageLimit trên hàng, nên các lượt đổi cùng một mã chỉ tuần tự hóa
+     * trong khoảng UPDATE -> commit. Mã không còn dùng được thì ném lỗi và cả giao dịch
+     * (order, PromoUsage) được rollback.
+     * <p>
+     * Idempotent theo order: gửi lại cùng mã cho order đã áp trả về kết quả cũ, không trừ lượt;
+     * hai request đồng thời cho một order bị chặn bởi index duy nhất PromoUsage(OrderID).
+     */
     @Override
     @Transactional
     public ApplyPromotionResponse applyToOrder(ApplyPromotionRequest request) {
         Order order = orderRepository.findById(request.getOrderId())
                 .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Order not found"));
 
-        // 1) khóa hàng của promotion để trừ UsageLimit an toàn
-        Promotion promotion = promotionRepository.lockByPromoCode(request.getPromoCode())
+        // 1) order đã đổi mã rồi: cùng mã thì trả lại kết quả cũ
+        Optional<PromoUsage> redeemed = promoUsageRepository.findByOrderId(order.getOrderId());
+        if (redeemed.isPresent()) {
+            String code = redeemed.get().getPromo().getPromoCode();
+            if (!code.equalsIgnoreCase(request.getPromoCode().trim())) {
+                throw new ResponseStatusException(BAD_REQUEST, "Order already has a discount; remove/override first");
+            }
+            return new ApplyPromotionResponse(order.getOrderId(), code, order.getSubTotal(),
+                    order.getDiscountAmount(), order.getFinalTotal());
+        }
+
+        // Đọc hàng trong DB: catalog chỉ dùng để liệt kê và gợi ý mã
+        String code = request.getPromoCode().trim();
+        Promotion promotion = promotionRepository.findByPromoCodeIgnoreCase(code)
                 .orElseThrow(() -> new ResponseStatusException(NOT_FOUND, "Promotion code not found"));
 
-        // 2) các kiểm tra nghiệp vụ
-        LocalDate today = LocalDate.now(ZoneId.systemDefault());
+        // 2) các kiểm tra nghiệp vụ (ở đây chỉ để báo lỗi rõ ràng, reserveUsage mới là chốt)
+        LocalDate today = LocalDate.now(PromotionCatalog.ZONE);
         if (Boolean.FALSE.equals(promotion.getIsActive())) {
             throw new ResponseStatusException(BAD_REQUEST, "Promotion is inactive");
         }
@@ -122,29 +150,34 @@ public class PromotionServiceImpl implements PromotionService {
 
         // 3) tính discount (ưu tiên percent > 0, else fixed)
         BigDecimal subTotal = order.getSubTotal();
-        BigDecimal discount = computeDiscount(subTotal, promotion.getDiscountPercent(), promotion.getDiscountAmount());
+        BigDecimal discount = PromotionCatalog.discount(promotion, subTotal); // không vượt subtotal
         if (discount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new ResponseStatusException(BAD_REQUEST, "Promotion has no effective discount");
         }
-        if (discount.compareTo(subTotal) > 0) discount = subTotal; // không âm
 
-        // 4) cập nhật order
+        // 4) cập nhật order và ghi PromoUsage; flush ngay để index OrderID chặn request trùng
         order.setDiscountAmount(discount);
         order.setFinalTotal(subTotal.subtract(discount).max(BigDecimal.ZERO));
         orderRepository.save(order);
 
-        // 5) trừ usageLimit (nếu có giới hạn)
-        if (promotion.getUsageLimit() != null) {
-            promotion.setUsageLimit(promotion.getUsageLimit() - 1);
-        }
-        promotionRepository.save(promotion);
-
-        // 6) ghi PromoUsage
         PromoUsage usage = new PromoUsage();
-        usage.setPromo(promotion);
+        usage.setPromo(promotionRepository.getReferenceById(promotion.getPromoId()));
         usage.setPhone(order.getPhone()); // null cho khách vãng lai
+        usage.setOrderId(order.getOrderId());
         usage.setUsedAt(LocalDateTime.now());
-        promoUsageRepository.save(usage);
+        try {
+            promoUsageRepository.saveAndFlush(usage);
+        } catch (DataIntegrityViolationException ex) {
+            throw new ResponseStatusException(CONFLICT, "A promotion is already being applied to this order");
+        }
+
+        // 5) giữ lượt dùng sau cùng, kể cả mã không giới hạn: mã có thể vừa bị tắt/hết hạn
+        if (promotionRepository.reserveUsage(promotion.getPromoId(), today) == 0) {
+            throw new ResponseStatusException(BAD_REQUEST, "Promotion is no longer valid or its usage limit is reached");
+        }
+        if (promotion.getUsageLimit() != null) {
+            promotionCatalog.usageReserved(promotion.getPromoId());
+        }
 
         return new ApplyPromotionResponse(
                 order.getOrderId(),
@@ -170,16 +203,4 @@ public class PromotionServiceImpl implements PromotionService {
     private BigDecimal safe(BigDecimal v) {
         return v == null ? BigDecimal.ZERO : v;
     }
-
-    private BigDecimal computeDiscount(BigDecimal subTotal, BigDecimal percent, BigDecimal fixed) {
-        BigDecimal pct = percent == null ? BigDecimal.ZERO : percent;
-        BigDecimal fxd = fixed   == null ? BigDecimal.ZERO : fixed;
-
-        if (pct.compareTo(BigDecimal.ZERO) > 0) {
-            return subTotal
-                    .multiply(pct)
-                    .divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
-        }
-        return fxd.setScale(2, RoundingMode.HALF_UP);
-    }
 }
@@ -3,6 +3,8 @@ package com.system.restaurant.management.service.serviceImpl;
 import com.system.restaurant.management.dto.CreateTakeawayOrderRequest;
 import com.system.restaurant.management.entity.*;
 import com.system.restaurant.management.repository.*;
+import com.system.restaurant.management.service.ComboCatalog;
+import com.system.restaurant.management.service.ComboCatalog.ComboDefinition;
 import com.system.restaurant.management.service.PublicTakeawayService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -17,9 +19,7 @@ import java.time.LocalDateTime;
 public class PublicTakeawayServiceImpl implements PublicTakeawayService {
 
     private final OrderRepository orderRepo;
-    private final OrderDetailRepository orderDetailRepo;
-    private final DishRepository dishRepo;
-    private final ComboRepository comboRepo; // nếu có
+    private final OrderLineWriter orderLineWriter;
 
     @Override
     public Integer createTakeawayOrder(CreateTakeawayOrderRequest req) {
@@ -39,6 +39,10 @@ public class PublicTakeawayServiceImpl implements PublicTakeawayService {
 
         BigDecimal subTotal = BigDecimal.ZERO;
 
+        OrderLineBatch batch = orderLineWriter.prepare(
+                req.getItems().stream().map(CreateTakeawayOrderRequest.OrderItemDto::getDishId).toList(),
+                req.getItems().stream().map(CreateTakeawayOrderRequest.OrderItemDto::getComboId).toList());
+
         for (var it : req.getItems()) {
             Integer dishId  = it.getDishId();
             Integer comboId = it.getComboId();
@@ -51,7 +55,7 @@ public class PublicTakeawayServiceImpl implements PublicTakeawayService {
 
             // ===== MÓN LẺ =====
             if (dishId != null) {
-                Dish d = dishRepo.findById(dishId)
+                Dish d = batch.dish(dishId)
                         .orElseThrow(() -> new IllegalArgumentException("Dish not found: " + dishId));
 
                 OrderDetail od = new OrderDetail();
@@ -62,49 +66,37 @@ public class PublicTakeawayServiceImpl implements PublicTakeawayService {
                 od.setUnitPrice(d.getPrice());          // luôn lấy từ DB
                 od.setNotes(it.getNotes());
                 od.setStatusId(1);
-                orderDetailRepo.save(od);
+                batch.add(od);
 
                 subTotal = subTotal.add(d.getPrice().multiply(BigDecimal.valueOf(reqQty)));
                 continue;
             }
 
             // ===== COMBO =====
-            Combo combo = comboRepo.findByIdWithDetails(comboId)
+            ComboDefinition combo = batch.combo(comboId)
                     .orElseThrow(() -> new IllegalArgumentException("Combo not found: " + comboId));
 
-            if (combo.getComboItems() == null || combo.getComboItems().isEmpty()) {
+            if (combo.isEmpty()) {
                 throw new IllegalArgumentException("Combo không có món: " + comboId);
             }
 
-            boolean first = true; // dòng đầu gánh giá combo
-            for (var ci : combo.getComboItems()) {
-                Dish dish = ci.getDish();
-                if (dish == null) {
-                    throw new IllegalStateException("ComboItem thiếu dish trong combo " + comboId);
-                }
-                int perComboQty = (ci.getQuantity() == null || ci.getQuantity() <= 0) ? 1 : ci.getQuantity();
-                int totalDishQty = perComboQty * reqQty;
-
+            // Giá combo đã được chia sẵn cho từng món (ComboCatalog), tổng các dòng đúng bằng giá combo
+            for (ComboCatalog.Line line : combo.lines()) {
                 OrderDetail od = new OrderDetail();
                 od.setOrderId(order.getOrderId());
-                od.setDishId(dish.getDishId());         // bắt buộc có DishID
-                od.setComboId(combo.getComboId());      // lưu dấu vết thuộc combo
-                od.setQuantity(totalDishQty);
-                od.setNotes(((it.getNotes() != null) ? it.getNotes() + " | " : "") + "Thuộc combo " + combo.getComboName());
+                od.setDishId(line.dishId());            // bắt buộc có DishID
+                od.setComboId(combo.comboId());         // lưu dấu vết thuộc combo
+                od.setQuantity(line.quantity() * reqQty);
+                od.setNotes(((it.getNotes() != null) ? it.getNotes() + " | " : "") + "Thuộc combo " + combo.comboName());
                 od.setStatusId(1);
-
-                if (first) {
-                    od.setUnitPrice(combo.getPrice());  // chỉ dòng đầu có giá combo
-                    subTotal = subTotal.add(combo.getPrice().multiply(BigDecimal.valueOf(reqQty)));
-                    first = false;
-                } else {
-                    od.setUnitPrice(BigDecimal.ZERO);   // các dòng còn lại 0đ
-                }
-
-                orderDetailRepo.save(od);
+                od.setUnitPrice(line.unitPrice());
+                batch.add(od);
             }
+            subTotal = subTotal.add(combo.price().multiply(BigDecimal.valueOf(reqQty)));
         }
 
+        orderLineWriter.write(order.getOrderId(), batch);
+
 // cập nhật tổng tiền
         order.setSubTotal(subTotal);
         order.setFinalTotal(subTotal);
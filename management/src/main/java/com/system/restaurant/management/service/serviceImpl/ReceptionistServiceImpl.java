@@ -3,6 +3,9 @@ package com.system.restaurant.management.service.serviceImpl;
 import com.system.restaurant.management.dto.*;
 import com.system.restaurant.management.entity.*;
 import com.system.restaurant.management.repository.*;
+import com.system.restaurant.management.service.ComboCatalog;
+import com.system.restaurant.management.service.ComboCatalog.ComboDefinition;
+import com.system.restaurant.management.service.MailOutbox;
 import com.system.restaurant.management.service.ReceptionistService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
@@ -14,8 +17,8 @@ import org.springframework.transaction.annotation.Transactional;
 import com.system.restaurant.management.dto.OrderDetailDTO;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -34,8 +37,12 @@ public class ReceptionistServiceImpl implements ReceptionistService {
     private final UserRepository userRepo;
     private final OrderRepository orderRepository;
     private final OrderDetailRepository orderDetailRepository;
-    private final DishRepository dishRepo;
-    private final ComboRepository comboRepo;
+    private final OrderLineWriter orderLineWriter;
+    private final PendingTableOrders pendingTableOrders;
+    private final RevenueRollupWriter revenueRollupWriter;
+    private final MailOutbox mailOutbox;
+
+    private static final DateTimeFormatter REMINDER_TIME = DateTimeFormatter.ofPattern("HH:mm dd/MM/yyyy");
 
     @PersistenceContext
     private EntityManager em;
@@ -53,8 +60,8 @@ public class ReceptionistServiceImpl implements ReceptionistService {
             throw new IllegalStateException("Table must be OCCUPIED to place an order");
         }
 
-        // Create new order
-        Order order = Order.builder()
+        // Create new order (bàn đã có order Pending thì gọi thêm vào order đó)
+        Order order = pendingTableOrders.findOrOpen(request.getTableId(), () -> Order.builder()
                 .orderType("DINEIN")
                 .tableId(request.getTableId())
                 .statusId(1) // Pending
@@ -62,17 +69,15 @@ public class ReceptionistServiceImpl implements ReceptionistService {
                 .discountAmount(BigDecimal.ZERO)
                 .finalTotal(BigDecimal.ZERO)
                 .createdAt(LocalDateTime.now())
-                .build();
-        
-        order = orderRepo.save(order);
+                .build());
 
         // Create order details with proper price calculation for combos
         List<OrderDetail> details = createOrderDetails(request.getItems(), order);
-        BigDecimal subTotal = calculateOrderSubTotal(details);
+        BigDecimal subTotal = order.getSubTotal().add(calculateOrderSubTotal(details));
         
         // Update order totals
         order.setSubTotal(subTotal);
-        order.setFinalTotal(subTotal);
+        order.setFinalTotal(subTotal.subtract(order.getDiscountAmount()));
         return orderRepo.save(order);
     }
 
@@ -81,49 +86,21 @@ public class ReceptionistServiceImpl implements ReceptionistService {
             throw new IllegalArgumentException("Order must have at least one item");
         }
 
-        List<OrderDetail> allDetails = new ArrayList<>();
+        OrderLineBatch batch = orderLineWriter.prepare(
+                items.stream().filter(item -> !Boolean.TRUE.equals(item.getIsCombo())).map(OrderItemRequest::getDishId).toList(),
+                items.stream().filter(item -> Boolean.TRUE.equals(item.getIsCombo())).map(OrderItemRequest::getComboId).toList());
 
         for (OrderItemRequest item : items) {
             if (item.getComboId() != null && Boolean.TRUE.equals(item.getIsCombo())) {
                 // Xử lý combo
-                Combo combo = comboRepo.findById(item.getComboId())
+                ComboDefinition combo = batch.combo(item.getComboId())
                         .orElseThrow(() -> new EntityNotFoundException("Combo not found: " + item.getComboId()));
-                
-                // Calculate individual dish price based on combo price proportion
-                BigDecimal comboPricePerUnit = combo.getPrice().divide(BigDecimal.valueOf(item.getQuantity()));
-                BigDecimal totalComboItemQuantity = BigDecimal.valueOf(
-                    combo.getComboItems().stream()
-                        .mapToInt(ComboItem::getQuantity)
-                        .sum()
-                );
-                
-                // Tạo một order detail cho mỗi món trong combo
-                for (ComboItem comboItem : combo.getComboItems()) {
-                    // Tìm dish tương ứng để lấy thông tin
-                    Dish comboDish = dishRepo.findById(comboItem.getDishId())
-                            .orElseThrow(() -> new EntityNotFoundException("Dish not found: " + comboItem.getDishId()));
-
-                    // Calculate this dish's proportion of the combo price
-                    BigDecimal dishProportion = BigDecimal.valueOf(comboItem.getQuantity())
-                            .divide(totalComboItemQuantity, 2, RoundingMode.HALF_UP);
-                    BigDecimal adjustedUnitPrice = comboPricePerUnit.multiply(dishProportion);
-
-                    OrderDetail comboDetail = OrderDetail.builder()
-                            .orderId(order.getOrderId())
-                            .dishId(comboDish.getDishId())
-                            .comboId(combo.getComboId())
-                            .quantity(comboItem.getQuantity() * item.getQuantity())
-                            .statusId(1) // Pending
-                            .isRefunded(0)
-                            .notes(item.getNotes() != null ? item.getNotes() + " (Từ combo: " + combo.getComboName() + ")" : "(Từ combo: " + combo.getComboName() + ")")
-                            .unitPrice(adjustedUnitPrice)
-                            .build();
-                    
-                    allDetails.add(orderDetailRepository.save(comboDetail));
-                }
+
+                // Giá combo đã được chia sẵn cho từng món, giống luồng của waiter
+                WaiterServiceImpl.comboLines(combo, item, order.getOrderId()).forEach(batch::add);
             } else if (item.getDishId() != null && !Boolean.TRUE.equals(item.getIsCombo())) {
                 // Xử lý món lẻ
-                Dish dish = dishRepo.findById(item.getDishId())
+                Dish dish = batch.dish(item.getDishId())
                         .orElseThrow(() -> new EntityNotFoundException("Dish not found: " + item.getDishId()));
                 
                 OrderDetail detail = OrderDetail.builder()
@@ -136,13 +113,14 @@ public class ReceptionistServiceImpl implements ReceptionistService {
                         .unitPrice(item.getUnitPrice() != null ? item.getUnitPrice() : dish.getPrice())
                         .build();
                 
-                allDetails.add(orderDetailRepository.save(detail));
+                batch.add(detail);
             } else {
                 throw new IllegalArgumentException("Either dishId or comboId must be provided");
             }
         }
 
-        return allDetails;
+        orderLineWriter.write(order.getOrderId(), batch);
+        return batch.getLines();
     }
 
     private BigDecimal calculateOrderSubTotal(List<OrderDetail> details) {
@@ -184,6 +162,10 @@ public class ReceptionistServiceImpl implements ReceptionistService {
         // 3) Lưu chi tiết: lấy giá từ DB, chỉ 1 trong 2: dishId hoặc comboId
         BigDecimal subTotal = BigDecimal.ZERO;
 
+        OrderLineBatch batch = orderLineWriter.prepare(
+                req.getItems().stream().map(CreateTakeawayOrderRequest.OrderItemDto::getDishId).toList(),
+                req.getItems().stream().map(CreateTakeawayOrderRequest.OrderItemDto::getComboId).toList());
+
         for (var it : req.getItems()) {
             Integer dishId  = it.getDishId();
             Integer comboId = it.getComboId();
@@ -196,7 +178,7 @@ public class ReceptionistServiceImpl implements ReceptionistService {
 
             // ===== MÓN LẺ =====
             if (dishId != null) {
-                Dish d = dishRepo.findById(dishId)
+                Dish d = batch.dish(dishId)
                         .orElseThrow(() -> new IllegalArgumentException("Không tìm thấy món id=" + dishId));
 
                 // CHỈNH: chuẩn hoá số lượng (mặc định 1 nếu null/<=0)
@@ -210,7 +192,7 @@ public class ReceptionistServiceImpl implements ReceptionistService {
                 od.setUnitPrice(d.getPrice());        // luôn lấy giá từ DB
                 od.setNotes(it.getNotes());
                 od.setStatusId(1);
-                orderDetailRepository.save(od);
+                batch.add(od);
 
                 subTotal = subTotal.add(d.getPrice().multiply(BigDecimal.valueOf(dishQty))); // CHỈNH: dùng dishQty
                 continue;
@@ -218,41 +200,29 @@ public class ReceptionistServiceImpl implements ReceptionistService {
 
             // ===== COMBO =====
             // Lấy combo kèm items + dish để bung
-            Combo combo = comboRepo.findByIdWithDetails(comboId)
+            ComboDefinition combo = batch.combo(comboId)
                     .orElseThrow(() -> new IllegalArgumentException("Không tìm thấy combo id=" + comboId));
 
-            if (combo.getComboItems() == null || combo.getComboItems().isEmpty()) {
+            if (combo.isEmpty()) {
                 throw new IllegalArgumentException("Combo không có món: " + comboId);
             }
 
-            boolean first = true;                     // dòng đầu gánh giá combo
-            for (var ci : combo.getComboItems()) {
-                Dish dish = ci.getDish();
-                if (dish == null) {
-                    throw new IllegalStateException("ComboItem thiếu dish trong combo " + comboId);
-                }
-                int perComboQty = (ci.getQuantity() == null || ci.getQuantity() <= 0) ? 1 : ci.getQuantity();
-                int totalDishQty = perComboQty * reqQty;
-
+            // Giá combo đã được chia sẵn cho từng món (ComboCatalog), tổng các dòng đúng bằng giá combo
+            for (ComboCatalog.Line line : combo.lines()) {
                 OrderDetail od = new OrderDetail();
                 od.setOrderId(order.getOrderId());
-                od.setDishId(dish.getDishId());       // bắt buộc có DishID
-                od.setComboId(combo.getComboId());    // lưu dấu vết thuộc combo
-                od.setQuantity(totalDishQty);
-                od.setNotes(((it.getNotes() != null) ? it.getNotes() + " | " : "") + "Thuộc combo " + combo.getComboName());
+                od.setDishId(line.dishId());            // bắt buộc có DishID
+                od.setComboId(combo.comboId());         // lưu dấu vết thuộc combo
+                od.setQuantity(line.quantity() * reqQty);
+                od.setNotes(((it.getNotes() != null) ? it.getNotes() + " | " : "") + "Thuộc combo " + combo.comboName());
                 od.setStatusId(1);
-
-                if (first) {
-                    od.setUnitPrice(combo.getPrice());                         // chỉ dòng đầu có giá combo
-                    subTotal = subTotal.add(combo.getPrice().multiply(BigDecimal.valueOf(reqQty)));
-                    first = false;
-                } else {
-                    od.setUnitPrice(BigDecimal.ZERO);                          // các dòng còn lại 0đ
-                }
-
-                orderDetailRepository.save(od);
+                od.setUnitPrice(line.unitPrice());
+                batch.add(od);
             }
+            subTotal = subTotal.add(combo.price().multiply(BigDecimal.valueOf(reqQty)));
         }
+        orderLineWriter.write(order.getOrderId(), batch);
+
         // 4) Cập nhật tổng tiền (giữ nguyên phần dưới)
         order.setSubTotal(subTotal);
         order.setFinalTotal(subTotal);
@@ -339,6 +309,7 @@ public class ReceptionistServiceImpl implements ReceptionistService {
 //        }
 
         Invoice invoice = Invoice.builder()
+                .orderId(order.getOrderId())
                 .order(order)
                 .subTotal(order.getSubTotal())
                 .discountAmount(order.getDiscountAmount())
@@ -347,7 +318,9 @@ public class ReceptionistServiceImpl implements ReceptionistService {
                 .issuedAt(LocalDateTime.now())
                 .build();
 
-        return invoiceRepo.save(invoice);
+        invoice = invoiceRepo.save(invoice);
+        revenueRollupWriter.invoiceIssued(invoice, order.getOrderType());
+        return invoice;
     }
 
 
@@ -362,9 +335,12 @@ public class ReceptionistServiceImpl implements ReceptionistService {
 
         Invoice invoice = invoiceRepo.findByOrderId(orderId)
                 .orElseThrow(() -> new EntityNotFoundException("Invoice not found"));
+        BigDecimal previousFinalTotal = invoice.getFinalTotal();
         invoice.setDiscountAmount(order.getDiscountAmount());
         invoice.setFinalTotal(order.getFinalTotal());
-        return invoiceRepo.save(invoice);
+        invoice = invoiceRepo.save(invoice);
+        revenueRollupWriter.invoiceTotalChanged(invoice, order.getOrderType(), previousFinalTotal);
+        return invoice;
     }
 
     @Override
@@ -376,6 +352,7 @@ public class ReceptionistServiceImpl implements ReceptionistService {
         method.setMethodId(req.getMethodId());
 
         PaymentRecord record = PaymentRecord.builder()
+                .invoiceId(invoice.getInvoiceId())
                 .invoice(invoice)
                 .methodId(method.getMethodId())
                 .amount(req.getAmount())
@@ -383,7 +360,11 @@ public class ReceptionistServiceImpl implements ReceptionistService {
                 .notes(req.getNotes())
                 .build();
 
-        return paymentRepo.save(record);
+        record = paymentRepo.save(record);
+        Order order = orderRepo.findById(orderId)
+                .orElseThrow(() -> new EntityNotFoundException("Order not found"));
+        revenueRollupWriter.paymentRecorded(invoice, order.getOrderType(), record);
+        return record;
     }
 
     @Override
@@ -433,16 +414,24 @@ public class ReceptionistServiceImpl implements ReceptionistService {
     public Notification sendReservationReminder(Integer reservationId) {
         Reservation r = reservationRepo.findById(reservationId)
                 .orElseThrow(() -> new EntityNotFoundException("Reservation not found"));
+        if (r.getEmail() == null || r.getEmail().isBlank()) {
+            throw new IllegalStateException("Reservation " + reservationId + " has no email");
+        }
 
-        Notification n = Notification.builder()
+        // Mail được xếp hàng, MailOutboxWorker gửi rồi cập nhật Status thành Sent / Failed
+        Notification n = notificationRepo.save(Notification.builder()
                 .reservationId(r.getReservationId())
                 .sentAt(LocalDateTime.now())
                 .channel("Email")
-                .status("Sent")
-                .notes("Reminder sent")
-                .build();
-
-        return notificationRepo.save(n);
+                .status("Queued")
+                .notes("Reminder queued")
+                .build());
+        mailOutbox.enqueue(r.getEmail(), "Nhắc lịch đặt bàn",
+                "Xin chào " + (r.getCustomerName() != null ? r.getCustomerName() : "quý khách") + ",\n"
+                        + "Nhà hàng xin nhắc lịch đặt bàn của bạn lúc "
+                        + r.getReservationAt().format(REMINDER_TIME) + ".",
+                n.getNotificationId());
+        return n;
     }
 
 }
\ No newline at end of file
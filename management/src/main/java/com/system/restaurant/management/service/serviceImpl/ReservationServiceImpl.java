@@ -6,6 +6,7 @@ import com.system.restaurant.management.entity.RestaurantTable;
 import com.system.restaurant.management.exception.ResourceNotFoundException;
 import com.system.restaurant.management.repository.ReservationRepository;
 import com.system.restaurant.management.service.ManageTableService;
+import com.system.restaurant.management.service.ReservationAvailabilityIndex;
 import com.system.restaurant.management.service.ReservationService;
 import com.system.restaurant.management.service.ReservationTimeValidator;
 import lombok.RequiredArgsConstructor;
@@ -13,8 +14,10 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Transactional
@@ -22,6 +25,7 @@ import java.util.List;
 public class ReservationServiceImpl implements ReservationService {
     private final ReservationRepository reservationRepository;
     private final ManageTableService manageTableService;
+    private final ReservationAvailabilityIndex reservationAvailabilityIndex;
 
     @Override
     public Reservation createReservation(CreateReservationRequest request) {
@@ -79,4 +83,14 @@ public class ReservationServiceImpl implements ReservationService {
         LocalDateTime endOfDay = startOfDay.plusDays(1);
         return reservationRepository.findByReservationAtBetween(startOfDay, endOfDay);
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<LocalDateTime, Integer> getAvailabilityGrid(LocalDate from, int days) {
+        LocalDate today = LocalDate.now();
+        if (from.isBefore(today) || days < 1 || from.plusDays(days).isAfter(today.plusDays(8))) {
+            throw new IllegalStateException("Availability is only available from today up to 7 days in advance");
+        }
+        return reservationAvailabilityIndex.grid(from, days);
+    }
+}
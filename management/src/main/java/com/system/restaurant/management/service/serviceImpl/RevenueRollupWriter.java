@@ -0,0 +1,73 @@
+package com.system.restaurant.management.service.serviceImpl;
+
+import com.system.restaurant.management.entity.Invoice;
+import com.system.restaurant.management.entity.PaymentRecord;
+import com.system.restaurant.management.entity.RevenueHourlyRollup;
+import com.system.restaurant.management.repository.PaymentRecordRepository;
+import com.system.restaurant.management.repository.RevenueRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Keeps RevenueHourlyRollup in step with invoice writes, inside the caller's transaction.
+ * <p>
+ * Each change is applied as a delta to a single (hour, payment method, order type) bucket.
+ * An invoice is counted under method 0 until its first payment is recorded, then moved to
+ * that payment's method, which matches how {@link RevenueRollupRepository#BUCKETS_SQL}
+ * recomputes buckets from raw invoices.
+ */
+@Service
+@RequiredArgsConstructor
+public class RevenueRollupWriter {
+
+    private final RevenueRollupRepository rollupRepository;
+    private final PaymentRecordRepository paymentRecordRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void invoiceIssued(Invoice invoice, String orderType) {
+        rollupRepository.addToBucket(bucketOf(invoice), RevenueHourlyRollup.UNPAID_METHOD_ID, orderType,
+                1, total(invoice.getFinalTotal()));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void paymentRecorded(Invoice invoice, String orderType, PaymentRecord payment) {
+        // Chỉ payment đầu tiên quyết định phương thức thanh toán của hóa đơn
+        boolean first = paymentRecordRepository.findFirstByInvoiceIdOrderByPaymentIdAsc(invoice.getInvoiceId())
+                .map(p -> p.getPaymentId().equals(payment.getPaymentId()))
+                .orElse(false);
+        if (!first) {
+            return;
+        }
+        BigDecimal amount = total(invoice.getFinalTotal());
+        LocalDateTime bucket = bucketOf(invoice);
+        rollupRepository.addToBucket(bucket, RevenueHourlyRollup.UNPAID_METHOD_ID, orderType, -1, amount.negate());
+        rollupRepository.addToBucket(bucket, payment.getMethodId(), orderType, 1, amount);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void invoiceTotalChanged(Invoice invoice, String orderType, BigDecimal previousFinalTotal) {
+        BigDecimal delta = total(invoice.getFinalTotal()).subtract(total(previousFinalTotal));
+        if (delta.signum() == 0) {
+            return;
+        }
+        Integer methodId = paymentRecordRepository.findFirstByInvoiceIdOrderByPaymentIdAsc(invoice.getInvoiceId())
+                .map(PaymentRecord::getMethodId)
+                .orElse(RevenueHourlyRollup.UNPAID_METHOD_ID);
+        rollupRepository.addToBucket(bucketOf(invoice), methodId, orderType, 0, delta);
+    }
+
+    private static LocalDateTime bucketOf(Invoice invoice) {
+        LocalDateTime issuedAt = invoice.getIssuedAt() != null ? invoice.getIssuedAt() : LocalDateTime.now();
+        return issuedAt.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private static BigDecimal total(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+}
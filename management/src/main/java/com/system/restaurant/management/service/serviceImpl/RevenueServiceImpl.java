@@ -1,33 +1,175 @@
 package com.system.restaurant.management.service.serviceImpl;
 
 import com.system.restaurant.management.dto.RevenueReportDto;
-import com.system.restaurant.management.repository.RevenueRepository;
+import com.system.restaurant.management.dto.RevenueRollupCheckDto;
+import com.system.restaurant.management.entity.RevenueHourlyRollup;
+import com.system.restaurant.management.repository.RevenueRollupRepository;
 import com.system.restaurant.management.service.RevenueService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
 
+/**
+ * Revenue reports answered from RevenueHourlyRollup, so each report reads one row per
+ * (hour, payment method, order type) instead of scanning Invoices.
+ */
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
+@Slf4j
 public class RevenueServiceImpl implements RevenueService {
-    private final RevenueRepository repo;
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final int MAX_REPORTED_MISMATCHES = 100;
+
+    private final RevenueRollupRepository rollupRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
 
     @Override
     public List<RevenueReportDto> getRevenueByShifts(LocalDate date) {
-        return repo.findByShifts(date);
+        // Ca 1: 00h-12h, ca 2: 12h-18h, ca 3: 18h-24h
+        Map<String, RevenueReportDto> shifts = new LinkedHashMap<>();
+        shifts.put("Shift 1: Morning", new RevenueReportDto("Shift 1: Morning", 0, BigDecimal.ZERO));
+        shifts.put("Shift 2: Afternoon", new RevenueReportDto("Shift 2: Afternoon", 0, BigDecimal.ZERO));
+        shifts.put("Shift 3: Evening", new RevenueReportDto("Shift 3: Evening", 0, BigDecimal.ZERO));
+
+        for (RevenueHourlyRollup bucket : buckets(date, date)) {
+            int hour = bucket.getId().getBucketStart().getHour();
+            String shift = hour < 12 ? "Shift 1: Morning" : hour < 18 ? "Shift 2: Afternoon" : "Shift 3: Evening";
+            add(shifts.get(shift), bucket);
+        }
+        return new ArrayList<>(shifts.values());
     }
 
     @Override
     public List<RevenueReportDto> getRevenueByDays(LocalDate fromDate, LocalDate toDate) {
-        return repo.findByDayRange(fromDate, toDate);
+        return group(fromDate, toDate, start -> start.toLocalDate().toString());
     }
 
     @Override
     public List<RevenueReportDto> getRevenueByMonths(LocalDate fromDate, LocalDate toDate) {
-        return repo.findByMonthRange(fromDate, toDate);
+        return group(fromDate, toDate, start -> start.format(MONTH));
+    }
+
+    @Override
+    @Transactional
+    public int rebuildRollup(LocalDate fromDate, LocalDate toDate) {
+        validateRange(fromDate, toDate);
+        LocalDateTime from = fromDate.atStartOfDay();
+        LocalDateTime to = toDate.plusDays(1).atStartOfDay();
+        rollupRepository.deleteRange(from, to);
+        int buckets = rollupRepository.rebuildRange(from, to);
+        log.info("Revenue rollup rebuilt for {} - {}: {} buckets", fromDate, toDate, buckets);
+        return buckets;
     }
-}
 
+    @Override
+    public RevenueRollupCheckDto checkRollup(LocalDate fromDate, LocalDate toDate) {
+        validateRange(fromDate, toDate);
+        Map<String, RevenueHourlyRollup> rollup = new HashMap<>();
+        for (RevenueHourlyRollup bucket : buckets(fromDate, toDate)) {
+            // Bucket rỗng còn lại sau khi hóa đơn chuyển sang phương thức thanh toán khác
+            if (bucket.getInvoiceCount() == 0 && bucket.getTotalRevenue().signum() == 0) {
+                continue;
+            }
+            rollup.put(key(bucket.getId().getBucketStart(), bucket.getId().getMethodId(), bucket.getId().getOrderType()), bucket);
+        }
+
+        Map<String, RevenueHourlyRollup> raw = new HashMap<>();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("fromTime", fromDate.atStartOfDay())
+                .addValue("toTime", toDate.plusDays(1).atStartOfDay());
+        jdbcTemplate.query(RevenueRollupRepository.BUCKETS_SQL, params, rs -> {
+            LocalDateTime start = rs.getObject("BucketStart", LocalDateTime.class);
+            int methodId = rs.getInt("MethodID");
+            String orderType = rs.getString("OrderType");
+            raw.put(key(start, methodId, orderType), RevenueHourlyRollup.builder()
+                    .invoiceCount(rs.getInt("InvoiceCount"))
+                    .totalRevenue(rs.getBigDecimal("TotalRevenue"))
+                    .build());
+        });
+
+        TreeSet<String> keys = new TreeSet<>(rollup.keySet());
+        keys.addAll(raw.keySet());
+        List<String> mismatches = new ArrayList<>();
+        for (String key : keys) {
+            RevenueHourlyRollup expected = raw.get(key);
+            RevenueHourlyRollup actual = rollup.get(key);
+            if (!sameBucket(expected, actual)) {
+                if (mismatches.size() < MAX_REPORTED_MISMATCHES) {
+                    mismatches.add(key + ": rollup " + describe(actual) + ", invoices " + describe(expected));
+                }
+            }
+        }
+        if (!mismatches.isEmpty()) {
+            log.warn("Revenue rollup differs from invoices for {} - {}: {}", fromDate, toDate, mismatches);
+        }
+
+        return RevenueRollupCheckDto.builder()
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .bucketsCompared(keys.size())
+                .consistent(mismatches.isEmpty())
+                .mismatches(mismatches)
+                .build();
+    }
+
+    private List<RevenueReportDto> group(LocalDate fromDate, LocalDate toDate,
+                                         Function<LocalDateTime, String> period) {
+        Map<String, RevenueReportDto> periods = new TreeMap<>();
+        for (RevenueHourlyRollup bucket : buckets(fromDate, toDate)) {
+            String name = period.apply(bucket.getId().getBucketStart());
+            add(periods.computeIfAbsent(name, p -> new RevenueReportDto(p, 0, BigDecimal.ZERO)), bucket);
+        }
+        return periods.values().stream()
+                .filter(dto -> dto.getInvoiceCount() > 0)
+                .toList();
+    }
+
+    private List<RevenueHourlyRollup> buckets(LocalDate fromDate, LocalDate toDate) {
+        return rollupRepository.findBuckets(fromDate.atStartOfDay(), toDate.plusDays(1).atStartOfDay());
+    }
+
+    private static void add(RevenueReportDto dto, RevenueHourlyRollup bucket) {
+        dto.setInvoiceCount(dto.getInvoiceCount() + bucket.getInvoiceCount());
+        dto.setTotalRevenue(dto.getTotalRevenue().add(bucket.getTotalRevenue()));
+    }
+
+    private static boolean sameBucket(RevenueHourlyRollup expected, RevenueHourlyRollup actual) {
+        if (expected == null || actual == null) {
+            return false;
+        }
+        return Objects.equals(expected.getInvoiceCount(), actual.getInvoiceCount())
+                && expected.getTotalRevenue().compareTo(actual.getTotalRevenue()) == 0;
+    }
+
+    private static String describe(RevenueHourlyRollup bucket) {
+        return bucket == null ? "none" : bucket.getInvoiceCount() + " / " + bucket.getTotalRevenue();
+    }
+
+    private static String key(LocalDateTime start, Integer methodId, String orderType) {
+        return start + " method=" + methodId + " type=" + orderType;
+    }
+
+    private static void validateRange(LocalDate fromDate, LocalDate toDate) {
+        if (fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("fromDate must not be after toDate");
+        }
+    }
+}
@@ -35,6 +35,11 @@ public class ShiftAttendanceServiceImpl implements ShiftAttendanceService {
 
         List<AttendanceRecord> records = attendanceRecordRepository.findAll();
 
+        return joinAttendance(shifts, records);
+    }
+
+    // Ghép ca làm với lần chấm công đầu tiên cùng user và cùng ngày
+    static List<ShiftAttendanceDTO> joinAttendance(List<WorkShift> shifts, List<AttendanceRecord> records) {
         Map<String, AttendanceRecord> recordMap = new HashMap<>();
         for (AttendanceRecord ar : records) {
             String key = ar.getUser().getId() + "_" + ar.getClockIn().toLocalDate();
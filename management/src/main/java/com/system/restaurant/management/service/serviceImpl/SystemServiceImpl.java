@@ -5,9 +5,11 @@ import com.system.restaurant.management.entity.Invoice;
 import com.system.restaurant.management.entity.KitchenTicket;
 import com.system.restaurant.management.entity.Notification;
 import com.system.restaurant.management.entity.Order;
+import com.system.restaurant.management.exception.ResourceNotFoundException;
 import com.system.restaurant.management.repository.InvoiceRepository;
 import com.system.restaurant.management.repository.KitchenTicketRepository;
 import com.system.restaurant.management.repository.NotificationRepository;
+import com.system.restaurant.management.repository.OrderRepository;
 import com.system.restaurant.management.service.SystemService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,21 +24,29 @@ public class SystemServiceImpl implements SystemService {
     private final InvoiceRepository invoiceRepo;
     private final NotificationRepository notifyRepo;
     private final KitchenTicketRepository ticketRepo;
+    private final OrderRepository orderRepo;
+    private final RevenueRollupWriter revenueRollupWriter;
 
     public SystemServiceImpl(InvoiceRepository invoiceRepo,
                            NotificationRepository notifyRepo,
-                           KitchenTicketRepository ticketRepo) {
+                           KitchenTicketRepository ticketRepo,
+                           OrderRepository orderRepo,
+                           RevenueRollupWriter revenueRollupWriter) {
         this.invoiceRepo = invoiceRepo;
         this.notifyRepo = notifyRepo;
         this.ticketRepo = ticketRepo;
+        this.orderRepo = orderRepo;
+        this.revenueRollupWriter = revenueRollupWriter;
     }
 
 
     public Invoice generateInvoice(Long orderId) {
-        Order order = new Order();
-        order.setOrderId(orderId.intValue());
+        // Cần OrderType của order để ghi vào bucket rollup
+        Order order = orderRepo.findById(orderId.intValue())
+                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
 
         Invoice inv = Invoice.builder()
+                .orderId(order.getOrderId())
                 .order(order)
                 .subTotal(BigDecimal.valueOf(0.0))
                 .discountAmount(BigDecimal.valueOf(0.0))
@@ -46,6 +56,7 @@ public class SystemServiceImpl implements SystemService {
                 .build();
 
         inv = invoiceRepo.save(inv);
+        revenueRollupWriter.invoiceIssued(inv, order.getOrderType());
 
         // nếu có tính điểm khách
         //pointsSvc.addPoints(order.getOrderId(), inv.getFinalTotal());
@@ -7,8 +7,8 @@ import com.system.restaurant.management.entity.Role;
 import com.system.restaurant.management.entity.User;
 import com.system.restaurant.management.exception.ResourceNotFoundException;
 import com.system.restaurant.management.repository.CustomerRepository;
-import com.system.restaurant.management.repository.RoleRepository;
 import com.system.restaurant.management.repository.UserRepository;
+import com.system.restaurant.management.service.ReferenceDataRegistry;
 import com.system.restaurant.management.service.UserService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
@@ -26,9 +26,9 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
     private static final int CUSTOMER_ROLE_ID = 5;
     private final CustomerRepository customerRepository;
+    private final ReferenceDataRegistry referenceData;
 
     @Override
     public User create(UserRequestDto dto) {
@@ -42,10 +42,7 @@ public class UserServiceImpl implements UserService {
         user.setCreatedAt(LocalDateTime.now());
 
         // Lấy danh sách role từ tên
-        Set<Role> roles = dto.getRoleNames().stream()
-                .map(name -> roleRepository.findByRoleName(name)
-                        .orElseThrow(() -> new ResourceNotFoundException("Role", "roleName", name)))
-                .collect(Collectors.toSet());
+        Set<Role> roles = resolveRoles(dto.getRoleNames());
 
         user.setRoles(roles);
 
@@ -114,10 +111,7 @@ public class UserServiceImpl implements UserService {
 
         // Cập nhật roles nếu có
         if (dto.getRoleNames() != null && !dto.getRoleNames().isEmpty()) {
-            Set<Role> roles = dto.getRoleNames().stream()
-                    .map(name -> roleRepository.findByRoleName(name)
-                            .orElseThrow(() -> new ResourceNotFoundException("Role", "roleName", name)))
-                    .collect(Collectors.toSet());
+            Set<Role> roles = resolveRoles(dto.getRoleNames());
             user.setRoles(roles);
         }
 
@@ -147,4 +141,12 @@ public class UserServiceImpl implements UserService {
     public boolean existsByUsername(String username) {
         return userRepository.existsByUsername(username);
     }
-}
\ No newline at end of file
+
+    // Role lấy từ registry (bản detached có id), UserRoles chỉ cần RoleID nên không truy vấn Roles
+    private Set<Role> resolveRoles(List<String> roleNames) {
+        return roleNames.stream()
+                .map(name -> referenceData.role(name)
+                        .orElseThrow(() -> new ResourceNotFoundException("Role", "roleName", name)))
+                .collect(Collectors.toSet());
+    }
+}
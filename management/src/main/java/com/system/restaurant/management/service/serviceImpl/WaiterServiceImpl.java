@@ -4,6 +4,10 @@ import com.system.restaurant.management.dto.*;
 import com.system.restaurant.management.entity.*;
 import com.system.restaurant.management.exception.ResourceNotFoundException;
 import com.system.restaurant.management.repository.*;
+import com.system.restaurant.management.service.ComboCatalog;
+import com.system.restaurant.management.service.ComboCatalog.ComboDefinition;
+import com.system.restaurant.management.service.FloorStateRegistry;
+import com.system.restaurant.management.service.ReferenceDataRegistry;
 import com.system.restaurant.management.service.WaiterService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -32,19 +36,21 @@ public class WaiterServiceImpl implements WaiterService {
     private final ReservationRepository reservationRepository;
     private final InvoiceRepository invoiceRepository;
     private final PaymentRecordRepository paymentRecordRepository;
-    private final PaymentMethodRepository paymentMethodRepository;
     private final DishRepository dishRepository;
     private final OrderDetailRepository orderDetailRepository;
-    private final OrderStatusRepository orderStatusRepository;
-    private final ComboRepository comboRepository;
     private final InvoicePrintRepository invoicePrintRepository;
     private final LoyaltyTransactionRepository loyaltyTransactionRepository;
+    private final OrderLineWriter orderLineWriter;
+    private final PendingTableOrders pendingTableOrders;
+    private final FloorStateRegistry floorStateRegistry;
+    private final RevenueRollupWriter revenueRollupWriter;
+    private final ReferenceDataRegistry referenceData;
 
 
 
     @Override
     public boolean isTableOccupied(Integer tableId) {
-        return restaurantTableRepository.findById(tableId)
+        return floorStateRegistry.find(tableId)
                 .map(table -> "OCCUPIED".equals(table.getStatus()))
                 .orElse(false);
     }
@@ -58,7 +64,8 @@ public class WaiterServiceImpl implements WaiterService {
             throw new IllegalStateException("Table must be OCCUPIED to place an order");
         }
 
-        Order order = Order.builder()
+        // Bàn đã có order Pending thì gọi thêm vào order đó
+        Order order = pendingTableOrders.findOrOpen(request.getTableId(), () -> Order.builder()
                 .orderType("DINEIN")
                 .tableId(request.getTableId())
                 .statusId(1) // Pending
@@ -66,14 +73,12 @@ public class WaiterServiceImpl implements WaiterService {
                 .discountAmount(BigDecimal.ZERO)
                 .finalTotal(BigDecimal.ZERO)
                 .createdAt(LocalDateTime.now())
-                .build();
-
-        order = orderRepository.save(order);
+                .build());
 
         List<OrderDetail> details = createOrderDetails(request.getItems(), order);
-        BigDecimal subTotal = calculateOrderSubTotal(details);
+        BigDecimal subTotal = order.getSubTotal().add(calculateOrderSubTotal(details));
         order.setSubTotal(subTotal);
-        order.setFinalTotal(subTotal);
+        order.setFinalTotal(subTotal.subtract(order.getDiscountAmount()));
 
         return orderRepository.save(order);
     }
@@ -88,49 +93,20 @@ public class WaiterServiceImpl implements WaiterService {
             throw new IllegalArgumentException("Order must have at least one item");
         }
 
-        List<OrderDetail> allDetails = new ArrayList<>();
+        OrderLineBatch batch = orderLineWriter.prepare(
+                items.stream().filter(item -> !Boolean.TRUE.equals(item.getIsCombo())).map(OrderItemRequest::getDishId).toList(),
+                items.stream().filter(item -> Boolean.TRUE.equals(item.getIsCombo())).map(OrderItemRequest::getComboId).toList());
 
         for (OrderItemRequest item : items) {
             if (item.getComboId() != null && Boolean.TRUE.equals(item.getIsCombo())) {
                 // Xử lý combo
-                Combo combo = comboRepository.findById(item.getComboId())
+                ComboDefinition combo = batch.combo(item.getComboId())
                         .orElseThrow(() -> new ResourceNotFoundException("Combo not found: " + item.getComboId()));
                 
-                // Calculate individual dish price based on combo price proportion
-                BigDecimal comboPricePerUnit = combo.getPrice().divide(BigDecimal.valueOf(item.getQuantity()));
-                BigDecimal totalComboItemQuantity = BigDecimal.valueOf(
-                    combo.getComboItems().stream()
-                        .mapToInt(ComboItem::getQuantity)
-                        .sum()
-                );
-                
-                // Tạo một order detail cho mỗi món trong combo
-                for (ComboItem comboItem : combo.getComboItems()) {
-                    // Tìm dish tương ứng để lấy thông tin
-                    Dish comboDish = dishRepository.findById(comboItem.getDishId())
-                            .orElseThrow(() -> new ResourceNotFoundException("Dish not found: " + comboItem.getDishId()));
-
-                    // Calculate this dish's proportion of the combo price
-                    BigDecimal dishProportion = BigDecimal.valueOf(comboItem.getQuantity())
-                            .divide(totalComboItemQuantity, 2, java.math.RoundingMode.HALF_UP);
-                    BigDecimal adjustedUnitPrice = comboPricePerUnit.multiply(dishProportion);
-
-                    OrderDetail comboDetail = OrderDetail.builder()
-                            .orderId(order.getOrderId())
-                            .dishId(comboDish.getDishId())
-                            .comboId(combo.getComboId())
-                            .quantity(comboItem.getQuantity() * item.getQuantity())
-                            .statusId(1) // Pending
-                            .isRefunded(0)
-                            .notes(item.getNotes() != null ? item.getNotes() + " (Từ combo: " + combo.getComboName() + ")" : "(Từ combo: " + combo.getComboName() + ")")
-                            .unitPrice(adjustedUnitPrice)
-                            .build();
-                    
-                    allDetails.add(orderDetailRepository.save(comboDetail));
-                }
+                comboLines(combo, item, order.getOrderId()).forEach(batch::add);
             } else if (item.getDishId() != null && !Boolean.TRUE.equals(item.getIsCombo())) {
                 // Xử lý món lẻ
-                Dish dish = dishRepository.findById(item.getDishId())
+                Dish dish = batch.dish(item.getDishId())
                         .orElseThrow(() -> new ResourceNotFoundException("Dish not found: " + item.getDishId()));
                 
                 OrderDetail detail = OrderDetail.builder()
@@ -143,16 +119,39 @@ public class WaiterServiceImpl implements WaiterService {
                         .unitPrice(item.getUnitPrice() != null ? item.getUnitPrice() : dish.getPrice())
                         .build();
                 
-                allDetails.add(orderDetailRepository.save(detail));
+                batch.add(detail);
             } else {
                 throw new IllegalArgumentException("Either dishId or comboId must be provided");
             }
         }
 
-        return allDetails;
+        orderLineWriter.write(order.getOrderId(), batch);
+        return batch.getLines();
+    }
+
+    // Giá combo đã được chia sẵn cho từng món trong ComboCatalog (package-private cho OrderPricingBenchmark)
+    static List<OrderDetail> comboLines(ComboDefinition combo, OrderItemRequest item, Integer orderId) {
+        String notes = (item.getNotes() != null ? item.getNotes() + " " : "") + "(Từ combo: " + combo.comboName() + ")";
+        List<OrderDetail> lines = new ArrayList<>();
+        // Tạo một order detail cho mỗi món trong combo
+        for (ComboCatalog.Line line : combo.lines()) {
+            OrderDetail comboDetail = OrderDetail.builder()
+                    .orderId(orderId)
+                    .dishId(line.dishId())
+                    .comboId(combo.comboId())
+                    .quantity(line.quantity() * item.getQuantity())
+                    .statusId(1) // Pending
+                    .isRefunded(0)
+                    .notes(notes)
+                    .unitPrice(line.unitPrice())
+                    .build();
+
+            lines.add(comboDetail);
+        }
+        return lines;
     }
 
-    private BigDecimal calculateOrderSubTotal(List<OrderDetail> details) {
+    static BigDecimal calculateOrderSubTotal(List<OrderDetail> details) {
         return details.stream()
                 .map(detail -> detail.getUnitPrice()
                         .multiply(BigDecimal.valueOf(detail.getQuantity())))
@@ -167,12 +166,12 @@ public class WaiterServiceImpl implements WaiterService {
 
     @Override
     public List<RestaurantTable> getWindowTables() {
-        return restaurantTableRepository.findWindowTables();
+        return floorStateRegistry.findWindowTables();
     }
 
     @Override
     public List<RestaurantTable> getFreeWindowTables() {
-        return restaurantTableRepository.getFreeWindowTables();
+        return floorStateRegistry.findWindowTablesByStatus("AVAILABLE");
     }
 
     @Override
@@ -203,7 +202,7 @@ public class WaiterServiceImpl implements WaiterService {
         // Set payment info if available
         if (!payments.isEmpty()) {
             PaymentRecord latestPayment = payments.get(0);
-            PaymentMethod paymentMethod = paymentMethodRepository.findById(latestPayment.getMethodId())
+            PaymentMethod paymentMethod = referenceData.paymentMethod(latestPayment.getMethodId())
                     .orElseThrow(() -> new RuntimeException("Payment method not found: " + latestPayment.getMethodId()));
             response.setPaymentMethod(paymentMethod.getMethodName());
             response.setPaymentDate(latestPayment.getPaidAt());
@@ -334,6 +333,8 @@ public class WaiterServiceImpl implements WaiterService {
     @Transactional
     public CompletePaymentResponse processCompletePayment(Integer orderId,
                                                           PaymentRequest paymentRequest) {
+        // Khóa bàn trước khi đọc order: món gọi thêm cùng lúc chờ thanh toán xong rồi vào order mới
+        orderRepository.findTableIdByOrderId(orderId).ifPresent(pendingTableOrders::lock);
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new EntityNotFoundException("Order not found: " + orderId));
 
@@ -343,8 +344,7 @@ public class WaiterServiceImpl implements WaiterService {
         }
 
         String pmName = paymentRequest.getPaymentMethod().trim();
-        PaymentMethod pmEntity = paymentMethodRepository
-                .findByMethodName(pmName)
+        PaymentMethod pmEntity = referenceData.paymentMethod(pmName)
                 .orElseThrow(() -> new EntityNotFoundException(
                         "Payment method not found: " + pmName));
         Integer methodId = pmEntity.getMethodId();
@@ -364,7 +364,9 @@ public class WaiterServiceImpl implements WaiterService {
                             .finalTotal(order.getSubTotal().subtract(order.getDiscountAmount()))
                             .issuedBy(issuedBy)
                             .build();
-                    return invoiceRepository.save(inv);
+                    inv = invoiceRepository.save(inv);
+                    revenueRollupWriter.invoiceIssued(inv, order.getOrderType());
+                    return inv;
                 });
 
         if (order.getTable() != null) {
@@ -382,8 +384,9 @@ public class WaiterServiceImpl implements WaiterService {
                 .paidAt(LocalDateTime.now())
                 .build();
         pr = paymentRecordRepository.save(pr);
+        revenueRollupWriter.paymentRecorded(invoice, order.getOrderType(), pr);
 
-        OrderStatus done = orderStatusRepository.findByStatusName("Done")
+        OrderStatus done = referenceData.orderStatus("Done")
                 .orElseThrow(() -> new EntityNotFoundException("Status 'Done' not found"));
         order.setStatusId(done.getStatusId());
         orderRepository.save(order);
@@ -464,7 +467,7 @@ public class WaiterServiceImpl implements WaiterService {
 
     @Override
     public List<RestaurantTable> getTablesByStatus(String status) {
-        return restaurantTableRepository.findByStatus(status);
+        return floorStateRegistry.findByStatus(status);
     }
 
     @Override
@@ -476,7 +479,7 @@ public class WaiterServiceImpl implements WaiterService {
         List<String> normalizedStatuses = statuses.stream()
                 .map(String::toUpperCase)
                 .toList();
-        return restaurantTableRepository.findByMultipleStatuses(normalizedStatuses);
+        return floorStateRegistry.findByStatuses(normalizedStatuses);
     }
 
     @Override
@@ -535,12 +538,12 @@ public class WaiterServiceImpl implements WaiterService {
 
     @Override
     public List<RestaurantTable> getTablesByArea(Integer areaId) {
-        return restaurantTableRepository.findByAreaId(areaId);
+        return floorStateRegistry.findByArea(areaId);
     }
 
     @Override
     public List<RestaurantTable> getFreeTablesByArea(Integer areaId) {
-        return restaurantTableRepository.findFreeTablesByArea(areaId);
+        return floorStateRegistry.findByAreaAndStatus(areaId, "AVAILABLE");
     }
 
     private BigDecimal calculateSubTotal(List<OrderItemRequest> items) {
@@ -0,0 +1,15 @@
+-- Rollup doanh thu theo giờ (RevenueHourlyRollup), xem RevenueRollupWriter
+-- MethodID = 0: hóa đơn chưa có thanh toán
+IF OBJECT_ID(N'dbo.RevenueHourlyRollup', N'U') IS NULL
+    CREATE TABLE RevenueHourlyRollup (
+        BucketStart  DATETIME2     NOT NULL,
+        MethodID     INT           NOT NULL,
+        OrderType    NVARCHAR(20)  NOT NULL,
+        InvoiceCount INT           NOT NULL,
+        TotalRevenue DECIMAL(14,2) NOT NULL,
+        CONSTRAINT PK_RevenueHourlyRollup PRIMARY KEY (BucketStart, MethodID, OrderType)
+    );
+
+-- Báo cáo, backfill rollup và xuất hóa đơn hàng loạt lọc theo IssuedAt
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = N'IX_Invoices_IssuedAt' AND object_id = OBJECT_ID(N'dbo.Invoices'))
+    CREATE INDEX IX_Invoices_IssuedAt ON Invoices(IssuedAt) INCLUDE (OrderID, FinalTotal);
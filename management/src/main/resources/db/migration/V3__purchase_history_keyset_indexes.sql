@@ -0,0 +1,9 @@
+-- Lịch sử giao dịch phân trang keyset: ORDER BY CreatedAt DESC, OrderID DESC
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = N'IX_Orders_CreatedAt' AND object_id = OBJECT_ID(N'dbo.Orders'))
+    CREATE INDEX IX_Orders_CreatedAt ON Orders(CreatedAt DESC, OrderID DESC)
+        INCLUDE (Phone, OrderType, IsRefunded, FinalTotal);
+
+-- Lọc theo số điện thoại (lịch sử giao dịch, Orders.findByPhone)
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = N'IX_Orders_Phone_CreatedAt' AND object_id = OBJECT_ID(N'dbo.Orders'))
+    CREATE INDEX IX_Orders_Phone_CreatedAt ON Orders(Phone, CreatedAt DESC, OrderID DESC)
+        INCLUDE (OrderType, IsRefunded, FinalTotal, DiscountAmount);
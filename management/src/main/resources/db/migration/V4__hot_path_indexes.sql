@@ -0,0 +1,31 @@
+-- Index cho các truy vấn nóng của OrderRepository / OrderDetailRepository / thanh toán / đặt bàn.
+-- Orders(Phone) đã có IX_Orders_Phone_CreatedAt (V3), Invoices(IssuedAt) có IX_Invoices_IssuedAt (V2).
+
+-- Đơn đang phục vụ của một bàn: findActiveOrdersByTableId, findPendingOrdersByTableId, findByTableIdAndStatusIdIn
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = N'IX_Orders_TableID_StatusID_CreatedAt' AND object_id = OBJECT_ID(N'dbo.Orders'))
+    CREATE INDEX IX_Orders_TableID_StatusID_CreatedAt ON Orders(TableID, StatusID, CreatedAt DESC);
+
+-- Đơn mang đi theo trạng thái: findByOrderTypeAndStatusId, findTakeawayOrdersByItemStatus
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = N'IX_Orders_OrderType_StatusID' AND object_id = OBJECT_ID(N'dbo.Orders'))
+    CREATE INDEX IX_Orders_OrderType_StatusID ON Orders(OrderType, StatusID) INCLUDE (CreatedAt, TableID);
+
+-- Các món của một order: findByOrderId, findByOrderIdAndStatusId, findByOrderIdWithDetails
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = N'IX_OrderDetails_OrderID' AND object_id = OBJECT_ID(N'dbo.OrderDetails'))
+    CREATE INDEX IX_OrderDetails_OrderID ON OrderDetails(OrderID) INCLUDE (StatusID, DishID, ComboID);
+
+-- Màn hình bếp (findKitchenBoard, findByStatusId): phủ toàn bộ cột để không cần key lookup
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = N'IX_OrderDetails_StatusID' AND object_id = OBJECT_ID(N'dbo.OrderDetails'))
+    CREATE INDEX IX_OrderDetails_StatusID ON OrderDetails(StatusID)
+        INCLUDE (OrderID, DishID, ComboID, Quantity, UnitPrice, IsRefunded, Notes);
+
+-- Hóa đơn của một order: InvoiceRepository.findByOrderId, findPdfRows
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = N'IX_Invoices_OrderID' AND object_id = OBJECT_ID(N'dbo.Invoices'))
+    CREATE INDEX IX_Invoices_OrderID ON Invoices(OrderID) INCLUDE (FinalTotal, DiscountAmount, IssuedAt);
+
+-- Thanh toán của một hóa đơn: findTopByInvoiceIdOrderByPaidAtDesc, findFirstByInvoiceIdOrderByPaymentIdAsc
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = N'IX_PaymentRecords_InvoiceID_PaidAt' AND object_id = OBJECT_ID(N'dbo.PaymentRecords'))
+    CREATE INDEX IX_PaymentRecords_InvoiceID_PaidAt ON PaymentRecords(InvoiceID, PaidAt) INCLUDE (MethodID, Amount);
+
+-- Đặt bàn theo trạng thái và thời gian: findByStatusIdAndReservationAtBefore
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = N'IX_Reservations_StatusID_ReservationAt' AND object_id = OBJECT_ID(N'dbo.Reservations'))
+    CREATE INDEX IX_Reservations_StatusID_ReservationAt ON Reservations(StatusID, ReservationAt) INCLUDE (TableID);
@@ -0,0 +1,34 @@
+-- Hàng đợi mail gửi đi (OTP, nhắc lịch đặt bàn): API chỉ ghi một dòng, MailOutboxWorker gửi sau.
+-- Pending -> Sending (đã được một worker nhận, NextAttemptAt = hết hạn nhận) -> Sent | Failed;
+-- lỗi tạm thời quay lại Pending với NextAttemptAt lùi dần.
+IF OBJECT_ID(N'dbo.OutboundMails', N'U') IS NULL
+    CREATE TABLE OutboundMails (
+        MailID         INT           IDENTITY PRIMARY KEY,
+        Recipient      NVARCHAR(255) NOT NULL,
+        Subject        NVARCHAR(255) NOT NULL,
+        Body           NVARCHAR(4000) NOT NULL,
+        Status         NVARCHAR(20)  NOT NULL DEFAULT N'Pending',
+        Attempts       INT           NOT NULL DEFAULT 0,
+        NextAttemptAt  DATETIME2     NOT NULL DEFAULT SYSDATETIME(),
+        CreatedAt      DATETIME2     NOT NULL DEFAULT SYSDATETIME(),
+        SentAt         DATETIME2     NULL,
+        LastError      NVARCHAR(500) NULL,
+        NotificationID INT           NULL
+    );
+
+-- Worker chỉ quét các mail còn phải gửi
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = N'IX_OutboundMails_Due' AND object_id = OBJECT_ID(N'dbo.OutboundMails'))
+    CREATE INDEX IX_OutboundMails_Due ON OutboundMails(NextAttemptAt)
+        WHERE Status IN (N'Pending', N'Sending');
+
+-- Entity Notification (nhắc lịch, SystemService.sendNotification) dùng bảng Notifications,
+-- bảng này chưa có trong database_core.sql
+IF OBJECT_ID(N'dbo.Notifications', N'U') IS NULL
+    CREATE TABLE Notifications (
+        NotificationID INT          IDENTITY PRIMARY KEY,
+        ReservationID  INT          NOT NULL REFERENCES Reservations(ReservationID),
+        SentAt         DATETIME2    NOT NULL DEFAULT SYSUTCDATETIME(),
+        Channel        NVARCHAR(20) NOT NULL,
+        Status         NVARCHAR(20),
+        Notes          NVARCHAR(255)
+    );
@@ -0,0 +1,20 @@
+-- PromoUsage ghi mỗi lần đổi mã theo order: entity PromoUsage dùng khóa UsageID, còn
+-- database_core.sql dùng khóa (PromoID, Phone, UsedAt) nên Phone không được NULL (khách vãng lai).
+IF COL_LENGTH(N'dbo.PromoUsage', N'UsageID') IS NULL
+BEGIN
+    DECLARE @pk SYSNAME = (SELECT name FROM sys.key_constraints
+                           WHERE parent_object_id = OBJECT_ID(N'dbo.PromoUsage') AND type = N'PK');
+    IF @pk IS NOT NULL
+        EXEC (N'ALTER TABLE dbo.PromoUsage DROP CONSTRAINT ' + @pk);
+    ALTER TABLE PromoUsage ALTER COLUMN Phone NVARCHAR(20) NULL;
+    ALTER TABLE PromoUsage ADD UsageID BIGINT IDENTITY NOT NULL CONSTRAINT PK_PromoUsage PRIMARY KEY;
+END
+
+IF COL_LENGTH(N'dbo.PromoUsage', N'OrderID') IS NULL
+    ALTER TABLE PromoUsage ADD OrderID INT NULL REFERENCES Orders(OrderID);
+GO
+
+-- Một order chỉ đổi được một mã, một lần: request lặp lại (bấm 2 lần, client retry) không trừ lượt thêm
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = N'UX_PromoUsage_OrderID' AND object_id = OBJECT_ID(N'dbo.PromoUsage'))
+    CREATE UNIQUE INDEX UX_PromoUsage_OrderID ON PromoUsage(OrderID) INCLUDE (PromoID)
+        WHERE OrderID IS NOT NULL;
@@ -0,0 +1,4 @@
+-- Khóa lạc quan cho Orders: SubTotal/FinalTotal được cộng dồn theo từng dòng thay đổi,
+-- hai giao dịch cùng sửa một order thì giao dịch sau phải thất bại thay vì ghi đè tổng tiền.
+IF COL_LENGTH(N'dbo.Orders', N'Version') IS NULL
+    ALTER TABLE Orders ADD Version INT NOT NULL CONSTRAINT DF_Orders_Version DEFAULT 0;
@@ -0,0 +1,55 @@
+-- Mỗi bàn chỉ có một order Pending: nhiều máy cùng bàn gọi món một lúc không còn tách món ra
+-- nhiều order. PendingTableOrders khóa theo bàn trong một instance; index này chặn giữa các instance.
+
+-- Dữ liệu cũ: gộp các order Pending trùng của một bàn vào order mới nhất (order mà
+-- findPendingOrdersByTableId trả về), các order còn lại chuyển sang Cancelled với tổng tiền 0.
+-- Order sắp hủy mà đã có giảm giá / đổi mã khuyến mãi (PromoUsage) thì không gộp được tự động:
+-- migration dừng và liệt kê các order đó để xử lý tay.
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = N'UX_Orders_PendingTable' AND object_id = OBJECT_ID(N'dbo.Orders'))
+BEGIN
+    SELECT OrderID,
+           FIRST_VALUE(OrderID) OVER (PARTITION BY TableID ORDER BY CreatedAt DESC, OrderID DESC) AS KeepID
+    INTO #PendingMerge
+    FROM Orders
+    WHERE StatusID = 1 AND TableID IS NOT NULL;
+
+    DELETE FROM #PendingMerge WHERE OrderID = KeepID;
+
+    DECLARE @conflicts NVARCHAR(MAX) = (
+        SELECT STRING_AGG(CAST(m.OrderID AS NVARCHAR(MAX)) + N' (giữ ' + CAST(m.KeepID AS NVARCHAR(20)) + N')', N', ')
+        FROM #PendingMerge m
+        JOIN Orders o ON o.OrderID = m.OrderID
+        WHERE ISNULL(o.DiscountAmount, 0) <> 0
+           OR EXISTS (SELECT 1 FROM PromoUsage u WHERE u.OrderID = m.OrderID));
+    IF @conflicts IS NOT NULL
+    BEGIN
+        DECLARE @message NVARCHAR(2048) = LEFT(
+            N'V8: order Pending trùng bàn có giảm giá/khuyến mãi, cần gộp tay trước khi migrate: ' + @conflicts, 2048);
+        THROW 50001, @message, 1;
+    END
+
+    UPDATE d SET d.OrderID = m.KeepID
+    FROM OrderDetails d
+    JOIN #PendingMerge m ON m.OrderID = d.OrderID;
+
+    -- Các order gộp vào không có giảm giá (đã kiểm tra ở trên): FinalTotal = SubTotal
+    UPDATE k SET k.SubTotal   = ISNULL(k.SubTotal, 0) + s.SubTotal,
+                 k.FinalTotal = ISNULL(k.FinalTotal, 0) + s.SubTotal
+    FROM Orders k
+    JOIN (SELECT m.KeepID,
+                 SUM(ISNULL(o.SubTotal, 0)) AS SubTotal
+          FROM #PendingMerge m
+          JOIN Orders o ON o.OrderID = m.OrderID
+          GROUP BY m.KeepID) s ON s.KeepID = k.OrderID;
+
+    UPDATE o SET o.StatusID = 4, o.SubTotal = 0, o.DiscountAmount = 0, o.FinalTotal = 0
+    FROM Orders o
+    JOIN #PendingMerge m ON m.OrderID = o.OrderID;
+
+    DROP TABLE #PendingMerge;
+END
+GO
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = N'UX_Orders_PendingTable' AND object_id = OBJECT_ID(N'dbo.Orders'))
+    CREATE UNIQUE INDEX UX_Orders_PendingTable ON Orders(TableID)
+        WHERE StatusID = 1 AND TableID IS NOT NULL;
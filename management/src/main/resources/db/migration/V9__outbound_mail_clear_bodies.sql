@@ -0,0 +1,3 @@
+-- Body của mail đã gửi / đã bỏ cuộc có thể chứa mã OTP: worker xóa Body ngay khi mail xong,
+-- ở đây xóa cho các dòng có từ trước
+UPDATE OutboundMails SET Body = N'' WHERE Status IN (N'Sent', N'Failed') AND Body <> N'';
@@ -0,0 +1,37 @@
+package com.system.restaurant.management.plancheck;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Hibernate statement inspector used by {@link QueryPlanCheck} to record the SQL that a
+ * repository call really sends. Only registered in the "plan-check" profile
+ * (application-plan-check.properties); outside {@link #capture} it passes SQL through untouched.
+ */
+public class PlanCaptureInspector implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> captured = CAPTURED.get();
+        if (captured != null) {
+            captured.add(sql);
+        }
+        return sql;
+    }
+
+    public static List<String> capture(Supplier<?> call) {
+        List<String> captured = new ArrayList<>();
+        CAPTURED.set(captured);
+        try {
+            call.get();
+        } finally {
+            CAPTURED.remove();
+        }
+        return captured;
+    }
+}
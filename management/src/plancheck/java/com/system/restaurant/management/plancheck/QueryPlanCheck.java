@@ -0,0 +1,283 @@
+package com.system.restaurant.management.plancheck;
+
+import com.system.restaurant.management.repository.InvoiceRepository;
+import com.system.restaurant.management.repository.OrderDetailRepository;
+import com.system.restaurant.management.repository.OrderRepository;
+import com.system.restaurant.management.repository.PaymentRecordRepository;
+import com.system.restaurant.management.repository.ReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Query plan regression check for the hot repository queries (Maven and Spring profile
+ * "plan-check"; src/plancheck is not part of the application jar).
+ * <p>
+ * Each query is run through its real repository method, the SQL Hibernate sent is captured
+ * with {@link PlanCaptureInspector}, and the cached execution plan is read back from
+ * sys.dm_exec_query_stats. The check fails when a plan scans one of the indexed tables
+ * instead of seeking, e.g. because an index from db/migration was dropped or a query
+ * stopped matching it.
+ * <p>
+ * Plans depend on table size, so a database with fewer than {@code plan-check.seed-orders}
+ * orders is first filled with synthetic rows (Notes = 'plan-check seed'), which are deleted
+ * again afterwards. Needs VIEW SERVER STATE; meant for a local database.
+ */
+@Component
+@Profile("plan-check")
+@RequiredArgsConstructor
+@Slf4j
+public class QueryPlanCheck implements ApplicationRunner {
+
+    private static final String SEED = "plan-check seed";
+    private static final Set<String> CHECKED_TABLES =
+            Set.of("Orders", "OrderDetails", "Invoices", "PaymentRecords", "Reservations");
+    private static final Set<String> SCAN_OPS = Set.of("Table Scan", "Clustered Index Scan", "Index Scan");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ApplicationContext context;
+    private final OrderRepository orderRepository;
+    private final OrderDetailRepository orderDetailRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final PaymentRecordRepository paymentRecordRepository;
+    private final ReservationRepository reservationRepository;
+
+    @Value("${plan-check.seed-orders:50000}")
+    private int seedOrders;
+
+    @Value("${plan-check.cleanup:true}")
+    private boolean cleanup;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        boolean seeded = seedIfNeeded();
+        List<String> failures;
+        try {
+            failures = check();
+        } finally {
+            if (seeded && cleanup) {
+                removeSeed();
+            }
+        }
+        if (!failures.isEmpty()) {
+            failures.forEach(failure -> log.error("Query plan regression: {}", failure));
+            throw new IllegalStateException("Query plan check failed for " + failures.size() + " queries");
+        }
+        log.info("Query plan check passed");
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+
+    private List<String> check() {
+        MapSqlParameterSource none = new MapSqlParameterSource();
+        Integer tableId = jdbcTemplate.queryForObject(
+                "SELECT MAX(TableID) FROM Orders WHERE StatusID IN (1, 2)", none, Integer.class);
+        Integer orderId = jdbcTemplate.queryForObject(
+                "SELECT MAX(o.OrderID) FROM Orders o JOIN Invoices i ON i.OrderID = o.OrderID", none, Integer.class);
+        Integer invoiceId = jdbcTemplate.queryForObject(
+                "SELECT MAX(InvoiceID) FROM Invoices WHERE OrderID = :orderId",
+                new MapSqlParameterSource("orderId", orderId), Integer.class);
+        String phone = jdbcTemplate.queryForObject(
+                "SELECT MAX(Phone) FROM Orders WHERE Phone IS NOT NULL", none, String.class);
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<String, Supplier<?>> queries = new LinkedHashMap<>();
+        queries.put("OrderRepository.findActiveOrdersByTableId", () -> orderRepository.findActiveOrdersByTableId(tableId));
+        queries.put("OrderRepository.findPendingOrdersByTableId", () -> orderRepository.findPendingOrdersByTableId(tableId));
+        queries.put("OrderRepository.findByTableIdAndStatusIdIn", () -> orderRepository.findByTableIdAndStatusIdIn(tableId, List.of(1, 2)));
+        queries.put("OrderRepository.findByPhone", () -> orderRepository.findByPhone(phone));
+        queries.put("OrderRepository.findByOrderTypeAndStatusId", () -> orderRepository.findByOrderTypeAndStatusId("TAKEAWAY", 1));
+        queries.put("OrderDetailRepository.findByOrderId", () -> orderDetailRepository.findByOrderId(orderId));
+        queries.put("OrderDetailRepository.findByOrderIdAndStatusId", () -> orderDetailRepository.findByOrderIdAndStatusId(orderId, 3));
+        queries.put("OrderDetailRepository.findByStatusId", () -> orderDetailRepository.findByStatusId(1));
+        queries.put("OrderDetailRepository.findKitchenBoard", () -> orderDetailRepository.findKitchenBoard(now.minusMinutes(60)));
+        queries.put("InvoiceRepository.findByOrderId", () -> invoiceRepository.findByOrderId(orderId));
+        queries.put("PaymentRecordRepository.findTopByInvoiceIdOrderByPaidAtDesc", () -> paymentRecordRepository.findTopByInvoiceIdOrderByPaidAtDesc(invoiceId));
+        queries.put("ReservationRepository.findByStatusIdAndReservationAtBefore", () -> reservationRepository.findByStatusIdAndReservationAtBefore(1, now));
+        queries.put("ReservationRepository.findDeadlinesByStatusId", () -> reservationRepository.findDeadlinesByStatusId(1));
+
+        List<String> failures = new ArrayList<>();
+        queries.forEach((name, call) -> {
+            for (String sql : PlanCaptureInspector.capture(call)) {
+                String plan = cachedPlan(sql);
+                if (plan == null) {
+                    failures.add(name + ": no cached plan found for " + sql);
+                    continue;
+                }
+                List<String> scans = scans(plan);
+                if (scans.isEmpty()) {
+                    log.info("{}: seek only", name);
+                } else {
+                    failures.add(name + ": " + String.join(", ", scans) + " in " + sql);
+                }
+            }
+        });
+        return failures;
+    }
+
+    // mssql-jdbc gửi câu lệnh dạng "(@P0 int,...)select ... @P0", nên đổi ? thành @Pn để tìm trong plan cache
+    private String cachedPlan(String sql) {
+        StringBuilder text = new StringBuilder();
+        int param = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                text.append("@P").append(param++);
+            } else {
+                text.append(c);
+            }
+        }
+        List<String> plans = jdbcTemplate.queryForList("""
+          SELECT TOP 1 CAST(qp.query_plan AS NVARCHAR(MAX))
+          FROM sys.dm_exec_query_stats qs
+          CROSS APPLY sys.dm_exec_sql_text(qs.sql_handle) st
+          CROSS APPLY sys.dm_exec_query_plan(qs.plan_handle) qp
+          WHERE CHARINDEX(:text, st.text) > 0
+          ORDER BY qs.last_execution_time DESC
+        """, new MapSqlParameterSource("text", text.toString()), String.class);
+        return plans.isEmpty() ? null : plans.get(0);
+    }
+
+    // Các RelOp quét (scan) trên những bảng đã có index cho truy vấn nóng
+    private static List<String> scans(String planXml) {
+        List<String> scans = new ArrayList<>();
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            NodeList relOps = factory.newDocumentBuilder()
+                    .parse(new ByteArrayInputStream(planXml.getBytes(StandardCharsets.UTF_8)))
+                    .getElementsByTagNameNS("*", "RelOp");
+            for (int i = 0; i < relOps.getLength(); i++) {
+                Element relOp = (Element) relOps.item(i);
+                String op = relOp.getAttribute("PhysicalOp");
+                if (!SCAN_OPS.contains(op)) {
+                    continue;
+                }
+                for (Node child = relOp.getFirstChild(); child != null; child = child.getNextSibling()) {
+                    if (child instanceof Element scan && Set.of("IndexScan", "TableScan").contains(scan.getLocalName())) {
+                        NodeList objects = scan.getElementsByTagNameNS("*", "Object");
+                        if (objects.getLength() > 0) {
+                            Element object = (Element) objects.item(0);
+                            String table = object.getAttribute("Table").replace("[", "").replace("]", "");
+                            if (CHECKED_TABLES.contains(table)) {
+                                scans.add(op + " on " + table + object.getAttribute("Index"));
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not parse execution plan", e);
+        }
+        return scans;
+    }
+
+    private boolean seedIfNeeded() {
+        MapSqlParameterSource none = new MapSqlParameterSource();
+        Integer orders = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM Orders", none, Integer.class);
+        if (orders != null && orders >= seedOrders) {
+            log.info("Query plan check on existing data ({} orders)", orders);
+            return false;
+        }
+        Integer dishId = jdbcTemplate.queryForObject("SELECT MIN(DishID) FROM Dishes", none, Integer.class);
+        Integer userId = jdbcTemplate.queryForObject("SELECT MIN(UserID) FROM Users", none, Integer.class);
+        Integer tables = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM RestaurantTables", none, Integer.class);
+        if (dishId == null || userId == null || tables == null || tables == 0) {
+            throw new IllegalStateException("Plan check seeding needs at least one dish, one user and one table");
+        }
+
+        log.info("Seeding {} synthetic orders for the query plan check", seedOrders);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("count", seedOrders)
+                .addValue("tables", tables)
+                .addValue("dishId", dishId)
+                .addValue("userId", userId)
+                .addValue("seed", SEED);
+        // Tỷ lệ gần với thực tế: đơn đang mở / đặt bàn chờ xác nhận chỉ là phần rất nhỏ của lịch sử
+        jdbcTemplate.update("""
+          WITH n AS (SELECT TOP (:count) ROW_NUMBER() OVER (ORDER BY (SELECT NULL)) AS i
+                     FROM sys.all_objects a CROSS JOIN sys.all_objects b),
+               t AS (SELECT TableID, ROW_NUMBER() OVER (ORDER BY TableID) - 1 AS rn FROM RestaurantTables)
+          INSERT INTO Orders (OrderType, CustomerName, Phone, SubTotal, DiscountAmount, FinalTotal,
+                              TableID, CreatedAt, StatusID, IsRefunded, Notes)
+          SELECT CASE WHEN n.i % 4 = 0 THEN 'TAKEAWAY' ELSE 'DINEIN' END,
+                 N'Plan check',
+                 CASE WHEN n.i % 3 = 0 THEN NULL ELSE '09' + RIGHT('00000000' + CAST(n.i % 5000 AS VARCHAR(8)), 8) END,
+                 150000, 0, 150000,
+                 CASE WHEN n.i % 4 = 0 THEN NULL ELSE t.TableID END,
+                 DATEADD(minute, -20 * n.i, SYSDATETIME()),
+                 CASE WHEN n.i % 500 = 0 THEN 1 WHEN n.i % 500 = 1 THEN 2 WHEN n.i % 100 = 2 THEN 4 ELSE 3 END,
+                 0, :seed
+          FROM n JOIN t ON t.rn = n.i % :tables
+        """, params);
+        jdbcTemplate.update("""
+          INSERT INTO OrderDetails (OrderID, DishID, Quantity, UnitPrice, StatusID, IsRefunded, Notes)
+          SELECT o.OrderID, :dishId, 1, 50000, o.StatusID, 0, :seed
+          FROM Orders o CROSS JOIN (VALUES (1), (2), (3)) AS v(k)
+          WHERE o.Notes = :seed
+        """, params);
+        jdbcTemplate.update("""
+          INSERT INTO Invoices (OrderID, SubTotal, DiscountAmount, FinalTotal, IssuedBy, IssuedAt)
+          SELECT o.OrderID, o.SubTotal, 0, o.FinalTotal, :userId, o.CreatedAt
+          FROM Orders o
+          WHERE o.Notes = :seed AND o.StatusID = 3
+        """, params);
+        jdbcTemplate.update("""
+          INSERT INTO PaymentRecords (InvoiceID, MethodID, Amount, PaidAt, Notes)
+          SELECT i.InvoiceID, 1, i.FinalTotal, i.IssuedAt, :seed
+          FROM Invoices i JOIN Orders o ON o.OrderID = i.OrderID
+          WHERE o.Notes = :seed
+        """, params);
+        jdbcTemplate.update("""
+          WITH n AS (SELECT TOP (:count) ROW_NUMBER() OVER (ORDER BY (SELECT NULL)) AS i
+                     FROM sys.all_objects a CROSS JOIN sys.all_objects b),
+               t AS (SELECT TableID, ROW_NUMBER() OVER (ORDER BY TableID) - 1 AS rn FROM RestaurantTables)
+          INSERT INTO Reservations (CustomerName, Phone, TableID, ReservationAt, StatusID, CreatedAt, Notes)
+          SELECT N'Plan check', '09' + RIGHT('00000000' + CAST(n.i % 5000 AS VARCHAR(8)), 8), t.TableID,
+                 DATEADD(minute, 30 * (n.i - :count / 2), SYSDATETIME()),
+                 CASE WHEN n.i % 500 = 0 THEN 1 WHEN n.i % 10 = 1 THEN 3 ELSE 2 END,
+                 SYSDATETIME(), :seed
+          FROM n JOIN t ON t.rn = n.i % :tables
+        """, params);
+        for (String table : CHECKED_TABLES) {
+            jdbcTemplate.update("UPDATE STATISTICS " + table + " WITH FULLSCAN", params);
+        }
+        return true;
+    }
+
+    private void removeSeed() {
+        MapSqlParameterSource params = new MapSqlParameterSource("seed", SEED);
+        jdbcTemplate.update("""
+          DELETE pr FROM PaymentRecords pr
+          JOIN Invoices i ON i.InvoiceID = pr.InvoiceID
+          JOIN Orders o ON o.OrderID = i.OrderID
+          WHERE o.Notes = :seed
+        """, params);
+        jdbcTemplate.update("DELETE i FROM Invoices i JOIN Orders o ON o.OrderID = i.OrderID WHERE o.Notes = :seed", params);
+        jdbcTemplate.update("DELETE FROM OrderDetails WHERE Notes = :seed", params);
+        jdbcTemplate.update("DELETE FROM Orders WHERE Notes = :seed", params);
+        jdbcTemplate.update("DELETE FROM Reservations WHERE Notes = :seed", params);
+        log.info("Query plan check seed data removed");
+    }
+}